@@ -0,0 +1,132 @@
+package io.github.fishthefirst.jmscontextprovider.benchmarks;
+
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConsumer;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSContextAwareComponentFactory;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerTransactionManager;
+import io.github.fishthefirst.jmscontextprovider.serde.StringToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.testsupport.InMemoryBroker;
+import jakarta.jms.JMSContext;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Producers and consumers of the library talking to each other through the in-memory broker.
+ * <p>
+ * Producers wait while the queue holds more than {@code maxQueueDepth} messages, so the producer rate settles at what
+ * the consumer keeps up with instead of filling the heap. The consumer's rate is reported as the {@code consumed}
+ * secondary result.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+    private static final String QUEUE = "benchmarks";
+
+    @Param({"0"})
+    private long brokerLatencyMicros;
+
+    @Param({"10000"})
+    private int maxQueueDepth;
+
+    @Param({"10"})
+    private int messagesPerTransaction;
+
+    private InMemoryBroker broker;
+    private JMSConnectionContextHolder connectionContextHolder;
+    private JMSProducerTransactionManager<String> transactionManager;
+    private JMSConsumer<String> consumer;
+    private final LongAdder consumed = new LongAdder();
+    private String payload;
+
+    @Setup
+    public void setup() {
+        broker = new InMemoryBroker();
+        broker.setSendLatency(brokerLatencyMicros, TimeUnit.MICROSECONDS);
+        broker.setCommitLatency(brokerLatencyMicros, TimeUnit.MICROSECONDS);
+        connectionContextHolder = JMSContextAwareComponentFactory.createContextHolder(broker.createConnectionFactory());
+        transactionManager = new JMSProducerTransactionManager<>(connectionContextHolder,
+                Object::toString,
+                null,
+                null,
+                null,
+                null,
+                QUEUE,
+                false);
+        consumer = JMSContextAwareComponentFactory.createConsumer(connectionContextHolder,
+                message -> consumed.increment(),
+                (StringToObjectUnmarshaller<String>) s -> s,
+                QUEUE,
+                false,
+                "benchmarks-consumer",
+                JMSContext.CLIENT_ACKNOWLEDGE);
+        consumer.start();
+        payload = Payloads.json(256);
+    }
+
+    @TearDown
+    public void tearDown() {
+        consumer.close();
+        connectionContextHolder.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ConsumedCounter {
+        public long consumed;
+        private long baseline;
+
+        @Setup(Level.Iteration)
+        public void reset(EndToEndBenchmark benchmark) {
+            baseline = benchmark.consumed.sum();
+            consumed = 0;
+        }
+    }
+
+    /**
+     * Messages sent outside a transaction, each committed on its own.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void produceAndConsume(ConsumedCounter counter) {
+        while (broker.getQueueDepth(QUEUE) > maxQueueDepth) {
+            Thread.onSpinWait();
+        }
+        transactionManager.sendObject(payload);
+        counter.consumed = consumed.sum() - counter.baseline;
+    }
+
+    /**
+     * The time to send a transaction's messages and commit them, as a distribution.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean transactedCommit() {
+        while (broker.getQueueDepth(QUEUE) > maxQueueDepth) {
+            Thread.onSpinWait();
+        }
+        transactionManager.startTransaction();
+        for (int i = 0; i < messagesPerTransaction; i++) {
+            transactionManager.sendObject(payload);
+        }
+        return transactionManager.commit();
+    }
+}
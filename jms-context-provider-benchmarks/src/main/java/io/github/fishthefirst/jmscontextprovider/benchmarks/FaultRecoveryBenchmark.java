@@ -0,0 +1,208 @@
+package io.github.fishthefirst.jmscontextprovider.benchmarks;
+
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConsumer;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSContextAwareComponentFactory;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerTransactionManager;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.testsupport.Fault;
+import io.github.fishthefirst.jmscontextprovider.testsupport.FaultInjector;
+import io.github.fishthefirst.jmscontextprovider.testsupport.InMemoryBroker;
+import io.github.fishthefirst.jmscontextprovider.utils.ExponentialBackoff;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The time from a fault being injected to a message sent after it reaching the consumer.
+ * <p>
+ * Each iteration sends a burst of messages, injects the fault and sends until a message gets through. Once the
+ * messages still in flight have settled, the messages lost, received more than once and redelivered by the broker are
+ * reported as secondary results. Sends the library reported as failed are not counted as lost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FaultRecoveryBenchmark {
+    private static final String QUEUE = "benchmarks";
+    private static final String POISON = "poison-";
+
+    @Param({"DROP_CONNECTION", "FAIL_COMMIT", "STALL_SEND", "FAIL_RECOVER"})
+    private Fault fault;
+
+    @Param({"100"})
+    private int messagesBeforeFault;
+
+    @Param({"50"})
+    private long initialBackoffMillis;
+
+    private InMemoryBroker broker;
+    private FaultInjector injector;
+    private JMSConnectionContextHolder connectionContextHolder;
+    private JMSProducerTransactionManager<String> transactionManager;
+    private JMSConsumer<String> consumer;
+
+    // Bookkeeping of the current iteration
+    private final Set<String> sent = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> received = new ConcurrentHashMap<>();
+    private final Set<String> poisoned = ConcurrentHashMap.newKeySet();
+    private final LongAdder redelivered = new LongAdder();
+    private long sequence;
+
+    @Setup
+    public void setup() {
+        broker = new InMemoryBroker();
+        injector = new FaultInjector();
+        connectionContextHolder = JMSContextAwareComponentFactory.createContextHolder(injector.wrap(broker.createConnectionFactory()));
+        connectionContextHolder.setReconnectBackoff(new ExponentialBackoff(initialBackoffMillis, initialBackoffMillis * 8, 2, 0));
+        transactionManager = new JMSProducerTransactionManager<>(connectionContextHolder,
+                Object::toString,
+                failed::add,
+                null,
+                null,
+                null,
+                QUEUE,
+                false);
+        consumer = JMSContextAwareComponentFactory.createConsumer(connectionContextHolder,
+                this::onMessage,
+                (MessageToObjectUnmarshaller<String>) this::unmarshal,
+                QUEUE,
+                false,
+                "benchmarks-consumer",
+                JMSContext.CLIENT_ACKNOWLEDGE);
+        consumer.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        consumer.close();
+        connectionContextHolder.close();
+        injector.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RecoveryCounters {
+        public long lost;
+        public long duplicated;
+        public long redelivered;
+        public long failedSends;
+
+        /**
+         * JMH reads the counters after the iteration's tear down.
+         */
+        @TearDown(Level.Iteration)
+        public void settle(FaultRecoveryBenchmark benchmark) throws InterruptedException {
+            benchmark.settle(this);
+        }
+    }
+
+    /**
+     * Each iteration starts from a producer and a consumer that are both connected and a clean slate.
+     */
+    @Setup(Level.Iteration)
+    public void connect() throws InterruptedException {
+        injector.reset();
+        sendUntilReceived();
+        broker.purge();
+        sent.clear();
+        failed.clear();
+        received.clear();
+        poisoned.clear();
+        redelivered.reset();
+    }
+
+    /**
+     * The counters are filled in once the iteration is over.
+     */
+    @Benchmark
+    public void recover(RecoveryCounters counters) throws InterruptedException {
+        for (int i = 0; i < messagesBeforeFault; i++) {
+            send("message-" + sequence++);
+        }
+        injector.inject(fault);
+        if (fault == Fault.FAIL_RECOVER) {
+            // The consumer only recovers its session when its callback fails
+            send(POISON + sequence++);
+        }
+        sendUntilReceived();
+    }
+
+    private void settle(RecoveryCounters counters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline && outstanding() > 0) {
+            Thread.sleep(10);
+        }
+        // Leave time for duplicates to arrive
+        Thread.sleep(100);
+        counters.lost = outstanding();
+        counters.duplicated = received.values().stream().mapToLong(count -> Math.max(0, count.get() - 1)).sum();
+        counters.redelivered = redelivered.sum();
+        counters.failedSends = failed.size();
+    }
+
+    private long outstanding() {
+        return sent.stream().filter(message -> !failed.contains(message) && !received.containsKey(message)).count();
+    }
+
+    private void send(String message) {
+        sent.add(message);
+        transactionManager.startTransaction();
+        transactionManager.sendObject(message);
+        transactionManager.commit();
+    }
+
+    private void sendUntilReceived() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            String probe = "probe-" + sequence++;
+            send(probe);
+            long probeDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20);
+            while (System.nanoTime() < probeDeadline) {
+                if (received.containsKey(probe)) {
+                    return;
+                }
+                Thread.sleep(1);
+            }
+        }
+        throw new IllegalStateException("No message made it through within the timeout");
+    }
+
+    private String unmarshal(jakarta.jms.Message message, String body) throws JMSException {
+        if (message.getJMSRedelivered()) {
+            redelivered.increment();
+        }
+        return body;
+    }
+
+    private void onMessage(String message) {
+        if (message.startsWith(POISON) && poisoned.add(message)) {
+            throw new IllegalStateException("Poison message");
+        }
+        received.computeIfAbsent(message, key -> new AtomicInteger()).incrementAndGet();
+    }
+}
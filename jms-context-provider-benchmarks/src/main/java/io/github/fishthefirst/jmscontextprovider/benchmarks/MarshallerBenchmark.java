@@ -0,0 +1,79 @@
+package io.github.fishthefirst.jmscontextprovider.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.fishthefirst.jmscontextprovider.configuration.JMSTransactionalAutoConfiguration;
+import io.github.fishthefirst.jmscontextprovider.configuration.JacksonTypeCache;
+import io.github.fishthefirst.jmscontextprovider.data.MetadataMode;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageWithMetadataMarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.ObjectToStringMarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.StringToObjectUnmarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The marshallers the starter registers, built through its configuration so the benchmarks follow what applications get.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarshallerBenchmark {
+    @Param({"64", "1024", "16384"})
+    private int payloadSize;
+
+    private String json;
+    private Payloads.Order order;
+    private String bodyEnvelope;
+    private ObjectToStringMarshaller<String> envelopeMarshaller;
+    private ObjectToStringMarshaller<Object> jacksonBodyMarshaller;
+    private ObjectToStringMarshaller<Object> jacksonHeadersMarshaller;
+    private StringToObjectUnmarshaller<?> jacksonUnmarshaller;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        JMSTransactionalAutoConfiguration configuration = new JMSTransactionalAutoConfiguration();
+        JacksonTypeCache typeCache = new JacksonTypeCache(new ObjectMapper(), List.of(Payloads.class.getPackageName()));
+        json = Payloads.json(payloadSize);
+        order = Payloads.order(payloadSize);
+        envelopeMarshaller = new MessageWithMetadataMarshaller<>((ObjectToStringMarshaller<String>) s -> s, false);
+        jacksonBodyMarshaller = (ObjectToStringMarshaller<Object>) configuration.objectToStringMarshaller(typeCache, MetadataMode.BODY);
+        jacksonHeadersMarshaller = (ObjectToStringMarshaller<Object>) configuration.objectToStringMarshaller(typeCache, MetadataMode.HEADERS);
+        jacksonUnmarshaller = configuration.stringToObjectUnmarshaller(typeCache);
+        bodyEnvelope = jacksonBodyMarshaller.marshal(order);
+    }
+
+    @Benchmark
+    public String envelopeString() {
+        return envelopeMarshaller.marshal(json);
+    }
+
+    @Benchmark
+    public String jacksonBody() {
+        return jacksonBodyMarshaller.marshal(order);
+    }
+
+    @Benchmark
+    public String jacksonHeaders() {
+        return jacksonHeadersMarshaller.marshal(order);
+    }
+
+    @Benchmark
+    public Object jacksonUnmarshal() {
+        return jacksonUnmarshaller.unmarshal(bodyEnvelope);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.fishthefirst.jmscontextprovider.benchmarks;
+
+import io.github.fishthefirst.jmscontextprovider.data.MessageWithMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and formatting of the envelope that carries the metadata in the message body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageWithMetadataBenchmark {
+    @Param({"64", "1024", "16384"})
+    private int payloadSize;
+
+    private MessageWithMetadata message;
+    private String envelope;
+    private final char[] buffer = new char[4096];
+
+    @Setup
+    public void setup() {
+        message = new MessageWithMetadata(Instant.now(), Payloads.json(payloadSize), Payloads.Order.class.getName());
+        envelope = message.toStringPayload();
+    }
+
+    /**
+     * Streams the payload the way the Jackson unmarshallers do, it is unescaped as it is read.
+     */
+    @Benchmark
+    public int parse() throws IOException {
+        Reader reader = MessageWithMetadata.parse(envelope).getPayloadReader();
+        int length = 0;
+        for (int read; (read = reader.read(buffer)) >= 0; ) {
+            length += read;
+        }
+        return length;
+    }
+
+    @Benchmark
+    public String parseAndCopyPayload() {
+        return new MessageWithMetadata(envelope).getPayload();
+    }
+
+    @Benchmark
+    public String format() {
+        return message.toStringPayload();
+    }
+}
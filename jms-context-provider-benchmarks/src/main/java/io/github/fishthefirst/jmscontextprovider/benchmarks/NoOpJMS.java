@@ -0,0 +1,76 @@
+package io.github.fishthefirst.jmscontextprovider.benchmarks;
+
+import jakarta.jms.ConnectionFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JMS provider that accepts everything and does nothing, so benchmarks measure the library and not a broker.
+ * <p>
+ * Every JMS interface is answered with one shared proxy: fluent methods return the proxy itself, methods returning
+ * another JMS interface return that interface's proxy, and everything else returns its default value. Sessions
+ * report themselves as transacted so commits reach the provider. Proxy calls box their arguments, which shows up
+ * in the allocation rate of every benchmark using this class by the same amount.
+ */
+final class NoOpJMS implements InvocationHandler {
+    private static final NoOpJMS INSTANCE = new NoOpJMS();
+    private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = Map.of(
+            boolean.class, false,
+            byte.class, (byte) 0,
+            short.class, (short) 0,
+            char.class, (char) 0,
+            int.class, 0,
+            long.class, 0L,
+            float.class, 0f,
+            double.class, 0d);
+
+    private final Map<Class<?>, Object> proxies = new ConcurrentHashMap<>();
+
+    private NoOpJMS() {
+    }
+
+    static ConnectionFactory connectionFactory() {
+        return INSTANCE.proxyOf(ConnectionFactory.class);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "NoOp " + proxy.getClass().getInterfaces()[0].getSimpleName();
+            };
+        }
+        if (method.getName().equals("getTransacted")) {
+            return true;
+        }
+        Class<?> returnType = method.getReturnType();
+        if (returnType.isPrimitive()) {
+            return PRIMITIVE_DEFAULTS.get(returnType);
+        }
+        if (returnType.isInstance(proxy)) {
+            return proxy;
+        }
+        if (returnType.isInterface() && returnType.getPackageName().startsWith("jakarta.jms")) {
+            return proxyOf(returnType);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxyOf(Class<T> type) {
+        // Looked up first, the capturing lambda would otherwise be allocated on every call
+        Object proxy = proxies.get(type);
+        if (Objects.isNull(proxy)) {
+            proxy = proxies.computeIfAbsent(type,
+                    t -> Proxy.newProxyInstance(NoOpJMS.class.getClassLoader(), new Class<?>[]{t}, this));
+        }
+        return (T) proxy;
+    }
+}
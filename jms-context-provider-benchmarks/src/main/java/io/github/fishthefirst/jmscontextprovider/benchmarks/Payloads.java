@@ -0,0 +1,73 @@
+package io.github.fishthefirst.jmscontextprovider.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payloads of a given size for the benchmarks, sized by their JSON length in characters.
+ */
+final class Payloads {
+    private static final int LINE_LENGTH = 32;
+
+    private Payloads() {
+    }
+
+    /**
+     * @return a JSON object with quoted strings, so envelopes have to escape it
+     */
+    static String json(int size) {
+        StringBuilder builder = new StringBuilder(size + LINE_LENGTH).append("{\"id\":\"order-1\",\"lines\":[");
+        while (builder.length() < size) {
+            builder.append("\"").append("x".repeat(LINE_LENGTH - 3)).append("\",");
+        }
+        builder.setLength(builder.length() - 1);
+        return builder.append("]}").toString();
+    }
+
+    static Order order(int size) {
+        List<String> lines = new ArrayList<>();
+        for (int length = 0; length < size; length += LINE_LENGTH) {
+            lines.add("x".repeat(LINE_LENGTH - 3));
+        }
+        return new Order("order-1", lines.size(), lines);
+    }
+
+    public static final class Order {
+        private String id;
+        private int quantity;
+        private List<String> lines;
+
+        public Order() {
+        }
+
+        Order(String id, int quantity, List<String> lines) {
+            this.id = id;
+            this.quantity = quantity;
+            this.lines = lines;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        public void setLines(List<String> lines) {
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.fishthefirst.jmscontextprovider.benchmarks;
+
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSContextAwareComponentFactory;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerTransactionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The library's own cost of sending and committing, against a provider that does nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProducerTransactionManagerBenchmark {
+    @Param({"1", "10"})
+    private int messagesPerTransaction;
+
+    private JMSConnectionContextHolder connectionContextHolder;
+    private JMSProducerTransactionManager<String> transactionManager;
+    private String payload;
+
+    @Setup
+    public void setup() {
+        connectionContextHolder = JMSContextAwareComponentFactory.createContextHolder(NoOpJMS.connectionFactory());
+        transactionManager = new JMSProducerTransactionManager<>(connectionContextHolder,
+                Object::toString,
+                null,
+                null,
+                null,
+                null,
+                "benchmarks",
+                false);
+        transactionManager.warmUp(1);
+        payload = Payloads.json(256);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionContextHolder.close();
+    }
+
+    /**
+     * Sent outside a transaction, so each message is committed on its own.
+     */
+    @Benchmark
+    public void sendObject() {
+        transactionManager.sendObject(payload);
+    }
+
+    @Benchmark
+    public boolean sendTransacted() {
+        transactionManager.startTransaction();
+        for (int i = 0; i < messagesPerTransaction; i++) {
+            transactionManager.sendObject(payload);
+        }
+        return transactionManager.commit();
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.fishthefirst.jmscontextprovider.benchmarks;
+
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConsumer;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSContextAwareComponentFactory;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerTransactionManager;
+import io.github.fishthefirst.jmscontextprovider.serde.StringToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.testsupport.InMemoryBroker;
+import io.github.fishthefirst.jmscontextprovider.utils.ExponentialBackoff;
+import jakarta.jms.JMSContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time from the broker dropping every connection to a message sent by a producer reaching a consumer again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReconnectRecoveryBenchmark {
+    private static final String QUEUE = "benchmarks";
+
+    @Param({"50"})
+    private long initialBackoffMillis;
+
+    private InMemoryBroker broker;
+    private JMSConnectionContextHolder connectionContextHolder;
+    private JMSProducerTransactionManager<String> transactionManager;
+    private JMSConsumer<String> consumer;
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private long probe;
+
+    @Setup
+    public void setup() {
+        broker = new InMemoryBroker();
+        connectionContextHolder = JMSContextAwareComponentFactory.createContextHolder(broker.createConnectionFactory());
+        connectionContextHolder.setReconnectBackoff(new ExponentialBackoff(initialBackoffMillis, initialBackoffMillis * 8, 2, 0));
+        transactionManager = new JMSProducerTransactionManager<>(connectionContextHolder,
+                Object::toString,
+                null,
+                null,
+                null,
+                null,
+                QUEUE,
+                false);
+        consumer = JMSContextAwareComponentFactory.createConsumer(connectionContextHolder,
+                received::add,
+                (StringToObjectUnmarshaller<String>) s -> s,
+                QUEUE,
+                false,
+                "benchmarks-consumer",
+                JMSContext.AUTO_ACKNOWLEDGE);
+        consumer.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        consumer.close();
+        connectionContextHolder.close();
+    }
+
+    /**
+     * Each iteration starts from a producer and a consumer that are both connected.
+     */
+    @Setup(Level.Iteration)
+    public void connect() throws InterruptedException {
+        sendUntilReceived(TimeUnit.SECONDS.toNanos(30));
+        broker.purge();
+        received.clear();
+    }
+
+    @Benchmark
+    public void recover() throws InterruptedException {
+        broker.disconnect();
+        sendUntilReceived(TimeUnit.SECONDS.toNanos(30));
+    }
+
+    private void sendUntilReceived(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (System.nanoTime() < deadline) {
+            // Failed sends are reported to the manager's handlers, not thrown
+            String message = "probe-" + probe++;
+            transactionManager.sendObject(message);
+            String next;
+            while (Objects.nonNull(next = received.poll(5, TimeUnit.MILLISECONDS))) {
+                if (next.equals(message)) {
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("No message made it through within the timeout");
+    }
+}
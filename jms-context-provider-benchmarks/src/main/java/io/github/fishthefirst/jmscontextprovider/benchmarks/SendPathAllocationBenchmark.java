@@ -0,0 +1,85 @@
+package io.github.fishthefirst.jmscontextprovider.benchmarks;
+
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSContextAwareComponentFactory;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerTransactionManager;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSProducer;
+import jakarta.jms.Queue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocations of the steady-state send path, read from {@code gc.alloc.rate.norm}.
+ * <p>
+ * {@link #provider()} makes the same provider calls as a send, so its allocations are those of the message and of
+ * {@link NoOpJMS}. The manager's own sends should allocate no more than that; anything above it is the library's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SendPathAllocationBenchmark {
+    private JMSConnectionContextHolder connectionContextHolder;
+    private JMSProducerTransactionManager<String> transactionManager;
+    private JMSContext context;
+    private JMSProducer producer;
+    private Queue queue;
+    private String payload;
+
+    @Setup
+    public void setup() {
+        connectionContextHolder = JMSContextAwareComponentFactory.createContextHolder(NoOpJMS.connectionFactory());
+        transactionManager = new JMSProducerTransactionManager<>(connectionContextHolder,
+                Object::toString,
+                null,
+                null,
+                null,
+                null,
+                "benchmarks",
+                false);
+        transactionManager.warmUp(1);
+        context = NoOpJMS.connectionFactory().createContext(JMSContext.SESSION_TRANSACTED);
+        producer = context.createProducer();
+        queue = context.createQueue("benchmarks");
+        payload = Payloads.json(256);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionContextHolder.close();
+    }
+
+    @Benchmark
+    public void provider() {
+        producer.send(queue, context.createTextMessage(payload));
+        if (context.getTransacted()) {
+            context.commit();
+        }
+    }
+
+    @Benchmark
+    public void sendObject() {
+        transactionManager.sendObject(payload);
+    }
+
+    @Benchmark
+    public boolean sendTransacted() {
+        transactionManager.startTransaction();
+        transactionManager.sendObject(payload);
+        return transactionManager.commit();
+    }
+}
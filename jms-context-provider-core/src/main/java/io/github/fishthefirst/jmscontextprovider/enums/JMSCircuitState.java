@@ -0,0 +1,7 @@
+package io.github.fishthefirst.jmscontextprovider.enums;
+
+public enum JMSCircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
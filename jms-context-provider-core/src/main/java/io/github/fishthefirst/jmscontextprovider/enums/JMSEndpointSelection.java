@@ -0,0 +1,6 @@
+package io.github.fishthefirst.jmscontextprovider.enums;
+
+public enum JMSEndpointSelection {
+    ORDERED,
+    WEIGHTED
+}
@@ -0,0 +1,20 @@
+package io.github.fishthefirst.jmscontextprovider.enums;
+
+/**
+ * How a transactional call relates to a transaction already open on the calling thread.
+ */
+public enum JMSPropagation {
+    /**
+     * Joins the open transaction, or opens one if there is none. Only the call that opened it commits.
+     */
+    REQUIRED,
+    /**
+     * Suspends the open transaction and runs in a transaction of its own, committed when the call returns.
+     */
+    REQUIRES_NEW,
+    /**
+     * Behaves like {@link #REQUIRED}. JMS sessions have no savepoints, so a failed nested call
+     * marks the whole transaction for rollback.
+     */
+    NESTED
+}
@@ -0,0 +1,6 @@
+package io.github.fishthefirst.jmscontextprovider.enums;
+
+public enum JMSSessionDistribution {
+    ROUND_ROBIN,
+    LEAST_LOADED
+}
@@ -0,0 +1,14 @@
+package io.github.fishthefirst.jmscontextprovider.exceptions;
+
+import jakarta.jms.JMSRuntimeException;
+
+/**
+ * Thrown instead of attempting to connect while the broker is known to be unreachable.
+ */
+public class JMSCircuitOpenException extends JMSRuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public JMSCircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.fishthefirst.jmscontextprovider.exceptions;
+
+import jakarta.jms.JMSRuntimeException;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Completes the futures of asynchronous commits that were rolled back instead of committed, and is thrown by
+ * synchronous transactional calls whose transaction an inner call marked rollback-only.
+ */
+public class JMSCommitException extends JMSRuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    // The objects are not necessarily serializable, they do not travel with the exception
+    private final transient List<?> failedObjects;
+
+    public JMSCommitException(String message, List<?> failedObjects) {
+        super(message);
+        this.failedObjects = failedObjects;
+    }
+
+    /**
+     * @return the objects of the rolled back transaction, empty once the exception has been deserialized
+     */
+    public List<?> getFailedObjects() {
+        return Objects.requireNonNullElse(failedObjects, List.of());
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.fishthefirst.jmscontextprovider.exceptions;
+
+import jakarta.jms.JMSRuntimeException;
+
+/**
+ * Completes the futures of requests whose handler failed on the replying side.
+ */
+public class JMSReplyException extends JMSRuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String correlationId;
+
+    public JMSReplyException(String message, String correlationId) {
+        super(message);
+        this.correlationId = correlationId;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+}
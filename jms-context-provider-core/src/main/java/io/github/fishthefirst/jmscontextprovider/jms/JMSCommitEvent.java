@@ -0,0 +1,26 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Committing or rolling back a transaction of a transaction manager.
+ */
+@Name("io.github.fishthefirst.jmscontextprovider.Commit")
+@Label("JMS Commit")
+@Category("JMS Context Provider")
+@Description("Committing or rolling back a transaction of a transaction manager.")
+@StackTrace(false)
+final class JMSCommitEvent extends jdk.jfr.Event {
+    @Label("Destination")
+    String destination;
+
+    @Label("Message Count")
+    int messageCount;
+
+    @Label("Committed")
+    boolean committed;
+}
@@ -0,0 +1,56 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of committing a transaction of {@link JMSProducerTransactionManager}.
+ */
+public final class JMSCommitResult<T> {
+    private final boolean committed;
+    private final int messageCount;
+    private final Duration commitDuration;
+    private final List<T> failedObjects;
+
+    JMSCommitResult(boolean committed, int messageCount, Duration commitDuration, List<T> failedObjects) {
+        this.committed = committed;
+        this.messageCount = messageCount;
+        this.commitDuration = commitDuration;
+        this.failedObjects = failedObjects;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * @return the number of objects sent in the transaction, whether or not they were committed
+     */
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * @return the time spent committing, or rolling back
+     */
+    public Duration getCommitDuration() {
+        return commitDuration;
+    }
+
+    /**
+     * @return the objects handed to the send message exception handler during the transaction
+     */
+    public List<T> getFailedObjects() {
+        return failedObjects;
+    }
+
+    @Override
+    public String toString() {
+        return "JMSCommitResult{" +
+                "committed=" + committed +
+                ", messageCount=" + messageCount +
+                ", commitDuration=" + commitDuration +
+                ", failedObjects=" + failedObjects.size() +
+                '}';
+    }
+}
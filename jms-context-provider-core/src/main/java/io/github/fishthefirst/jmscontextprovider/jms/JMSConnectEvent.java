@@ -0,0 +1,29 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Building a physical connection on an endpoint.
+ */
+@Name("io.github.fishthefirst.jmscontextprovider.Connect")
+@Label("JMS Connect")
+@Category("JMS Context Provider")
+@Description("Building a physical connection on an endpoint.")
+@StackTrace(false)
+final class JMSConnectEvent extends jdk.jfr.Event {
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Client ID")
+    String clientId;
+
+    @Label("Connection Index")
+    int connectionIndex;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -1,45 +1,51 @@
 package io.github.fishthefirst.jmscontextprovider.jms;
 
-import io.github.fishthefirst.jmscontextprovider.exceptions.ExceptionPointer;
+import io.github.fishthefirst.jmscontextprovider.enums.JMSCircuitState;
+import io.github.fishthefirst.jmscontextprovider.enums.JMSEndpointSelection;
+import io.github.fishthefirst.jmscontextprovider.enums.JMSSessionDistribution;
+import io.github.fishthefirst.jmscontextprovider.utils.ExponentialBackoff;
 import jakarta.jms.ConnectionFactory;
 import jakarta.jms.ExceptionListener;
-import jakarta.jms.JMSContext;
-import jakarta.jms.JMSException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-
-import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JMSConnectionContextHolder implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(JMSConnectionContextHolder.class);
+    private static final ExponentialBackoff DEFAULT_RECONNECT_BACKOFF = new ExponentialBackoff(1000, 60000, 2, 0.5);
 
     // Constructor vars
-    private final ConnectionFactory connectionFactory;
-    private final ExceptionPointer exceptionPointer = new ExceptionPointer(60000);
+    private final JMSEndpointPool endpointPool;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final JMSSessionCounter sessionCounter = new JMSSessionCounter();
+    private final JMSReconnectEngine reconnectEngine = new JMSReconnectEngine(this::probe, DEFAULT_RECONNECT_BACKOFF);
 
     // Object vars
-    private List<JMSContextWrapper> providedContexts = new ArrayList<>();
-
-    // JMS
-    private JMSContext context;
+    private volatile List<JMSConnectionShard> shards;
 
     // User props
-    private String clientId;
-    private boolean allowContextWithoutClientId = true;
+    private volatile String clientId;
+    private volatile boolean allowContextWithoutClientId = true;
+    private volatile int connectionCount = 1;
+    private volatile JMSSessionDistribution sessionDistribution = JMSSessionDistribution.ROUND_ROBIN;
 
     JMSConnectionContextHolder(ConnectionFactory connectionFactory) {
-        Objects.requireNonNull(connectionFactory, "Connection factory cannot be null");
-        this.connectionFactory = connectionFactory;
+        this(List.of(new JMSEndpoint("default", connectionFactory, 1)), JMSEndpointSelection.ORDERED);
+    }
+
+    JMSConnectionContextHolder(List<JMSEndpoint> endpoints, JMSEndpointSelection endpointSelection) {
+        this.endpointPool = new JMSEndpointPool(endpoints, endpointSelection, this::failBack);
+        this.shards = buildShards();
     }
 
     // User props setters
     public synchronized void setClientId(String clientId) {
         if(Objects.equals(this.clientId, clientId)) {
-            if (Objects.nonNull(context)) {
+            if (isConnected()) {
                 log.warn("Tried setting client ID to the already set value: \"{}\". Ignoring.", clientId);
             }
             return;
@@ -48,74 +54,255 @@ public class JMSConnectionContextHolder implements AutoCloseable {
             throw new IllegalArgumentException("Cannot set null/blank client ID: allowContextWithoutClientId is false.");
         }
         this.clientId = clientId;
-        if (Objects.nonNull(context)) {
-            onException(new JMSException("Client ID Changed", "", new Exception("Client ID Changed")));
-        }
+        recycle("Client ID changed");
     }
 
     public synchronized void setAllowContextWithoutClientId(boolean allow) {
-        if(!allow && Objects.nonNull(context) && (Objects.isNull(this.clientId) || this.clientId.isBlank())) {
+        if(!allow && isConnected() && (Objects.isNull(this.clientId) || this.clientId.isBlank())) {
             throw new IllegalStateException("Cannot set allowContextWithoutClientId to false while while client ID is not set");
         }
         allowContextWithoutClientId = allow;
     }
 
+    /**
+     * The number of physical connections sessions are spread across.
+     * When more than one connection is used, each connection's client ID is suffixed with "-" and its index.
+     * Changing this value recycles all current connections.
+     *
+     * @param connectionCount
+     */
+    public synchronized void setConnectionCount(int connectionCount) {
+        if (connectionCount < 1) {
+            throw new IllegalArgumentException("Connection count cannot be less than 1");
+        }
+        if (this.connectionCount == connectionCount) {
+            return;
+        }
+        this.connectionCount = connectionCount;
+        recycle("Connection count changed");
+    }
+
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /**
+     * @return the number of sessions currently open across all connections
+     */
+    public int getLiveSessionCount() {
+        return sessionCounter.getLive();
+    }
+
+    /**
+     * @return the highest number of sessions that were open at the same time
+     */
+    public int getPeakSessionCount() {
+        return sessionCounter.getPeak();
+    }
+
+    /**
+     * The backoff used by the reconnect probe while the connection is down.
+     * Consumers also use it to space out their restart attempts.
+     *
+     * @param reconnectBackoff
+     */
+    public void setReconnectBackoff(ExponentialBackoff reconnectBackoff) {
+        reconnectEngine.setBackoff(reconnectBackoff);
+    }
+
+    public ExponentialBackoff getReconnectBackoff() {
+        return reconnectEngine.getBackoff();
+    }
+
+    public JMSCircuitState getCircuitState() {
+        return reconnectEngine.getState();
+    }
+
+    /**
+     * @return false while the connection is down and session requests fail fast
+     */
+    public boolean isConnectionAvailable() {
+        return reconnectEngine.getState() == JMSCircuitState.CLOSED;
+    }
+
+    /**
+     * @return the number of times the circuit opened because no connection could be built
+     */
+    public long getConnectionFailureCount() {
+        return reconnectEngine.getConnectionFailures();
+    }
+
+    /**
+     * @return the number of times the reconnect probe succeeded and closed the circuit
+     */
+    public long getReconnectCount() {
+        return reconnectEngine.getReconnects();
+    }
+
+    public List<JMSEndpoint> getEndpoints() {
+        return endpointPool.getEndpoints();
+    }
+
+    /**
+     * How often unhealthy endpoints are probed in the background, in milliseconds.
+     * With {@link JMSEndpointSelection#ORDERED} selection, connections that failed over are moved back
+     * once a preferred endpoint answers again.
+     *
+     * @param failbackIntervalMillis
+     */
+    public void setFailbackInterval(long failbackIntervalMillis) {
+        endpointPool.setFailbackIntervalMillis(failbackIntervalMillis);
+    }
+
+    public long getFailbackInterval() {
+        return endpointPool.getFailbackIntervalMillis();
+    }
+
+    public void setSessionDistribution(JMSSessionDistribution sessionDistribution) {
+        this.sessionDistribution = Objects.requireNonNull(sessionDistribution, "Session distribution cannot be null");
+    }
+
     // Context Controls
     @Override
     public synchronized void close() {
-        for (JMSContextWrapper providedContext : providedContexts) {
-            tryAndLogError(() -> providedContext.onException(new JMSException("Connection closing")));
+        reconnectEngine.reset();
+        endpointPool.close();
+        for (JMSConnectionShard shard : shards) {
+            shard.close();
         }
-        providedContexts = new ArrayList<>();
+        log.info("Connection contexts for client {} closed", clientId);
+    }
 
-        if (Objects.nonNull(context)) {
-            log.info("Closing connection {}", clientId);
-            tryAndLogError(context::close);
-            log.info("Closed connection {}", clientId);
+    /**
+     * Builds all connections ahead of the first session request.
+     *
+     * @return the number of connections that are connected
+     */
+    public int warmUp() {
+        reconnectEngine.checkAvailable();
+        int connected = 0;
+        for (JMSConnectionShard shard : shards) {
+            shard.connect();
+            if (shard.isConnected()) {
+                connected++;
+            }
         }
-        context = null;
-        log.info("Connection context for client {} closed", clientId);
+        return connected;
     }
 
     // JMS Context Methods
 
-    synchronized JMSContextWrapper createContext(int sessionMode, ExceptionListener exceptionListener) {
-        if (Objects.isNull(context)) {
-            buildAndAssignContext();
+    JMSContextWrapper createContext(int sessionMode, ExceptionListener exceptionListener) {
+        return createContext(sessionMode, exceptionListener, -1);
+    }
+
+    /**
+     * Creates a session on the given connection, or on one picked by the session distribution if the index is negative
+     * or no longer valid. Durable subscribers use this to stay on the connection (and so the client ID) they started on.
+     */
+    JMSContextWrapper createContext(int sessionMode, ExceptionListener exceptionListener, int connectionIndex) {
+        if (Objects.isNull(clientId) && !allowContextWithoutClientId) {
+            throw new NullPointerException("Client ID not set and allowContextWithoutClientId is false");
         }
-        JMSContextWrapper jmsContextWrapper = new JMSContextWrapper(context.createContext(sessionMode), exceptionListener);
-        providedContexts.add(jmsContextWrapper);
-        return jmsContextWrapper;
+        reconnectEngine.checkAvailable();
+        JMSContextWrapper contextWrapper;
+        do {
+            List<JMSConnectionShard> currentShards = shards;
+            JMSConnectionShard shard = connectionIndex >= 0 && connectionIndex < currentShards.size() ?
+                    currentShards.get(connectionIndex) : pickShard(currentShards);
+            // A retired shard returns null, the shards were swapped concurrently so pick again
+            contextWrapper = shard.createContext(sessionMode, exceptionListener);
+        } while (Objects.isNull(contextWrapper));
+        return contextWrapper;
     }
 
-    private void buildAndAssignContext() {
-        try {
-            if (Objects.isNull(clientId) && !allowContextWithoutClientId) {
-                throw new NullPointerException("Client ID not set and allowContextWithoutClientId is false");
-            }
-            // This protects connection factory methods from blowing up from multiple connection holders
-            synchronized (connectionFactory) {
-                context = connectionFactory.createContext();
+    void addRecoveryListener(Runnable listener) {
+        reconnectEngine.addRecoveryListener(listener);
+    }
+
+    void removeRecoveryListener(Runnable listener) {
+        reconnectEngine.removeRecoveryListener(listener);
+    }
+
+    private void probe() {
+        for (JMSConnectionShard shard : shards) {
+            shard.connect();
+        }
+    }
+
+    private synchronized void failBack() {
+        List<JMSConnectionShard> currentShards = shards;
+        List<JMSConnectionShard> newShards = new ArrayList<>(currentShards);
+        List<JMSConnectionShard> retiredShards = new ArrayList<>();
+        for (int i = 0; i < currentShards.size(); i++) {
+            JMSConnectionShard shard = currentShards.get(i);
+            JMSEndpoint endpoint = shard.getEndpoint();
+            if (endpointPool.shouldFailBack(endpoint)) {
+                log.info("Moving connection {} off endpoint {} back to a preferred endpoint", i, endpoint);
+                newShards.set(i, buildShard(i));
+                retiredShards.add(shard);
             }
-            context.setClientID(clientId);
-            context.setExceptionListener(this::onException);
-            if (Objects.nonNull(clientId)) {
-                log.info("Connection Context built with client ID {}", clientId);
-            } else {
-                log.warn("Connection Context built without client ID");
+        }
+        if (retiredShards.isEmpty()) {
+            return;
+        }
+        shards = List.copyOf(newShards);
+        for (JMSConnectionShard shard : retiredShards) {
+            shard.retire();
+        }
+    }
+
+    private JMSConnectionShard pickShard(List<JMSConnectionShard> currentShards) {
+        int size = currentShards.size();
+        int start = Math.floorMod(nextShard.getAndIncrement(), size);
+        if (size == 1 || sessionDistribution == JMSSessionDistribution.ROUND_ROBIN) {
+            return currentShards.get(start);
+        }
+        // Start from the round-robin position so ties are spread evenly
+        JMSConnectionShard leastLoaded = currentShards.get(start);
+        int leastSessions = leastLoaded.getSessionCount();
+        for (int i = 1; i < size && leastSessions > 0; i++) {
+            JMSConnectionShard candidate = currentShards.get((start + i) % size);
+            int sessions = candidate.getSessionCount();
+            if (sessions < leastSessions) {
+                leastLoaded = candidate;
+                leastSessions = sessions;
             }
-            exceptionPointer.clear();
-        } catch (Exception e) {
-            context = null;
-            if(exceptionPointer.shouldLog(e)) {
-                log.error("Failed to build Main Context");
+        }
+        return leastLoaded;
+    }
+
+    private boolean isConnected() {
+        for (JMSConnectionShard shard : shards) {
+            if (shard.isConnected()) {
+                return true;
             }
-            throw e;
         }
+        return false;
+    }
+
+    private void recycle(String reason) {
+        if (isConnected()) {
+            log.info("{}, recycling connections", reason);
+        }
+        List<JMSConnectionShard> oldShards = shards;
+        shards = buildShards();
+        reconnectEngine.reset();
+        for (JMSConnectionShard shard : oldShards) {
+            shard.retire();
+        }
+    }
+
+    private List<JMSConnectionShard> buildShards() {
+        List<JMSConnectionShard> newShards = new ArrayList<>(connectionCount);
+        for (int i = 0; i < connectionCount; i++) {
+            newShards.add(buildShard(i));
+        }
+        return List.copyOf(newShards);
     }
 
-    synchronized void onException(JMSException exception) {
-        log.error("Connection Context expired: {}", exception.getMessage());
-        close();
+    private JMSConnectionShard buildShard(int index) {
+        String shardClientId = connectionCount == 1 || Objects.isNull(clientId) ? clientId : clientId + "-" + index;
+        return new JMSConnectionShard(endpointPool, index, shardClientId, sessionCounter, reconnectEngine::onConnectionFailure);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,209 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.exceptions.ExceptionPointer;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.JMSRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
+
+/**
+ * One physical connection of a {@link JMSConnectionContextHolder} and the sessions created from it.
+ * <p>
+ * Sessions deregister themselves when closed, so the registry only ever holds live sessions.
+ * Connection failures are fanned out to the registered sessions after the shard's monitor has been released.
+ * When the connection is (re)built the pool's endpoints are tried in turn, so a failed endpoint is failed over
+ * without opening the holder's circuit as long as another endpoint answers.
+ */
+final class JMSConnectionShard {
+    private static final Logger log = LoggerFactory.getLogger(JMSConnectionShard.class);
+
+    // Constructor vars
+    private final JMSEndpointPool endpointPool;
+    private final int index;
+    private final String clientId;
+    private final JMSSessionCounter sessionCounter;
+    private final Consumer<Exception> connectionFailureListener;
+    private final ExceptionPointer exceptionPointer = new ExceptionPointer(60000);
+
+    // Object vars
+    private volatile Set<JMSContextWrapper> providedContexts = ConcurrentHashMap.newKeySet();
+    private boolean retired;
+
+    // JMS
+    private JMSContext context;
+    private JMSEndpoint endpoint;
+
+    JMSConnectionShard(JMSEndpointPool endpointPool,
+                       int index,
+                       String clientId,
+                       JMSSessionCounter sessionCounter,
+                       Consumer<Exception> connectionFailureListener) {
+        this.endpointPool = endpointPool;
+        this.index = index;
+        this.clientId = clientId;
+        this.sessionCounter = sessionCounter;
+        this.connectionFailureListener = connectionFailureListener;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    int getSessionCount() {
+        return providedContexts.size();
+    }
+
+    synchronized boolean isConnected() {
+        return Objects.nonNull(context);
+    }
+
+    /**
+     * @return the endpoint the connection is currently built on, or null if not connected
+     */
+    synchronized JMSEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Builds the connection if it is not built yet, without creating a session.
+     */
+    synchronized void connect() {
+        if (!retired && Objects.isNull(context)) {
+            buildAndAssignContext();
+        }
+    }
+
+    /**
+     * @return the session, or null if this shard has been retired
+     */
+    synchronized JMSContextWrapper createContext(int sessionMode, ExceptionListener exceptionListener) {
+        if (retired) {
+            return null;
+        }
+        if (Objects.isNull(context)) {
+            buildAndAssignContext();
+        }
+        Set<JMSContextWrapper> registry = providedContexts;
+        JMSContextWrapper jmsContextWrapper = new JMSContextWrapper(context.createContext(sessionMode),
+                exceptionListener,
+                index,
+                closed -> {
+                    if (registry.remove(closed)) {
+                        sessionCounter.decrement();
+                    }
+                });
+        registry.add(jmsContextWrapper);
+        sessionCounter.increment();
+        return jmsContextWrapper;
+    }
+
+    /**
+     * Closes this shard for good, sessions requested from it afterwards must be requested from its replacement.
+     */
+    void retire() {
+        synchronized (this) {
+            retired = true;
+        }
+        close();
+    }
+
+    void close() {
+        Set<JMSContextWrapper> sessions;
+        JMSContext connection;
+        synchronized (this) {
+            sessions = providedContexts;
+            connection = context;
+            providedContexts = ConcurrentHashMap.newKeySet();
+            context = null;
+            endpoint = null;
+        }
+
+        // Fan out without holding the monitor, listeners may call back into the holder.
+        // Removing each session first means a session closing concurrently is only counted down once.
+        JMSException closing = new JMSException("Connection closing");
+        for (JMSContextWrapper providedContext : sessions) {
+            if (sessions.remove(providedContext)) {
+                sessionCounter.decrement();
+                tryAndLogError(() -> providedContext.onException(closing));
+            }
+        }
+
+        if (Objects.nonNull(connection)) {
+            log.info("Closing connection {}", clientId);
+            tryAndLogError(connection::close);
+            log.info("Closed connection {}", clientId);
+        }
+    }
+
+    private void commitConnectEvent(JMSConnectEvent event, JMSEndpoint candidate, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = String.valueOf(candidate);
+            event.clientId = clientId;
+            event.connectionIndex = index;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    private void buildAndAssignContext() {
+        RuntimeException failure = new JMSRuntimeException("No endpoint available");
+        for (JMSEndpoint candidate : endpointPool.candidates()) {
+            JMSContext candidateContext = null;
+            JMSConnectEvent event = new JMSConnectEvent();
+            event.begin();
+            try {
+                candidateContext = endpointPool.connect(candidate);
+                candidateContext.setClientID(clientId);
+                candidateContext.setExceptionListener(this::onException);
+                commitConnectEvent(event, candidate, true);
+            } catch (RuntimeException e) {
+                commitConnectEvent(event, candidate, false);
+                if (Objects.nonNull(candidateContext)) {
+                    // Connected but could not be set up, so the endpoint has not been marked yet
+                    tryAndLogError(candidateContext::close);
+                    endpointPool.onEndpointFailure(candidate);
+                }
+                if (exceptionPointer.shouldLog(e)) {
+                    log.error("Failed to build Main Context on endpoint {}", candidate);
+                }
+                failure = e;
+                continue;
+            }
+            context = candidateContext;
+            endpoint = candidate;
+            if (Objects.nonNull(clientId)) {
+                log.info("Connection Context built with client ID {} on endpoint {}", clientId, candidate);
+            } else {
+                log.warn("Connection Context built without client ID on endpoint {}", candidate);
+            }
+            exceptionPointer.clear();
+            return;
+        }
+        connectionFailureListener.accept(failure);
+        throw failure;
+    }
+
+    void onException(JMSException exception) {
+        JMSEndpoint failedEndpoint = getEndpoint();
+        log.error("Connection Context {} on endpoint {} expired: {}", index, failedEndpoint, exception.getMessage());
+        if (Objects.nonNull(failedEndpoint)) {
+            endpointPool.onEndpointFailure(failedEndpoint);
+        }
+        if (!endpointPool.hasHealthyEndpoint()) {
+            // Open the circuit first, so sessions rebuilding in reaction to the close fail fast.
+            // Otherwise they reconnect right away on the next healthy endpoint.
+            connectionFailureListener.accept(exception);
+        }
+        close();
+    }
+}
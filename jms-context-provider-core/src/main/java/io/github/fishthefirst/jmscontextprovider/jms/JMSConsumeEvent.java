@@ -0,0 +1,26 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Reading, unmarshalling and handling one received message.
+ */
+@Name("io.github.fishthefirst.jmscontextprovider.Consume")
+@Label("JMS Consume")
+@Category("JMS Context Provider")
+@Description("Reading, unmarshalling and handling one received message.")
+@StackTrace(false)
+final class JMSConsumeEvent extends jdk.jfr.Event {
+    @Label("Destination")
+    String destination;
+
+    @Label("Consumer")
+    String consumer;
+
+    @Label("Message ID")
+    String messageId;
+}
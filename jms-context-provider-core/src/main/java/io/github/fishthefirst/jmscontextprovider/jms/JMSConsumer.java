@@ -5,10 +5,13 @@ import io.github.fishthefirst.jmscontextprovider.exceptions.ExceptionPointer;
 import io.github.fishthefirst.jmscontextprovider.handlers.ConsumerStringEventHandler;
 import io.github.fishthefirst.jmscontextprovider.handlers.ConsumerVoidEventHandler;
 import io.github.fishthefirst.jmscontextprovider.handlers.MessageCallback;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageMetadataProperties;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageToObjectUnmarshaller;
 import io.github.fishthefirst.jmscontextprovider.serde.StringToObjectUnmarshaller;
 import io.github.fishthefirst.jmscontextprovider.utils.CustomizableThreadFactory;
 import io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils;
 import io.github.fishthefirst.jmscontextprovider.utils.WatchdogTimer;
+import jakarta.jms.BytesMessage;
 import jakarta.jms.JMSContext;
 import jakarta.jms.JMSException;
 import jakarta.jms.JMSRuntimeException;
@@ -44,15 +47,20 @@ public class JMSConsumer<T> implements AutoCloseable {
 
     // Init/Watchdog
     private final WatchdogTimer watchdogTimer = new WatchdogTimer(this::onReadTimeout);
-    private final ScheduledExecutorService clientCreator = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.getInstance(this));
+    private final ScheduledExecutorService clientCreator;
+    private final boolean sharedClientCreator;
     private final ExceptionPointer exceptionPointer = new ExceptionPointer(60000);
+    private final ExceptionPointer sourceDateExceptionPointer = new ExceptionPointer(60000);
+    private final Runnable recoveryListener = this::onConnectionRecovered;
 
     // Constructor vars
     private final JMSSessionContextSupplier contextProvider;
     private final MessageCallback<T> messageCallback;
-    private final StringToObjectUnmarshaller<T> stringToObjectUnmarshaller;
+    private final MessageToObjectUnmarshaller<T> messageToObjectUnmarshaller;
     private final String destinationName;
     private final boolean topic;
+    private volatile JMSConsumerLatency latency;
+    private final JMSConsumerMetrics metrics = new JMSConsumerMetrics();
 
     // JMS
     private JMSContext context;
@@ -62,7 +70,12 @@ public class JMSConsumer<T> implements AutoCloseable {
     private int consumeRetryLimit;
     private int consumeTryCount;
     private int restartDelay = 1000;
+    private boolean restartDelaySet;
+    private int restartAttempt;
     private String lastParsedJMSMessageId;
+    private int uncommittedCount;
+    private Message lastUncommittedMessage;
+    private long uncommittedSinceNanos;
 
     // User props
     private String selector;
@@ -71,6 +84,8 @@ public class JMSConsumer<T> implements AutoCloseable {
     private JMSConsumerBehaviour onParseFailBehaviour = JMSConsumerBehaviour.ROLLBACK;
     private JMSConsumerBehaviour onUnmarshallFailBehaviour = JMSConsumerBehaviour.ROLLBACK;
     private JMSConsumerBehaviour onConsumeFailBehaviour = JMSConsumerBehaviour.ROLLBACK;
+    private int commitBatchSize = 1;
+    private int commitBatchDelay = 100;
 
     JMSConsumer(JMSSessionContextSupplier contextProvider,
                 MessageCallback<T> messageCallback,
@@ -88,18 +103,55 @@ public class JMSConsumer<T> implements AutoCloseable {
                 boolean topic,
                 String selector,
                 String consumerName) {
+        this(contextProvider,
+                messageCallback,
+                toMessageUnmarshaller(stringToObjectUnmarshaller),
+                destinationName,
+                topic,
+                selector,
+                consumerName);
+    }
+
+    /**
+     * @param messageToObjectUnmarshaller Unmarshals the body with access to the message, e.g. to read metadata from its properties
+     */
+    JMSConsumer(JMSSessionContextSupplier contextProvider,
+                MessageCallback<T> messageCallback,
+                MessageToObjectUnmarshaller<T> messageToObjectUnmarshaller,
+                String destinationName,
+                boolean topic,
+                String selector,
+                String consumerName) {
+        this(contextProvider, messageCallback, messageToObjectUnmarshaller, destinationName, topic, selector, consumerName, null);
+    }
+
+    /**
+     * @param scheduler Schedules (re)starts and batch commits, shared by many consumers to save a thread each.
+     *                  It is not shut down when the consumer is closed. When null the consumer uses a thread of its own
+     */
+    JMSConsumer(JMSSessionContextSupplier contextProvider,
+                MessageCallback<T> messageCallback,
+                MessageToObjectUnmarshaller<T> messageToObjectUnmarshaller,
+                String destinationName,
+                boolean topic,
+                String selector,
+                String consumerName,
+                ScheduledExecutorService scheduler) {
         Objects.requireNonNull(contextProvider, "Context provider cannot be null");
         Objects.requireNonNull(messageCallback, "Message callback cannot be null");
-        Objects.requireNonNull(stringToObjectUnmarshaller, "Unmarshaller cannot be null");
+        Objects.requireNonNull(messageToObjectUnmarshaller, "Unmarshaller cannot be null");
         Objects.requireNonNull(destinationName, "Destination name cannot be null");
         this.topic = topic;
         validateConsumerName(consumerName);
         this.contextProvider = contextProvider;
         this.messageCallback = messageCallback;
-        this.stringToObjectUnmarshaller = stringToObjectUnmarshaller;
+        this.messageToObjectUnmarshaller = messageToObjectUnmarshaller;
         this.selector = selector;
         this.destinationName = destinationName;
         this.consumerName = consumerName;
+        this.latency = new JMSConsumerLatency(destinationName);
+        this.sharedClientCreator = Objects.nonNull(scheduler);
+        this.clientCreator = sharedClientCreator ? scheduler : Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.getInstance(this));
     }
 
     // Register event handlers
@@ -146,21 +198,50 @@ public class JMSConsumer<T> implements AutoCloseable {
         }
     }
 
+    /**
+     * Records this consumer's latencies into the given metrics, under its destination.
+     * Until set, the consumer records into histograms of its own.
+     *
+     * @param latencyMetrics
+     */
+    public void setLatencyMetrics(JMSLatencyMetrics latencyMetrics) {
+        Objects.requireNonNull(latencyMetrics, "Latency metrics cannot be null");
+        this.latency = latencyMetrics.forDestination(destinationName);
+    }
+
+    public JMSConsumerLatency getLatency() {
+        return latency;
+    }
+
+    public JMSConsumerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public String getDestinationName() {
+        return destinationName;
+    }
+
     // Behaviour props
     public int getRestartDelay() {
         return restartDelay;
     }
 
     /**
-     * The amount of time to delay restarting the consumer after a connection exception is thrown, in milliseconds.
+     * The minimum amount of time to delay restarting the consumer after it failed to start, in milliseconds.
+     * Consecutive failures back off further, following the connection holder's reconnect backoff.
+     * While the connection itself is down the consumer does not retry on its own,
+     * it is restarted once the connection holder's reconnect probe succeeds.
+     *
+     * Until a delay is set explicitly the backoff alone decides.
      *
-     * @param restartDelay
+     * @param restartDelay The floor under the backoff, more than 1000
      */
-    public void setRestartDelay(int restartDelay) {
+    public synchronized void setRestartDelay(int restartDelay) {
         if (restartDelay <= 1000) {
             throw new IllegalArgumentException("Restart delay cannot be less than 1000 milliseconds");
         }
         this.restartDelay = restartDelay;
+        this.restartDelaySet = true;
     }
 
     public void setOnUnmarshallFailBehaviour(JMSConsumerBehaviour behaviour) {
@@ -212,6 +293,43 @@ public class JMSConsumer<T> implements AutoCloseable {
     }
 
 
+    /**
+     * Acknowledges (and commits, in transacted sessions) once every given number of messages instead of after each one.
+     * A partial batch is acknowledged by the first delivery after the batch delay, or when the consumer is stopped.
+     * On rollback, or when the session is lost, the whole batch is redelivered.
+     * Only has an effect on client acknowledged and transacted sessions.
+     *
+     * @param commitBatchSize
+     */
+    public synchronized void setCommitBatchSize(int commitBatchSize) {
+        if (commitBatchSize < 1) {
+            throw new IllegalArgumentException("Commit batch size cannot be less than 1");
+        }
+        this.commitBatchSize = commitBatchSize;
+    }
+
+    public int getCommitBatchSize() {
+        return commitBatchSize;
+    }
+
+    /**
+     * The age of a partial batch, in milliseconds, after which the next delivery acknowledges it even though it is not full.
+     * Acknowledging is left to the delivery thread, JMS does not allow another thread to use the session of a listener,
+     * so a partial batch waits for the next message, or for the consumer to be stopped, while the destination is idle.
+     *
+     * @param commitBatchDelay
+     */
+    public synchronized void setCommitBatchDelay(int commitBatchDelay) {
+        if (commitBatchDelay < 1) {
+            throw new IllegalArgumentException("Commit batch delay cannot be less than 1 millisecond");
+        }
+        this.commitBatchDelay = commitBatchDelay;
+    }
+
+    public int getCommitBatchDelay() {
+        return commitBatchDelay;
+    }
+
     public synchronized void setNoLocal(boolean noLocal) {
         this.noLocal = noLocal;
         if (running.get()) {
@@ -223,18 +341,24 @@ public class JMSConsumer<T> implements AutoCloseable {
     // Consumer controls (affect running status flag)
     public synchronized void start() {
         running.set(true);
+        contextProvider.addRecoveryListener(recoveryListener);
         doStart();
     }
 
     public synchronized void stop() {
         running.set(false);
         doStop();
+        flushCommitBatch();
     }
 
     @Override
     public synchronized void close() {
-        clientCreator.shutdownNow();
+        contextProvider.removeRecoveryListener(recoveryListener);
+        if (!sharedClientCreator) {
+            clientCreator.shutdownNow();
+        }
         running.set(false);
+        flushCommitBatch();
         doClose();
         watchdogTimer.close();
         onUnmarshallFailEventHandler.set(null);
@@ -254,6 +378,8 @@ public class JMSConsumer<T> implements AutoCloseable {
     }
 
     private synchronized void doClose() {
+        // Whatever was not acknowledged yet is redelivered
+        discardCommitBatch();
         closeConsumer();
         contextProvider.release();
         context = null;
@@ -278,6 +404,16 @@ public class JMSConsumer<T> implements AutoCloseable {
         doStart();
     }
 
+    private synchronized void onConnectionRecovered() {
+        if (running.get() && Objects.isNull(consumer)) {
+            // Spread restarts out, all consumers of the connection are notified at the same time
+            long delay = contextProvider.getReconnectBackoff().getDelayMillis(0);
+            log.info("Connection recovered, restarting JMSConsumer {} in {} ms", consumerName, delay);
+            restartAttempt = 0;
+            clientCreator.schedule(this::tryCreateConsumerLoop, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
     private void onReadFail() {
         Optional.ofNullable(onReadFailEventHandler.get()).ifPresent(JMSRuntimeExceptionUtils::tryAndLogError);
     }
@@ -307,6 +443,7 @@ public class JMSConsumer<T> implements AutoCloseable {
             consumer = context.createDurableConsumer(destination, consumerName, selector, noLocal);
         }
         consumer.setMessageListener(this::handleMessage);
+        restartAttempt = 0;
         watchdogTimer.start(10000);
         log.info("Consumer {} started on destination: {}", consumerName, destinationName);
     }
@@ -315,12 +452,25 @@ public class JMSConsumer<T> implements AutoCloseable {
         if (Objects.isNull(consumer) && running.get()) {
             tryAndLogError(this::createConsumer, "Exception thrown when creating consumer", () -> {
                         doClose();
-                        clientCreator.schedule(this::tryCreateConsumerLoop, restartDelay, TimeUnit.MILLISECONDS);
+                        scheduleRestart();
                     },
                     exceptionPointer);
         }
     }
 
+    private synchronized void scheduleRestart() {
+        if (!contextProvider.isConnectionAvailable()) {
+            // The connection holder probes the connection and calls onConnectionRecovered once it is back
+            log.info("Connection unavailable, JMSConsumer {} waiting for it to recover", consumerName);
+            return;
+        }
+        long delay = contextProvider.getReconnectBackoff().getDelayMillis(restartAttempt++);
+        if (restartDelaySet) {
+            delay = Math.max(restartDelay, delay);
+        }
+        clientCreator.schedule(this::tryCreateConsumerLoop, delay, TimeUnit.MILLISECONDS);
+    }
+
     // Close components
     private synchronized void closeConsumer() {
         doStop();
@@ -333,9 +483,9 @@ public class JMSConsumer<T> implements AutoCloseable {
     }
 
     // Message processing
-    private T unmarshall(String s) {
+    private T unmarshall(Message message, String s) {
         try {
-            return stringToObjectUnmarshaller.unmarshal(s);
+            return messageToObjectUnmarshaller.unmarshal(message, s);
         } catch (Exception e) {
             onUnmarshallFail(s);
             throw new RuntimeException(e);
@@ -353,36 +503,60 @@ public class JMSConsumer<T> implements AutoCloseable {
 
     private synchronized void handleMessage(Message message) {
         watchdogTimer.stop();
+        JMSConsumeEvent event = new JMSConsumeEvent();
+        event.begin();
+        long receivedNanos = System.nanoTime();
+        JMSConsumerLatency currentLatency = latency;
+        recordProduceToReceive(currentLatency, message);
+        String messageId = null;
 
         try {
-            String string = getStringFromMessage(message);
-            if (Objects.isNull(string)) return;
+            // Bytes bodies are left to the unmarshaller, which reads them from the message
+            boolean bytesMessage = message instanceof BytesMessage;
+            String string = bytesMessage ? null : getStringFromMessage(message);
+            if (!bytesMessage && Objects.isNull(string)) return;
 
             handleJmsMessageIdAndTryCount(message);
+            messageId = lastParsedJMSMessageId;
 
             T unmarshalledObject = tryUnmarshall(message, string);
+            currentLatency.getReceiveToUnmarshalled().record(System.nanoTime() - receivedNanos);
 
-            invokeCallback(message, unmarshalledObject);
+            invokeCallback(message, unmarshalledObject, currentLatency);
         } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.destination = destinationName;
+                event.consumer = consumerName;
+                event.messageId = messageId;
+                event.commit();
+            }
             watchdogTimer.start(10000);
         }
     }
 
-    private void invokeCallback(Message message, T unmarshalledObject) {
+    private void invokeCallback(Message message, T unmarshalledObject, JMSConsumerLatency currentLatency) {
+        long callbackStartNanos = System.nanoTime();
         try {
             messageCallback.callback(unmarshalledObject);
+            currentLatency.getCallback().record(System.nanoTime() - callbackStartNanos);
+            metrics.onConsumed();
             consumeTryCount = 0;
             ackAndCommit(message);
         } catch (Exception e) {
+            currentLatency.getCallback().record(System.nanoTime() - callbackStartNanos);
+            metrics.onCallbackFailure();
             consumeTryCount++;
             switch (onConsumeFailBehaviour) {
                 case DISCARD -> {
                     log.warn("Discarding unprocessed object with ID {} due to an unhandled exception from consumer callback", lastParsedJMSMessageId, e);
+                    metrics.onDiscarded();
                     ackAndCommit(message);
                 }
                 case DISCARD_AFTER_RETRY_COUNT_EXCEEDED -> {
                     if (consumeTryCount > consumeRetryLimit) {
                         log.warn("Discarding unprocessed object with ID {} due to an unhandled exception from consumer callback and exceeding the ConsumeRetryLimit", lastParsedJMSMessageId, e);
+                        metrics.onDiscarded();
                         ackAndCommit(message);
                     } else {
                         log.error("Unhandled exception from consumer callback while consuming object with ID {}", lastParsedJMSMessageId, e);
@@ -396,6 +570,21 @@ public class JMSConsumer<T> implements AutoCloseable {
         }
     }
 
+    private void recordProduceToReceive(JMSConsumerLatency currentLatency, Message message) {
+        try {
+            // Producers writing metadata to properties record the source date there, otherwise fall back to the send time
+            long sourceMillis = message.propertyExists(MessageMetadataProperties.SOURCE_DATE) ?
+                    message.getLongProperty(MessageMetadataProperties.SOURCE_DATE) : message.getJMSTimestamp();
+            if (sourceMillis > 0) {
+                currentLatency.getProduceToReceive().record((System.currentTimeMillis() - sourceMillis) * 1_000_000);
+            }
+        } catch (JMSException | RuntimeException e) {
+            if (sourceDateExceptionPointer.shouldLog(e)) {
+                log.warn("Could not read the source date of message on destination {}", destinationName, e);
+            }
+        }
+    }
+
     private void handleJmsMessageIdAndTryCount(Message message) {
         String jmsMessageId;
         try {
@@ -421,6 +610,26 @@ public class JMSConsumer<T> implements AutoCloseable {
     }
 
     private void ackAndCommit(Message message) {
+        lastUncommittedMessage = message;
+        if (uncommittedCount++ == 0) {
+            uncommittedSinceNanos = System.nanoTime();
+        }
+        if (uncommittedCount >= commitBatchSize ||
+                System.nanoTime() - uncommittedSinceNanos >= TimeUnit.MILLISECONDS.toNanos(commitBatchDelay)) {
+            flushCommitBatch();
+        }
+    }
+
+    /**
+     * Acknowledging the last message acknowledges every message consumed before it on the session.
+     * Runs on the delivery thread, or once delivery has been stopped.
+     */
+    private synchronized void flushCommitBatch() {
+        Message message = lastUncommittedMessage;
+        discardCommitBatch();
+        if (Objects.isNull(message) || Objects.isNull(context)) {
+            return;
+        }
         try {
             message.acknowledge();
             if (context.getTransacted()) {
@@ -431,21 +640,29 @@ public class JMSConsumer<T> implements AutoCloseable {
         }
     }
 
+    private void discardCommitBatch() {
+        uncommittedCount = 0;
+        lastUncommittedMessage = null;
+    }
+
     private T tryUnmarshall(Message message, String string) {
         try {
-            T unmarshalledObject = unmarshall(string);
+            T unmarshalledObject = unmarshall(message, string);
             unmarshalTryCount = 0;
             return unmarshalledObject;
         } catch (Exception e) {
+            metrics.onUnmarshalFailure();
             unmarshalTryCount++;
             switch (onUnmarshallFailBehaviour) {
                 case DISCARD -> {
                     log.warn("Discarding unmarshallable object with ID {} due to", lastParsedJMSMessageId, e);
+                    metrics.onDiscarded();
                     ackAndCommit(message);
                 }
                 case DISCARD_AFTER_RETRY_COUNT_EXCEEDED -> {
                     if (unmarshalTryCount > unmarshalRetryLimit) {
                         log.warn("Discarding unmarshallable object with ID {} due to an exception and exceeding UnmarshalRetryLimit", lastParsedJMSMessageId, e);
+                        metrics.onDiscarded();
                         ackAndCommit(message);
                     } else {
                         log.error("An exception was thrown while unmarshalling object with ID {}", lastParsedJMSMessageId, e);
@@ -461,6 +678,8 @@ public class JMSConsumer<T> implements AutoCloseable {
     }
 
     private void rollback() {
+        metrics.onRolledBack();
+        discardCommitBatch();
         try {
             context.recover();
         } catch (JMSRuntimeException e) {
@@ -469,9 +688,11 @@ public class JMSConsumer<T> implements AutoCloseable {
     }
 
     private void handleParseFailure(Message message, Exception e) {
+        metrics.onParseFailure();
         switch (onParseFailBehaviour) {
             case DISCARD -> {
                 log.warn("Discarding unparseable object with ID {} due to", lastParsedJMSMessageId, e);
+                metrics.onDiscarded();
                 ackAndCommit(message);
             }
             case ROLLBACK -> {
@@ -481,6 +702,11 @@ public class JMSConsumer<T> implements AutoCloseable {
         }
     }
 
+    private static <T> MessageToObjectUnmarshaller<T> toMessageUnmarshaller(StringToObjectUnmarshaller<T> stringToObjectUnmarshaller) {
+        Objects.requireNonNull(stringToObjectUnmarshaller, "Unmarshaller cannot be null");
+        return (message, body) -> stringToObjectUnmarshaller.unmarshal(body);
+    }
+
     private void validateConsumerName(String consumerName) {
         if (topic && (Objects.isNull(consumerName) || consumerName.isBlank())) {
             throw new IllegalArgumentException("Consumer name cannot be null or empty for topic consumers");
@@ -0,0 +1,44 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.utils.LatencyHistogram;
+
+/**
+ * Latency of the messages consumed from one destination, split by stage so broker lag, deserialization
+ * and handler time can be told apart.
+ */
+public final class JMSConsumerLatency {
+    private final String destinationName;
+    private final LatencyHistogram produceToReceive = new LatencyHistogram();
+    private final LatencyHistogram receiveToUnmarshalled = new LatencyHistogram();
+    private final LatencyHistogram callback = new LatencyHistogram();
+
+    JMSConsumerLatency(String destinationName) {
+        this.destinationName = destinationName;
+    }
+
+    public String getDestinationName() {
+        return destinationName;
+    }
+
+    /**
+     * From the source date the producer recorded (or the JMS timestamp when there is none) to the consumer receiving
+     * the message. Measured across hosts, so only as accurate as their clocks are in sync.
+     */
+    public LatencyHistogram getProduceToReceive() {
+        return produceToReceive;
+    }
+
+    /**
+     * From the consumer receiving the message to its body being read and unmarshalled.
+     */
+    public LatencyHistogram getReceiveToUnmarshalled() {
+        return receiveToUnmarshalled;
+    }
+
+    /**
+     * Time spent in the message callback.
+     */
+    public LatencyHistogram getCallback() {
+        return callback;
+    }
+}
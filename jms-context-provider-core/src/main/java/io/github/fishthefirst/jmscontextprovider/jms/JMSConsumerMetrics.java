@@ -0,0 +1,75 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link JMSConsumer}, split by what happened to each message. Backed by {@link LongAdder}s.
+ */
+public final class JMSConsumerMetrics {
+    private final LongAdder consumed = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final LongAdder unmarshalFailures = new LongAdder();
+    private final LongAdder callbackFailures = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder rolledBack = new LongAdder();
+
+    JMSConsumerMetrics() {
+    }
+
+    /**
+     * @return the number of messages the callback processed successfully
+     */
+    public long getConsumed() {
+        return consumed.sum();
+    }
+
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+
+    public long getUnmarshalFailures() {
+        return unmarshalFailures.sum();
+    }
+
+    public long getCallbackFailures() {
+        return callbackFailures.sum();
+    }
+
+    /**
+     * @return the number of messages acknowledged without being processed, by a DISCARD behaviour or once retries ran out
+     */
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    /**
+     * @return the number of times the session was recovered for redelivery, by a ROLLBACK behaviour
+     */
+    public long getRolledBack() {
+        return rolledBack.sum();
+    }
+
+    void onConsumed() {
+        consumed.increment();
+    }
+
+    void onParseFailure() {
+        parseFailures.increment();
+    }
+
+    void onUnmarshalFailure() {
+        unmarshalFailures.increment();
+    }
+
+    void onCallbackFailure() {
+        callbackFailures.increment();
+    }
+
+    void onDiscarded() {
+        discarded.increment();
+    }
+
+    void onRolledBack() {
+        rolledBack.increment();
+    }
+}
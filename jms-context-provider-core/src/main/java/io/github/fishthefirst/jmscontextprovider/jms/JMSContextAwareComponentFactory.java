@@ -1,13 +1,22 @@
 package io.github.fishthefirst.jmscontextprovider.jms;
 
 
+import io.github.fishthefirst.jmscontextprovider.enums.JMSEndpointSelection;
 import io.github.fishthefirst.jmscontextprovider.handlers.MessageCallback;
+import io.github.fishthefirst.jmscontextprovider.handlers.RequestHandler;
 import io.github.fishthefirst.jmscontextprovider.handlers.SendMessageAbortedHandler;
 import io.github.fishthefirst.jmscontextprovider.handlers.SendMessageExceptionHandler;
 import io.github.fishthefirst.jmscontextprovider.serde.MessageProcessor;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.ObjectToBytesMarshaller;
 import io.github.fishthefirst.jmscontextprovider.serde.ObjectToStringMarshaller;
 import io.github.fishthefirst.jmscontextprovider.serde.StringToObjectUnmarshaller;
 import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
 
 public final class JMSContextAwareComponentFactory {
 
@@ -18,6 +27,21 @@ public final class JMSContextAwareComponentFactory {
         return new JMSConnectionContextHolder(connectionFactory);
     }
 
+    /**
+     * Creates a holder whose connections fail over between several broker endpoints.
+     *
+     * @param endpoints         The endpoints, in order of preference
+     * @param endpointSelection ORDERED to always prefer the first healthy endpoint, WEIGHTED to spread connections
+     *                          across healthy endpoints by weight
+     */
+    public static JMSConnectionContextHolder createContextHolder(List<JMSEndpoint> endpoints, JMSEndpointSelection endpointSelection) {
+        return new JMSConnectionContextHolder(endpoints, endpointSelection);
+    }
+
+    public static JMSEndpoint createEndpoint(String name, ConnectionFactory connectionFactory, int weight) {
+        return new JMSEndpoint(name, connectionFactory, weight);
+    }
+
     public static <T> JMSConsumer<T> createConsumer(JMSConnectionContextHolder mainContextHolder,
                                                     MessageCallback<T>  messageCallback,
                                                     StringToObjectUnmarshaller<T>  stringToObjectUnmarshaller,
@@ -26,7 +50,7 @@ public final class JMSContextAwareComponentFactory {
                                                     String consumerName,
                                                     int sessionMode) {
         return new JMSConsumer<>(
-                new JMSSessionContextSupplier(mainContextHolder, sessionMode),
+                createConsumerContextSupplier(mainContextHolder, topic, sessionMode),
                 messageCallback,
                 stringToObjectUnmarshaller,
                 destinationName,
@@ -34,14 +58,54 @@ public final class JMSContextAwareComponentFactory {
                 consumerName);
     }
 
-    public <T> JMSProducerTransactionManager<T> createTransactionManager(JMSConnectionContextHolder connectionContextHolder,
-                                                                         ObjectToStringMarshaller<T> messageToStringMarshaller,
-                                                                         SendMessageExceptionHandler<T> sendMessageExceptionHandler,
-                                                                         SendMessageAbortedHandler<T> sendMessageAbortedHandler,
-                                                                         MessageProcessor<T> messagePreProcessor,
-                                                                         MessageProcessor<T> messagePostProcessor,
-                                                                         String destinationName,
-                                                                         boolean topic) {
+    public static <T> JMSConsumer<T> createConsumer(JMSConnectionContextHolder mainContextHolder,
+                                                    MessageCallback<T>  messageCallback,
+                                                    MessageToObjectUnmarshaller<T> messageToObjectUnmarshaller,
+                                                    String destinationName,
+                                                    boolean topic,
+                                                    String consumerName,
+                                                    int sessionMode) {
+        return new JMSConsumer<>(
+                createConsumerContextSupplier(mainContextHolder, topic, sessionMode),
+                messageCallback,
+                messageToObjectUnmarshaller,
+                destinationName,
+                topic,
+                null,
+                consumerName);
+    }
+
+    /**
+     * @param scheduler Shared by consumers to (re)start and to flush commit batches, left running when they close
+     */
+    public static <T> JMSConsumer<T> createConsumer(JMSConnectionContextHolder mainContextHolder,
+                                                    MessageCallback<T>  messageCallback,
+                                                    MessageToObjectUnmarshaller<T> messageToObjectUnmarshaller,
+                                                    String destinationName,
+                                                    boolean topic,
+                                                    String selector,
+                                                    String consumerName,
+                                                    int sessionMode,
+                                                    ScheduledExecutorService scheduler) {
+        return new JMSConsumer<>(
+                createConsumerContextSupplier(mainContextHolder, topic, sessionMode),
+                messageCallback,
+                messageToObjectUnmarshaller,
+                destinationName,
+                topic,
+                selector,
+                consumerName,
+                scheduler);
+    }
+
+    public static <T> JMSProducerTransactionManager<T> createTransactionManager(JMSConnectionContextHolder connectionContextHolder,
+                                                                                ObjectToStringMarshaller<T> messageToStringMarshaller,
+                                                                                SendMessageExceptionHandler<T> sendMessageExceptionHandler,
+                                                                                SendMessageAbortedHandler<T> sendMessageAbortedHandler,
+                                                                                MessageProcessor<T> messagePreProcessor,
+                                                                                MessageProcessor<T> messagePostProcessor,
+                                                                                String destinationName,
+                                                                                boolean topic) {
         return new JMSProducerTransactionManager<>(
                 connectionContextHolder,
                 messageToStringMarshaller,
@@ -53,6 +117,34 @@ public final class JMSContextAwareComponentFactory {
                 topic);
     }
 
+    /**
+     * Sends {@link jakarta.jms.BytesMessage}s with the marshalled bytes as their body.
+     */
+    public static <T> JMSProducerTransactionManager<T> createBytesTransactionManager(JMSConnectionContextHolder connectionContextHolder,
+                                                                                     ObjectToBytesMarshaller<T> messageToBytesMarshaller,
+                                                                                     SendMessageExceptionHandler<T> sendMessageExceptionHandler,
+                                                                                     SendMessageAbortedHandler<T> sendMessageAbortedHandler,
+                                                                                     MessageProcessor<T> messagePreProcessor,
+                                                                                     MessageProcessor<T> messagePostProcessor,
+                                                                                     String destinationName,
+                                                                                     boolean topic) {
+        return new JMSProducerTransactionManager<>(
+                connectionContextHolder,
+                messageToBytesMarshaller,
+                sendMessageExceptionHandler,
+                sendMessageAbortedHandler,
+                messagePreProcessor,
+                messagePostProcessor,
+                destinationName,
+                topic);
+    }
+
+    public static <T> JMSTransactionalSubscriber<T> createTransactionalSubscriber(JMSProducerTransactionManager<T> transactionManager,
+                                                                                  int batchSize,
+                                                                                  Duration maxBatchDelay) {
+        return new JMSTransactionalSubscriber<>(transactionManager, batchSize, maxBatchDelay);
+    }
+
     public static <T> JMSProducer<T> createProducer(JMSConnectionContextHolder mainContextHolder,
                                                     ObjectToStringMarshaller<T> messageToStringMarshaller,
                                                     MessageProcessor<T> messagePreProcessor,
@@ -73,4 +165,77 @@ public final class JMSContextAwareComponentFactory {
                 7*60*60*24,
                 keepAlive);
     }
+
+    /**
+     * Sends {@link jakarta.jms.BytesMessage}s with the marshalled bytes as their body.
+     */
+    public static <T> JMSProducer<T> createBytesProducer(JMSConnectionContextHolder mainContextHolder,
+                                                         ObjectToBytesMarshaller<T> messageToBytesMarshaller,
+                                                         MessageProcessor<T> messagePreProcessor,
+                                                         MessageProcessor<T> messagePostProcessor,
+                                                         String destinationName,
+                                                         boolean topic,
+                                                         String producerName,
+                                                         int sessionMode,
+                                                         boolean keepAlive) {
+        return new JMSProducer<>(
+                new JMSSessionContextSupplier(mainContextHolder, sessionMode),
+                messageToBytesMarshaller,
+                messagePreProcessor,
+                messagePostProcessor,
+                destinationName,
+                topic,
+                producerName,
+                7*60*60*24,
+                keepAlive);
+    }
+
+    /**
+     * @param replyQueueName A queue dedicated to the client's replies, or null for a temporary queue
+     * @param sessionCount   The number of sessions requests are sent over
+     * @param timer          Shared by clients to time requests out, left running when they close. When null the client uses a thread of its own
+     */
+    public static <Q, R> JMSRequestReplyClient<Q, R> createRequestReplyClient(JMSConnectionContextHolder mainContextHolder,
+                                                                             ObjectToStringMarshaller<Q> requestMarshaller,
+                                                                             StringToObjectUnmarshaller<R> replyUnmarshaller,
+                                                                             String requestDestinationName,
+                                                                             String replyQueueName,
+                                                                             int sessionCount,
+                                                                             ScheduledExecutorService timer) {
+        return new JMSRequestReplyClient<>(
+                mainContextHolder,
+                requestMarshaller,
+                replyUnmarshaller,
+                requestDestinationName,
+                replyQueueName,
+                sessionCount,
+                timer);
+    }
+
+    /**
+     * @param scheduler Shared by components to (re)start, left running when the server closes. When null the server uses a thread of its own
+     */
+    public static <Q, R> JMSRequestReplyServer<Q, R> createRequestReplyServer(JMSConnectionContextHolder mainContextHolder,
+                                                                             RequestHandler<Q, R> requestHandler,
+                                                                             StringToObjectUnmarshaller<Q> requestUnmarshaller,
+                                                                             ObjectToStringMarshaller<R> replyMarshaller,
+                                                                             String destinationName,
+                                                                             ScheduledExecutorService scheduler) {
+        return new JMSRequestReplyServer<>(
+                createConsumerContextSupplier(mainContextHolder, false, JMSContext.SESSION_TRANSACTED),
+                requestHandler,
+                requestUnmarshaller,
+                replyMarshaller,
+                destinationName,
+                scheduler);
+    }
+
+    private static JMSSessionContextSupplier createConsumerContextSupplier(JMSConnectionContextHolder mainContextHolder,
+                                                                           boolean topic,
+                                                                           int sessionMode) {
+        JMSSessionContextSupplier sessionContextSupplier = new JMSSessionContextSupplier(mainContextHolder, sessionMode);
+        // Durable subscriptions are bound to the client ID, so topic consumers must not move between connections
+        sessionContextSupplier.setStickyConnection(topic);
+        return sessionContextSupplier;
+    }
 }
\ No newline at end of file
@@ -5,27 +5,82 @@ import jakarta.jms.JMSContext;
 import jakarta.jms.JMSException;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
 
 public final class JMSContextWrapper {
     private final JMSContext context;
     private final ExceptionListener exceptionCallback;
+    private final int connectionIndex;
+    private final Consumer<JMSContextWrapper> onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean failed;
+    private volatile long lastActivityNanos = System.nanoTime();
 
     JMSContextWrapper(JMSContext context, ExceptionListener exceptionListener) {
+        this(context, exceptionListener, -1, null);
+    }
+
+    JMSContextWrapper(JMSContext context, ExceptionListener exceptionListener, int connectionIndex, Consumer<JMSContextWrapper> onClose) {
         this.context = context;
         this.exceptionCallback = exceptionListener;
+        this.connectionIndex = connectionIndex;
+        this.onClose = onClose;
     }
 
     JMSContext getContext() {
         return context;
     }
 
+    int getConnectionIndex() {
+        return connectionIndex;
+    }
+
     ExceptionListener getExceptionCallback() {
         return exceptionCallback;
     }
 
     void onException(JMSException exception) {
+        failed = true;
         if (Objects.nonNull(exceptionCallback)) {
             exceptionCallback.onException(exception);
         }
     }
+
+    /**
+     * Closes the session and removes it from the registry of the connection it was created from.
+     * Only the first call has any effect.
+     */
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            tryAndLogError(context::close, "An exception was thrown while closing session");
+            if (Objects.nonNull(onClose)) {
+                onClose.accept(this);
+            }
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * @return false once the session has been closed or its connection reported an exception
+     */
+    boolean isHealthy() {
+        return !failed && !closed.get();
+    }
+
+    /**
+     * Records a successful operation on the session, which postpones the next liveness probe.
+     */
+    void markActive() {
+        lastActivityNanos = System.nanoTime();
+    }
+
+    long getIdleNanos() {
+        return System.nanoTime() - lastActivityNanos;
+    }
 }
@@ -0,0 +1,81 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import jakarta.jms.ConnectionFactory;
+
+import java.util.Objects;
+
+/**
+ * A broker node a {@link JMSConnectionContextHolder} can connect to, along with its observed health.
+ * <p>
+ * An endpoint is marked unhealthy when connecting to it fails or its connection expires,
+ * and healthy again once a connection to it succeeds.
+ */
+public final class JMSEndpoint {
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    // Constructor vars
+    private final String name;
+    private final ConnectionFactory connectionFactory;
+    private final int weight;
+
+    // Object vars
+    private volatile boolean healthy = true;
+    private volatile int consecutiveFailures;
+    private volatile double averageConnectMillis = -1;
+
+    JMSEndpoint(String name, ConnectionFactory connectionFactory, int weight) {
+        Objects.requireNonNull(name, "Endpoint name cannot be null");
+        Objects.requireNonNull(connectionFactory, "Connection factory cannot be null");
+        if (weight < 1) {
+            throw new IllegalArgumentException("Endpoint weight cannot be less than 1");
+        }
+        this.name = name;
+        this.connectionFactory = connectionFactory;
+        this.weight = weight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * @return the exponentially weighted average time it took to connect, in milliseconds, or -1 if never connected
+     */
+    public double getAverageConnectMillis() {
+        return averageConnectMillis;
+    }
+
+    ConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    synchronized void recordConnect(long elapsedNanos) {
+        double elapsedMillis = elapsedNanos / 1_000_000d;
+        averageConnectMillis = averageConnectMillis < 0 ? elapsedMillis :
+                averageConnectMillis + LATENCY_SMOOTHING * (elapsedMillis - averageConnectMillis);
+        consecutiveFailures = 0;
+        healthy = true;
+    }
+
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        healthy = false;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
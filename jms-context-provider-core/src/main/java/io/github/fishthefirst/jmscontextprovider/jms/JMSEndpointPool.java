@@ -0,0 +1,190 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.enums.JMSEndpointSelection;
+import io.github.fishthefirst.jmscontextprovider.utils.CustomizableThreadFactory;
+import jakarta.jms.JMSContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
+
+/**
+ * The endpoints of a {@link JMSConnectionContextHolder}, in the order connections should try them.
+ * <p>
+ * While an endpoint is unhealthy and other endpoints exist, a background task probes it. Once it answers again
+ * the failback listener is notified, so connections that failed over can move back to the preferred endpoint.
+ */
+final class JMSEndpointPool {
+    private static final Logger log = LoggerFactory.getLogger(JMSEndpointPool.class);
+
+    // Constructor vars
+    private final List<JMSEndpoint> endpoints;
+    private final JMSEndpointSelection selection;
+    private final Runnable failbackListener;
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, CustomizableThreadFactory.getInstance(this));
+
+    // Object vars
+    private ScheduledFuture<?> failbackFuture;
+
+    // User props
+    private volatile long failbackIntervalMillis = 30000;
+
+    JMSEndpointPool(List<JMSEndpoint> endpoints, JMSEndpointSelection selection, Runnable failbackListener) {
+        Objects.requireNonNull(endpoints, "Endpoints cannot be null");
+        Objects.requireNonNull(selection, "Endpoint selection cannot be null");
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint is required");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.selection = selection;
+        this.failbackListener = failbackListener;
+        scheduler.setKeepAliveTime(30, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    List<JMSEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    JMSEndpointSelection getSelection() {
+        return selection;
+    }
+
+    void setFailbackIntervalMillis(long failbackIntervalMillis) {
+        if (failbackIntervalMillis < 1) {
+            throw new IllegalArgumentException("Failback interval must be positive");
+        }
+        this.failbackIntervalMillis = failbackIntervalMillis;
+    }
+
+    long getFailbackIntervalMillis() {
+        return failbackIntervalMillis;
+    }
+
+    /**
+     * @return all endpoints, healthy ones first in selection order, followed by unhealthy ones as a last resort
+     */
+    List<JMSEndpoint> candidates() {
+        if (endpoints.size() == 1) {
+            return endpoints;
+        }
+        List<JMSEndpoint> healthy = new ArrayList<>(endpoints.size());
+        List<JMSEndpoint> unhealthy = new ArrayList<>();
+        for (JMSEndpoint endpoint : endpoints) {
+            (endpoint.isHealthy() ? healthy : unhealthy).add(endpoint);
+        }
+        if (selection == JMSEndpointSelection.WEIGHTED && healthy.size() > 1) {
+            // Weighted random order: each endpoint is drawn first with a probability proportional to its weight
+            Map<JMSEndpoint, Double> keys = new HashMap<>();
+            for (JMSEndpoint endpoint : healthy) {
+                keys.put(endpoint, Math.pow(ThreadLocalRandom.current().nextDouble(), 1d / endpoint.getWeight()));
+            }
+            healthy.sort(Comparator.comparing(keys::get, Comparator.reverseOrder()));
+        }
+        healthy.addAll(unhealthy);
+        return healthy;
+    }
+
+    boolean hasHealthyEndpoint() {
+        for (JMSEndpoint endpoint : endpoints) {
+            if (endpoint.isHealthy()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if connections on the given endpoint should move to a healthier, preferred endpoint
+     */
+    boolean shouldFailBack(JMSEndpoint endpoint) {
+        if (selection != JMSEndpointSelection.ORDERED || Objects.isNull(endpoint)) {
+            return false;
+        }
+        for (JMSEndpoint preferred : endpoints) {
+            if (preferred == endpoint) {
+                return false;
+            }
+            if (preferred.isHealthy()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    JMSContext connect(JMSEndpoint endpoint) {
+        long start = System.nanoTime();
+        JMSContext context;
+        try {
+            // This protects connection factory methods from blowing up from multiple connection holders
+            synchronized (endpoint.getConnectionFactory()) {
+                context = endpoint.getConnectionFactory().createContext();
+            }
+        } catch (RuntimeException e) {
+            onEndpointFailure(endpoint);
+            throw e;
+        }
+        endpoint.recordConnect(System.nanoTime() - start);
+        return context;
+    }
+
+    void onEndpointFailure(JMSEndpoint endpoint) {
+        endpoint.recordFailure();
+        if (endpoints.size() > 1) {
+            log.warn("Endpoint {} marked unhealthy after {} consecutive failures", endpoint, endpoint.getConsecutiveFailures());
+            scheduleFailback();
+        }
+    }
+
+    synchronized void close() {
+        if (Objects.nonNull(failbackFuture)) {
+            failbackFuture.cancel(false);
+        }
+        failbackFuture = null;
+    }
+
+    private synchronized void scheduleFailback() {
+        if (Objects.isNull(failbackFuture) || failbackFuture.isDone()) {
+            failbackFuture = scheduler.schedule(this::runFailback, failbackIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runFailback() {
+        boolean recovered = false;
+        boolean stillUnhealthy = false;
+        for (JMSEndpoint endpoint : endpoints) {
+            if (endpoint.isHealthy()) {
+                continue;
+            }
+            try {
+                JMSContext probe = connect(endpoint);
+                tryAndLogError(probe::close);
+                log.info("Endpoint {} is healthy again", endpoint);
+                recovered = true;
+            } catch (RuntimeException e) {
+                stillUnhealthy = true;
+            }
+        }
+        synchronized (this) {
+            failbackFuture = null;
+        }
+        if (recovered && Objects.nonNull(failbackListener)) {
+            tryAndLogError(failbackListener, "Failing back to the preferred endpoint threw an exception");
+        }
+        if (stillUnhealthy) {
+            scheduleFailback();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+final class JMSKeyRetention<T, K> implements JMSRetainedObjects<T> {
+    private static final int RETAINED_CAPACITY = 1024;
+
+    // Constructor vars
+    private final Function<? super T, ? extends K> keyExtractor;
+    private final Function<? super K, ? extends T> resolver;
+
+    // Object vars
+    private final ArrayList<K> keys = new ArrayList<>();
+
+    JMSKeyRetention(Function<? super T, ? extends K> keyExtractor, Function<? super K, ? extends T> resolver) {
+        this.keyExtractor = keyExtractor;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public void add(T object) {
+        keys.add(keyExtractor.apply(object));
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (int i = 0; i < keys.size(); i++) {
+            action.accept(resolver.apply(keys.get(i)));
+        }
+    }
+
+    @Override
+    public void clear() {
+        boolean large = keys.size() > RETAINED_CAPACITY;
+        keys.clear();
+        if (large) {
+            keys.trimToSize();
+        }
+    }
+}
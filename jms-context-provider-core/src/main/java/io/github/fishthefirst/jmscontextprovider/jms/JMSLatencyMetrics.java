@@ -0,0 +1,23 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consumer latencies per destination. Consumers sharing an instance record into the same histograms
+ * when they consume from the same destination.
+ */
+public final class JMSLatencyMetrics {
+    private final Map<String, JMSConsumerLatency> latencies = new ConcurrentHashMap<>();
+
+    public JMSConsumerLatency forDestination(String destinationName) {
+        Objects.requireNonNull(destinationName, "Destination name cannot be null");
+        return latencies.computeIfAbsent(destinationName, JMSConsumerLatency::new);
+    }
+
+    public Collection<JMSConsumerLatency> getAll() {
+        return latencies.values();
+    }
+}
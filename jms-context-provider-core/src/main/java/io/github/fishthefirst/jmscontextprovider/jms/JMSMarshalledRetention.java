@@ -0,0 +1,174 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.serde.BytesToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.ObjectToBytesMarshaller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Marshalled objects packed back to back in one array, their lengths in another.
+ * <p>
+ * Once the array would grow past the spill threshold its contents are appended to a temporary file and the array
+ * starts over, so the file holds the oldest objects and the array the newest. The file is mapped back in when the
+ * objects have to be reported, and deleted when the buffer is cleared.
+ */
+final class JMSMarshalledRetention<T> implements JMSRetainedObjects<T> {
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_MAPPED_BYTES = 1 << 30;
+    static final long MAX_ARRAY_BYTES = Integer.MAX_VALUE - 8;
+
+    // Constructor vars
+    private final ObjectToBytesMarshaller<T> marshaller;
+    private final BytesToObjectUnmarshaller<T> unmarshaller;
+    private final long spillThresholdBytes;
+
+    // Object vars
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int byteCount;
+    private int[] lengths = new int[64];
+    private int count;
+
+    // Spill file
+    private FileChannel spillFile;
+    private long spilledBytes;
+    private int spilledCount;
+
+    JMSMarshalledRetention(ObjectToBytesMarshaller<T> marshaller, BytesToObjectUnmarshaller<T> unmarshaller, long spillThresholdBytes) {
+        this.marshaller = marshaller;
+        this.unmarshaller = unmarshaller;
+        this.spillThresholdBytes = spillThresholdBytes;
+    }
+
+    @Override
+    public void add(T object) {
+        byte[] marshalled = marshaller.marshal(object);
+        if ((long) byteCount + marshalled.length > spillThresholdBytes) {
+            spill(bytes, byteCount, count);
+            byteCount = 0;
+        }
+        if (marshalled.length > spillThresholdBytes) {
+            // Too large to be kept in memory even on its own
+            spill(marshalled, marshalled.length, count + 1);
+        } else {
+            ensureCapacity(byteCount + marshalled.length);
+            System.arraycopy(marshalled, 0, bytes, byteCount, marshalled.length);
+            byteCount += marshalled.length;
+        }
+        if (count == lengths.length) {
+            lengths = Arrays.copyOf(lengths, count * 2);
+        }
+        lengths[count++] = marshalled.length;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        int index = 0;
+        if (spilledCount > 0) {
+            index = forEachSpilled(action);
+        }
+        int offset = 0;
+        for (; index < count; index++) {
+            action.accept(unmarshaller.unmarshal(Arrays.copyOfRange(bytes, offset, offset + lengths[index])));
+            offset += lengths[index];
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (Objects.nonNull(spillFile)) {
+            try {
+                // Opened with DELETE_ON_CLOSE
+                spillFile.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete the transaction's spill file", e);
+            } finally {
+                spillFile = null;
+            }
+        }
+        spilledBytes = 0;
+        spilledCount = 0;
+        byteCount = 0;
+        count = 0;
+        // Only small buffers are kept for the thread's next transaction
+        if (bytes.length > INITIAL_CAPACITY * 16) {
+            bytes = new byte[INITIAL_CAPACITY];
+        }
+        if (lengths.length > 1024) {
+            lengths = new int[64];
+        }
+    }
+
+    /**
+     * @return the bytes held on the heap for the objects that were not spilled
+     */
+    int getHeapBytes() {
+        return bytes.length;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > bytes.length) {
+            long grown = Math.max(required, (long) bytes.length * 2);
+            bytes = Arrays.copyOf(bytes, (int) Math.min(grown, Math.min(spillThresholdBytes, MAX_ARRAY_BYTES)));
+        }
+    }
+
+    /**
+     * @param spilledCount The number of objects in the file once the bytes are written
+     */
+    private void spill(byte[] source, int length, int spilledCount) {
+        try {
+            if (Objects.isNull(spillFile)) {
+                spillFile = FileChannel.open(Files.createTempFile("jms-transaction-", ".spill"),
+                        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(source, 0, length);
+            while (buffer.hasRemaining()) {
+                spilledBytes += spillFile.write(buffer, spilledBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spill the transaction's objects to disk", e);
+        }
+        this.spilledCount = spilledCount;
+    }
+
+    /**
+     * @return the index of the first object that is not in the file
+     */
+    private int forEachSpilled(Consumer<? super T> action) {
+        try {
+            long regionStart = 0;
+            MappedByteBuffer region = null;
+            long position = 0;
+            int index = 0;
+            for (; index < spilledCount; index++) {
+                int length = lengths[index];
+                if (Objects.isNull(region) || position + length > regionStart + region.capacity()) {
+                    regionStart = position;
+                    long regionSize = Math.min(spilledBytes - regionStart, Math.max(length, MAX_MAPPED_BYTES));
+                    region = spillFile.map(FileChannel.MapMode.READ_ONLY, regionStart, regionSize);
+                }
+                byte[] marshalled = new byte[length];
+                region.get((int) (position - regionStart), marshalled);
+                action.accept(unmarshaller.unmarshal(marshalled));
+                position += length;
+            }
+            return index;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the transaction's spilled objects", e);
+        }
+    }
+}
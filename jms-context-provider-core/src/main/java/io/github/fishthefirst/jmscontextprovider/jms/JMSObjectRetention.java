@@ -0,0 +1,39 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+final class JMSObjectRetention<T> implements JMSRetainedObjects<T> {
+    // Larger lists are not kept around for the thread's next transaction
+    private static final int RETAINED_CAPACITY = 1024;
+
+    private final ArrayList<T> objects = new ArrayList<>();
+
+    @Override
+    public void add(T object) {
+        objects.add(object);
+    }
+
+    @Override
+    public int size() {
+        return objects.size();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        List<T> snapshot = objects;
+        for (int i = 0; i < snapshot.size(); i++) {
+            action.accept(snapshot.get(i));
+        }
+    }
+
+    @Override
+    public void clear() {
+        boolean large = objects.size() > RETAINED_CAPACITY;
+        objects.clear();
+        if (large) {
+            objects.trimToSize();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * A request waiting for its reply, carrying its own timeout so the reply can cancel it.
+ */
+final class JMSPendingReply<R> extends CompletableFuture<R> {
+    private final String correlationId;
+    private volatile ScheduledFuture<?> timeout;
+
+    JMSPendingReply(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    String getCorrelationId() {
+        return correlationId;
+    }
+
+    void setTimeout(ScheduledFuture<?> timeout) {
+        this.timeout = timeout;
+    }
+
+    void cancelTimeout() {
+        ScheduledFuture<?> current = timeout;
+        if (Objects.nonNull(current)) {
+            current.cancel(false);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package io.github.fishthefirst.jmscontextprovider.jms;
 
 import io.github.fishthefirst.jmscontextprovider.serde.MessageProcessor;
+import io.github.fishthefirst.jmscontextprovider.serde.ObjectToBytesMarshaller;
 import io.github.fishthefirst.jmscontextprovider.serde.ObjectToStringMarshaller;
+import jakarta.jms.BytesMessage;
 import jakarta.jms.Destination;
 import jakarta.jms.JMSContext;
 import jakarta.jms.JMSException;
-import jakarta.jms.TextMessage;
+import jakarta.jms.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,6 +17,7 @@ public final class JMSProducer<T> {
     private static final Logger log = LoggerFactory.getLogger(JMSProducer.class);
 
     private final ObjectToStringMarshaller<T> objectToStringMarshaller;
+    private final ObjectToBytesMarshaller<T> objectToBytesMarshaller;
     private final MessageProcessor<T> messagePreProcessor;
     private final MessageProcessor<T> messagePostProcessor;
     private final JMSSessionContextSupplier contextSupplier;
@@ -58,13 +61,43 @@ public final class JMSProducer<T> {
                 String producerName,
                 int messageTimeToLive,
                 boolean keepAlive) {
-        Objects.requireNonNull(objectToStringMarshaller, "Object to String Marshaller cannot be null");
+        this(contextSupplier, Objects.requireNonNull(objectToStringMarshaller, "Object to String Marshaller cannot be null"), null,
+                messagePreProcessor, messagePostProcessor, destinationName, isTopic, producerName, messageTimeToLive, keepAlive);
+    }
+
+    /**
+     * Sends {@link BytesMessage}s with the marshalled bytes as their body.
+     */
+    JMSProducer(JMSSessionContextSupplier contextSupplier,
+                ObjectToBytesMarshaller<T> objectToBytesMarshaller,
+                MessageProcessor<T> messagePreProcessor,
+                MessageProcessor<T> messagePostProcessor,
+                String destinationName,
+                boolean isTopic,
+                String producerName,
+                int messageTimeToLive,
+                boolean keepAlive) {
+        this(contextSupplier, null, Objects.requireNonNull(objectToBytesMarshaller, "Object to Bytes Marshaller cannot be null"),
+                messagePreProcessor, messagePostProcessor, destinationName, isTopic, producerName, messageTimeToLive, keepAlive);
+    }
+
+    private JMSProducer(JMSSessionContextSupplier contextSupplier,
+                        ObjectToStringMarshaller<T> objectToStringMarshaller,
+                        ObjectToBytesMarshaller<T> objectToBytesMarshaller,
+                        MessageProcessor<T> messagePreProcessor,
+                        MessageProcessor<T> messagePostProcessor,
+                        String destinationName,
+                        boolean isTopic,
+                        String producerName,
+                        int messageTimeToLive,
+                        boolean keepAlive) {
         Objects.requireNonNull(contextSupplier, "JMS Session Context Supplier cannot be null");
         Objects.requireNonNull(destinationName, "Destination name cannot be null nor blank");
         if(destinationName.isBlank()) throw new IllegalArgumentException("Destination name cannot be null nor blank");
         Objects.requireNonNull(destinationName, "Producer name cannot be null nor blank");
         if(destinationName.isBlank()) throw new IllegalArgumentException("Producer name cannot be null nor blank");
         this.objectToStringMarshaller = objectToStringMarshaller;
+        this.objectToBytesMarshaller = objectToBytesMarshaller;
         this.messagePreProcessor = Objects.requireNonNullElseGet(messagePreProcessor, () -> (message,v) -> {});
         this.messagePostProcessor = Objects.requireNonNullElseGet(messagePostProcessor, () -> (message,v) -> {});
         this.contextSupplier = contextSupplier;
@@ -76,26 +109,63 @@ public final class JMSProducer<T> {
     }
 
     public synchronized void sendMessage(T o) {
+        JMSSendEvent event = new JMSSendEvent();
+        event.begin();
+        boolean sent = false;
+        try {
+            if(Objects.isNull(context)) {
+                createProducer();
+            }
+            Message message = createMessage(o);
+            preprocessMessage(message, o);
+            jmsProducer.send(destination, message);
+            contextSupplier.markActive();
+            postprocessMessage(message, o);
+            sent = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.destination = destinationName;
+                event.producer = producerName;
+                event.succeeded = sent;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Builds the session, producer and destination ahead of the first send.
+     */
+    synchronized void warmUp() {
         if(Objects.isNull(context)) {
             createProducer();
         }
-        TextMessage textMessage = context.createTextMessage(serialize(o));
-        preprocessMessage(textMessage, o);
-        jmsProducer.send(destination, textMessage);
-        postprocessMessage(textMessage, o);
     }
 
-    private void preprocessMessage(TextMessage textMessage, T o) {
+    private Message createMessage(T o) {
+        if (Objects.nonNull(objectToStringMarshaller)) {
+            return context.createTextMessage(serialize(o));
+        }
+        BytesMessage bytesMessage = context.createBytesMessage();
         try {
-            messagePreProcessor.accept(textMessage, o);
+            bytesMessage.writeBytes(encode(o));
+        } catch (JMSException e) {
+            throw new RuntimeException("Exception thrown while writing message body", e);
+        }
+        return bytesMessage;
+    }
+
+    private void preprocessMessage(Message message, T o) {
+        try {
+            messagePreProcessor.accept(message, o);
         } catch (Exception e) {
             throw new RuntimeException("Message preprocessor threw an exception", e);
         }
     }
 
-    private void postprocessMessage(TextMessage textMessage, T o) {
+    private void postprocessMessage(Message message, T o) {
         try {
-            messagePostProcessor.accept(textMessage, o);
+            messagePostProcessor.accept(message, o);
         } catch (Exception e) {
             throw new RuntimeException("Message postprocessor threw an exception", e);
         }
@@ -118,41 +188,74 @@ public final class JMSProducer<T> {
         }
     }
 
-    private synchronized void onException(JMSException e) {
-        close();
+    private byte[] encode(T o) {
+        try {
+            return Objects.requireNonNull(objectToBytesMarshaller.marshal(o), "Serializer returned null");
+        } catch (Exception e) {
+            throw new RuntimeException("Exception thrown while serializing", e);
+        }
+    }
+
+    /**
+     * The supplier has already closed the session, whoever holds it next builds a new one.
+     */
+    private void onException(JMSException e) {
+        detach();
     }
 
-    synchronized void commit() {
-        Objects.requireNonNull(context, "Call to commit without a context");
-        if(context.getTransacted()) {
-            context.commit();
+    void commit() {
+        boolean release;
+        synchronized (this) {
+            Objects.requireNonNull(context, "Call to commit without a context");
+            if(context.getTransacted()) {
+                context.commit();
+            }
+            release = !keepAlive && detach();
         }
-        if(!keepAlive) {
-            close();
+        // Released outside the monitor, the supplier's session lock is never taken while holding it
+        if(release) {
+            releaseContext();
         }
     }
 
-    synchronized void rollback() {
-        Objects.requireNonNull(context, "Call to rollback without a context");
-        if(context.getTransacted()) {
-            context.rollback();
+    void rollback() {
+        boolean release;
+        synchronized (this) {
+            Objects.requireNonNull(context, "Call to rollback without a context");
+            if(context.getTransacted()) {
+                context.rollback();
+            }
+            release = !keepAlive && detach();
         }
-        if(!keepAlive) {
-            close();
+        if(release) {
+            releaseContext();
         }
     }
 
     public void close() {
-        if(Objects.nonNull(context)) {
-            try {
-                context.close();
-            } catch (Exception e) {
-                log.error("An exception was thrown while closing JMS Producer {} context", producerName);
-            }
+        if(detach()) {
+            releaseContext();
         }
+    }
+
+    /**
+     * @return true if the producer had a context, which the caller must release
+     */
+    private synchronized boolean detach() {
+        boolean attached = Objects.nonNull(context);
         context = null;
         jmsProducer = null;
         destination = null;
+        return attached;
+    }
+
+    private void releaseContext() {
+        try {
+            // Releasing through the supplier also removes the session from the connection's registry
+            contextSupplier.release();
+        } catch (Exception e) {
+            log.error("An exception was thrown while closing JMS Producer {} context", producerName);
+        }
     }
 
     public boolean isAlive() {
@@ -0,0 +1,75 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link JMSProducerTransactionManager}. Backed by {@link LongAdder}s, so counting does not add
+ * contention between sending threads.
+ */
+public final class JMSProducerMetrics {
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder aborted = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder commitFailures = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+
+    JMSProducerMetrics() {
+    }
+
+    /**
+     * @return the number of objects sent, committed or not
+     */
+    public long getSent() {
+        return sent.sum();
+    }
+
+    /**
+     * @return the number of objects handed to the send message exception handler
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return the number of objects handed to the send message aborted handler
+     */
+    public long getAborted() {
+        return aborted.sum();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    /**
+     * @return the number of commits that threw
+     */
+    public long getCommitFailures() {
+        return commitFailures.sum();
+    }
+
+    public long getRollbacks() {
+        return rollbacks.sum();
+    }
+
+    void onSent() {
+        sent.increment();
+    }
+
+    void onFailed() {
+        failed.increment();
+    }
+
+    void onAborted() {
+        aborted.increment();
+    }
+
+    void onCommit(boolean succeeded) {
+        (succeeded ? commits : commitFailures).increment();
+    }
+
+    void onRollback() {
+        rollbacks.increment();
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * Idle producers of a {@link JMSProducerTransactionManager} that kept their session open, ready for the next transaction.
+ * An array deque under the pool's monitor, so pooling a producer after each send does not allocate a node.
+ */
+final class JMSProducerPool<T> {
+    // Object vars
+    private final Deque<JMSProducer<T>> idleProducers = new ArrayDeque<>();
+    private volatile int idleCount;
+
+    // User props
+    private volatile int maxIdle;
+
+    void setMaxIdle(int maxIdle) {
+        this.maxIdle = maxIdle;
+        while (idleCount > maxIdle) {
+            JMSProducer<T> producer = poll();
+            if (Objects.isNull(producer)) {
+                return;
+            }
+            producer.close();
+        }
+    }
+
+    int getMaxIdle() {
+        return maxIdle;
+    }
+
+    int getIdleCount() {
+        return idleCount;
+    }
+
+    /**
+     * @return an idle producer, or null if there is none
+     */
+    synchronized JMSProducer<T> poll() {
+        JMSProducer<T> producer = idleProducers.pollFirst();
+        idleCount = idleProducers.size();
+        return producer;
+    }
+
+    /**
+     * @return true if the producer was pooled, false if the pool is full and the caller keeps ownership
+     */
+    synchronized boolean offer(JMSProducer<T> producer) {
+        if (idleProducers.size() >= maxIdle) {
+            return false;
+        }
+        // Most recently used first, its session is the least likely to have gone stale
+        idleProducers.offerFirst(producer);
+        idleCount = idleProducers.size();
+        return true;
+    }
+
+    void clear() {
+        JMSProducer<T> producer;
+        while (Objects.nonNull(producer = poll())) {
+            producer.close();
+        }
+    }
+}
@@ -4,35 +4,36 @@ package io.github.fishthefirst.jmscontextprovider.jms;
 import io.github.fishthefirst.jmscontextprovider.handlers.SendMessageAbortedHandler;
 import io.github.fishthefirst.jmscontextprovider.handlers.SendMessageExceptionHandler;
 import io.github.fishthefirst.jmscontextprovider.serde.MessageProcessor;
+import io.github.fishthefirst.jmscontextprovider.serde.ObjectToBytesMarshaller;
 import io.github.fishthefirst.jmscontextprovider.serde.ObjectToStringMarshaller;
+import io.github.fishthefirst.jmscontextprovider.utils.AdaptiveChunkSizer;
 import io.github.fishthefirst.jmscontextprovider.utils.CustomizableThreadFactory;
 import jakarta.jms.JMSContext;
+import jakarta.jms.JMSRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Consumer;
-
-import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
 
 public final class JMSProducerTransactionManager<T> {
     private static final Logger log = LoggerFactory.getLogger(JMSProducerTransactionManager.class);
     private static final AtomicLong transactionId = new AtomicLong(0);
-    private final ThreadLocal<Boolean> isTransacted = new ThreadLocal<>();
-    private final ThreadLocal<JMSProducer<T>> transactionProducer = new ThreadLocal<>();
-    private final ThreadLocal<List<T>> transactedMessages = new ThreadLocal<>();
-    private final ThreadLocal<Boolean> transactionAlreadyFailed = new ThreadLocal<>();
+    // One lookup per call, the record is reused across the thread's transactions
+    private final ThreadLocal<JMSTransactionState<T>> transactionState = ThreadLocal.withInitial(JMSTransactionState::new);
 
     private final JMSConnectionContextHolder connectionContextHolder;
     private final ObjectToStringMarshaller<T> messageToStringMarshaller;
+    private final ObjectToBytesMarshaller<T> messageToBytesMarshaller;
     private final SendMessageExceptionHandler<T> sendMessageExceptionHandler;
     private final SendMessageAbortedHandler<T> sendMessageAbortedHandler;
     private final MessageProcessor<T> messagePreProcessor;
@@ -46,6 +47,12 @@ public final class JMSProducerTransactionManager<T> {
     private final boolean topic;
 
     private final ThreadPoolExecutor executor;
+    private final JMSProducerPool<T> idleTransactedProducers = new JMSProducerPool<>();
+    private final JMSProducerPool<T> idleProducers = new JMSProducerPool<>();
+    private final JMSProducerMetrics metrics = new JMSProducerMetrics();
+    private volatile JMSRetentionStrategy<T> retentionStrategy = JMSRetentionStrategy.objects();
+    private volatile AdaptiveChunkSizer chunkSizer = new AdaptiveChunkSizer(100, 1, 10_000, Duration.ofMillis(100));
+    private volatile int maxConsecutiveChunkFailures = 3;
 
     public JMSProducerTransactionManager(JMSConnectionContextHolder connectionContextHolder,
                                          ObjectToStringMarshaller<T> messageToStringMarshaller,
@@ -55,12 +62,54 @@ public final class JMSProducerTransactionManager<T> {
                                          MessageProcessor<T> messagePostProcessor,
                                          String destinationName,
                                          boolean topic) {
+        this(connectionContextHolder,
+                Objects.requireNonNull(messageToStringMarshaller, "Object to String Marshaller cannot be null"),
+                null,
+                sendMessageExceptionHandler,
+                sendMessageAbortedHandler,
+                messagePreProcessor,
+                messagePostProcessor,
+                destinationName,
+                topic);
+    }
+
+    /**
+     * Sends objects as {@link jakarta.jms.BytesMessage}s, the body being written by the given marshaller.
+     */
+    public JMSProducerTransactionManager(JMSConnectionContextHolder connectionContextHolder,
+                                         ObjectToBytesMarshaller<T> messageToBytesMarshaller,
+                                         SendMessageExceptionHandler<T> sendMessageExceptionHandler,
+                                         SendMessageAbortedHandler<T> sendMessageAbortedHandler,
+                                         MessageProcessor<T> messagePreProcessor,
+                                         MessageProcessor<T> messagePostProcessor,
+                                         String destinationName,
+                                         boolean topic) {
+        this(connectionContextHolder,
+                null,
+                Objects.requireNonNull(messageToBytesMarshaller, "Object to Bytes Marshaller cannot be null"),
+                sendMessageExceptionHandler,
+                sendMessageAbortedHandler,
+                messagePreProcessor,
+                messagePostProcessor,
+                destinationName,
+                topic);
+    }
+
+    private JMSProducerTransactionManager(JMSConnectionContextHolder connectionContextHolder,
+                                          ObjectToStringMarshaller<T> messageToStringMarshaller,
+                                          ObjectToBytesMarshaller<T> messageToBytesMarshaller,
+                                          SendMessageExceptionHandler<T> sendMessageExceptionHandler,
+                                          SendMessageAbortedHandler<T> sendMessageAbortedHandler,
+                                          MessageProcessor<T> messagePreProcessor,
+                                          MessageProcessor<T> messagePostProcessor,
+                                          String destinationName,
+                                          boolean topic) {
 
         Objects.requireNonNull(connectionContextHolder, "JMS Connection Context Holder cannot be null");
-        Objects.requireNonNull(messageToStringMarshaller, "Object to String Marshaller cannot be null");
 
         this.connectionContextHolder = connectionContextHolder;
         this.messageToStringMarshaller = messageToStringMarshaller;
+        this.messageToBytesMarshaller = messageToBytesMarshaller;
         this.sendMessageExceptionHandler = Objects.requireNonNullElseGet(sendMessageExceptionHandler, () -> (message) -> {});
         this.sendMessageAbortedHandler = Objects.requireNonNullElseGet(sendMessageAbortedHandler, () -> (message) -> {});
         this.messagePreProcessor = messagePreProcessor;
@@ -78,21 +127,145 @@ public final class JMSProducerTransactionManager<T> {
                 new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
+    public JMSProducerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the number of asynchronous commits waiting for an executor thread
+     */
+    public int getAsyncQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getAsyncActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * How the objects of a transaction are kept until it ends, for the failure and abort handlers.
+     * Applies to transactions started after the call.
+     *
+     * @param retentionStrategy Defaults to {@link JMSRetentionStrategy#objects()}
+     */
+    public void setRetentionStrategy(JMSRetentionStrategy<T> retentionStrategy) {
+        this.retentionStrategy = Objects.requireNonNull(retentionStrategy, "Retention strategy cannot be null");
+    }
+
+    public JMSRetentionStrategy<T> getRetentionStrategy() {
+        return retentionStrategy;
+    }
+
+    /**
+     * Sizes the transactions of {@link #sendObjectsChunked(Iterable)}, shared by every thread.
+     *
+     * @param chunkSizer Defaults to chunks of 100 to 10000 objects, sized for commits of 100ms
+     */
+    public void setChunkSizer(AdaptiveChunkSizer chunkSizer) {
+        this.chunkSizer = Objects.requireNonNull(chunkSizer, "Chunk sizer cannot be null");
+    }
+
+    public AdaptiveChunkSizer getChunkSizer() {
+        return chunkSizer;
+    }
+
+    /**
+     * @param maxConsecutiveChunkFailures The number of chunks in a row that may fail before the rest are aborted, defaults to 3
+     */
+    public void setMaxConsecutiveChunkFailures(int maxConsecutiveChunkFailures) {
+        if (maxConsecutiveChunkFailures < 1) {
+            throw new IllegalArgumentException("Max consecutive chunk failures must be at least 1");
+        }
+        this.maxConsecutiveChunkFailures = maxConsecutiveChunkFailures;
+    }
+
+    public int getMaxConsecutiveChunkFailures() {
+        return maxConsecutiveChunkFailures;
+    }
+
+    /**
+     * The number of producers, per session mode, that keep their session open between transactions.
+     * Defaults to 0, every transaction then creates and closes its own session.
+     *
+     * @param maxIdleProducers
+     */
+    public void setMaxIdleProducers(int maxIdleProducers) {
+        if (maxIdleProducers < 0) {
+            throw new IllegalArgumentException("Max idle producers cannot be negative");
+        }
+        idleTransactedProducers.setMaxIdle(maxIdleProducers);
+        idleProducers.setMaxIdle(maxIdleProducers);
+    }
+
+    public int getMaxIdleProducers() {
+        return idleTransactedProducers.getMaxIdle();
+    }
+
+    public int getIdleProducerCount() {
+        return idleTransactedProducers.getIdleCount() + idleProducers.getIdleCount();
+    }
+
+    /**
+     * Creates transacted producers along with their sessions and destinations, and pools them for the first transactions.
+     * Raises the max idle producers to the requested count if needed.
+     *
+     * @param producerCount The number of producers to have ready
+     * @return the number of idle transacted producers after warming up
+     */
+    public int warmUp(int producerCount) {
+        if (producerCount > getMaxIdleProducers()) {
+            setMaxIdleProducers(producerCount);
+        }
+        List<JMSProducer<T>> warmedUp = new ArrayList<>(producerCount);
+        try {
+            for (int i = idleTransactedProducers.getIdleCount(); i < producerCount; i++) {
+                JMSProducer<T> producer = createProducer(JMSContext.SESSION_TRANSACTED);
+                warmedUp.add(producer);
+                producer.warmUp();
+            }
+        } finally {
+            for (JMSProducer<T> producer : warmedUp) {
+                if (!producer.isAlive() || !idleTransactedProducers.offer(producer)) {
+                    producer.close();
+                }
+            }
+        }
+        return idleTransactedProducers.getIdleCount();
+    }
+
+    /**
+     * Closes the pooled producers and their sessions.
+     */
+    public void closeIdleProducers() {
+        idleTransactedProducers.clear();
+        idleProducers.clear();
+    }
+
     public void startTransaction() {
-        isTransacted.set(true);
-        if (Objects.isNull(transactedMessages.get())) {
-            transactedMessages.set(new ArrayList<>());
+        JMSTransactionState<T> state = transactionState.get();
+        if (!state.isTransacted()) {
+            state.retainWith(retentionStrategy);
+            state.setDepth(1);
+            state.setTransacted(true);
         }
     }
 
+    /**
+     * Sends the objects in one transaction. Inside a transaction that is already open, the objects join it
+     * and are committed with it.
+     */
     public void sendObjectsTransacted(Iterable<T> objects) {
+        JMSTransactionState<T> state = transactionState.get();
+        boolean joined = state.isTransacted();
         startTransaction();
         Iterator<T> iterator = objects.iterator();
-        while (!hasTransactionFailed() && iterator.hasNext()) {
+        while (!state.isFailed() && iterator.hasNext()) {
             sendObject(iterator.next());
         }
-        if (!hasTransactionFailed()) {
-            commit();
+        if (!state.isFailed()) {
+            if (!joined) {
+                commit(state);
+            }
             return;
         }
         while (iterator.hasNext()) {
@@ -100,110 +273,332 @@ public final class JMSProducerTransactionManager<T> {
         }
     }
 
+    /**
+     * Sends the objects in as many transactions as needed, each sized by the {@link AdaptiveChunkSizer} from the commit
+     * time and failures of the ones before it. Objects of a failed chunk go to the send message exception handler,
+     * and once too many chunks in a row have failed the rest go to the message aborted handler.
+     * Inside a transaction that is already open, the objects join it like {@link #sendObjectsTransacted(Iterable)}.
+     *
+     * @return the result of each chunk, empty if the objects joined an open transaction
+     */
+    public List<JMSCommitResult<T>> sendObjectsChunked(Iterable<T> objects) {
+        JMSTransactionState<T> state = transactionState.get();
+        if (state.isTransacted()) {
+            sendObjectsTransacted(objects);
+            return List.of();
+        }
+        AdaptiveChunkSizer sizer = chunkSizer;
+        List<JMSCommitResult<T>> results = new ArrayList<>();
+        Iterator<T> iterator = objects.iterator();
+        int consecutiveFailures = 0;
+        while (iterator.hasNext()) {
+            if (consecutiveFailures >= maxConsecutiveChunkFailures) {
+                iterator.forEachRemaining(this::messageAbortedCallback);
+                break;
+            }
+            int chunkSize = sizer.getChunkSize();
+            startTransaction();
+            for (int i = 0; i < chunkSize && !state.isFailed() && iterator.hasNext(); i++) {
+                sendObject(iterator.next());
+            }
+            JMSCommitResult<T> result = commitWithResult();
+            sizer.onCommit(result.getMessageCount(), result.getCommitDuration().toNanos(), result.isCommitted());
+            consecutiveFailures = result.isCommitted() ? 0 : consecutiveFailures + 1;
+            results.add(result);
+        }
+        return results;
+    }
+
     public void sendObject(T object) {
-        boolean transactionOpen = isTransactionOpen();
-        List<T> transactedMessagesList = transactedMessages.get();
+        JMSTransactionState<T> state = transactionState.get();
+        boolean transactionOpen = state.isTransacted();
 
-        if(transactionOpen && (hasTransactionFailed() || (!transactedMessagesList.isEmpty() && !isProducerAlive()))) {
-            messageFailedCallback(object);
+        if(transactionOpen && (state.isFailed() || (state.getSentObjects().size() > 0 && !isProducerAlive(state)))) {
+            messageFailedCallback(state, object);
             return;
         }
 
-        JMSProducer<T> jmsProducer = getProducerForMessage();
+        JMSProducer<T> jmsProducer = getProducerForMessage(state);
         try {
             jmsProducer.sendMessage(object);
+            metrics.onSent();
             if (transactionOpen) {
-                transactedMessagesList.add(object);
+                state.getSentObjects().add(object);
             } else {
-                commit();
+                commit(state);
             }
         } catch (Exception e) {
             if (transactionOpen) {
-                transactionAlreadyFailed.set(true);
+                state.setFailed(true);
             }
-            rollback();
-            messageFailedCallback(object);
+            rollback(state);
+            messageFailedCallback(state, object);
         }
     }
 
-    private Boolean isProducerAlive() {
-        return Optional.ofNullable(transactionProducer.get()).map(JMSProducer::isAlive).orElse(false);
+    /**
+     * @return true if the current thread has a transaction open
+     */
+    public boolean isTransactionActive() {
+        return transactionState.get().isTransacted();
+    }
+
+    /**
+     * @return the number of calls sharing the current thread's transaction, 0 if there is none
+     */
+    public int getTransactionDepth() {
+        JMSTransactionState<T> state = transactionState.get();
+        return state.isTransacted() ? Math.max(1, state.getDepth()) : 0;
     }
 
-    public void commit() {
-        if(hasTransactionFailed()) {
-            rollback();
+    /**
+     * Joins the current thread's transaction, if one is open. Every successful join must be matched by a
+     * {@link #leaveTransaction(boolean)}, the transaction is only committed by the call that started it.
+     *
+     * @return false if there is no transaction to join
+     */
+    public boolean joinTransaction() {
+        JMSTransactionState<T> state = transactionState.get();
+        if (!state.isTransacted()) {
+            return false;
+        }
+        state.setDepth(Math.max(1, state.getDepth()) + 1);
+        return true;
+    }
+
+    /**
+     * @param failed Marks the transaction for rollback, its commit then rolls it back
+     */
+    public void leaveTransaction(boolean failed) {
+        JMSTransactionState<T> state = transactionState.get();
+        if (!state.isTransacted()) {
+            return;
         }
-        else {
-            tryCatch(JMSProducer::commit, "committing");
+        state.setDepth(Math.max(1, state.getDepth() - 1));
+        if (failed) {
+            state.setFailed(true);
+            state.setRollbackOnly(true);
         }
-        clearThreadLocals();
     }
 
-    public void commitAsync() {
-        try {
-            JMSProducer<T> jmsProducer = transactionProducer.get();
-            List<T> transactedMessagesList = transactedMessages.get();
-            Boolean isTransactedC = isTransacted.get();
-            Boolean hasTransactionFailed = transactionAlreadyFailed.get();
-            executor.submit(() -> {
-                setThreadLocals(jmsProducer, transactedMessagesList, isTransactedC, hasTransactionFailed);
-                commit();
-            });
-        } finally {
-            // This only removes this thread's locals and not the new thread's locals
-            clearThreadLocalsNoClose();
+    /**
+     * @return true if a joined call left the current thread's transaction with {@code failed} set, its commit will roll it back
+     */
+    public boolean isRollbackOnly() {
+        return transactionState.get().isRollbackOnly();
+    }
+
+    /**
+     * Takes the current thread's transaction off the thread, so a new one can be started.
+     */
+    public JMSSuspendedTransaction<T> suspend() {
+        JMSSuspendedTransaction<T> suspended = new JMSSuspendedTransaction<>(transactionState.get());
+        transactionState.set(new JMSTransactionState<>());
+        return suspended;
+    }
+
+    /**
+     * Puts a suspended transaction back on the current thread. Any transaction still open on the thread is rolled back.
+     */
+    public void resume(JMSSuspendedTransaction<T> suspended) {
+        Objects.requireNonNull(suspended, "Suspended transaction cannot be null");
+        if (isTransactionActive()) {
+            rollbackTransaction();
         }
+        transactionState.set(suspended.getState());
+    }
+
+    private boolean isProducerAlive(JMSTransactionState<T> state) {
+        JMSProducer<T> producer = state.getProducer();
+        return Objects.nonNull(producer) && producer.isAlive();
+    }
+
+    /**
+     * Commits the current thread's transaction, or rolls it back if a send has already failed.
+     *
+     * @return true if the transaction was committed, false if it was rolled back or the commit failed
+     */
+    public boolean commit() {
+        return commit(transactionState.get());
+    }
+
+    /**
+     * Commits like {@link #commit()} and reports what happened to the transaction's objects.
+     */
+    public JMSCommitResult<T> commitWithResult() {
+        JMSTransactionState<T> state = transactionState.get();
+        // Failed objects are reported to the handler and not kept in the sent list
+        int messageCount = state.getSentObjects().size() + state.getFailedObjects().size();
+        long startNanos = System.nanoTime();
+        boolean committed = commitOrRollback(state);
+        // Copied before the state is cleared for the thread's next transaction
+        List<T> failed = new ArrayList<>(state.getFailedObjects().size());
+        state.getFailedObjects().forEach(failed::add);
+        endTransaction(state);
+        Duration commitDuration = Duration.ofNanos(System.nanoTime() - startNanos);
+        return new JMSCommitResult<>(committed, messageCount, commitDuration, Collections.unmodifiableList(failed));
+    }
+
+    /**
+     * Hands the current thread's transaction over to the manager's executor, which commits it.
+     *
+     * @return completes with the result of the commit, whether it was committed or rolled back
+     */
+    public CompletableFuture<JMSCommitResult<T>> commitAsync() {
+        JMSTransactionState<T> state = transactionState.get();
+        // The record moves to the executor thread, this thread gets a new one for its next transaction
+        transactionState.remove();
+        return CompletableFuture.supplyAsync(() -> {
+            transactionState.set(state);
+            return commitWithResult();
+        }, executor);
     }
 
     public void rollback() {
-        tryCatch(JMSProducer::rollback, "rolling back");
-        Optional.ofNullable(transactedMessages.get()).ifPresent(list -> list.forEach(this::messageFailedCallback));
+        rollback(transactionState.get());
     }
 
+    /**
+     * Rolls back the current thread's transaction and ends it, the next send starts afresh.
+     */
+    public void rollbackTransaction() {
+        JMSTransactionState<T> state = transactionState.get();
+        rollback(state);
+        endTransaction(state);
+    }
+
+    /**
+     * Rolls back the current thread's transaction and ends it like {@link #rollbackTransaction()},
+     * its objects go to the message aborted handler instead of the failure handler.
+     */
     public void abort() {
-        tryCatch(JMSProducer::rollback, "rolling back");
-        Optional.ofNullable(transactedMessages.get()).ifPresent(list -> list.forEach(this::messageAbortedCallback));
-    }
-
-    private void setThreadLocals(JMSProducer<T> producer,
-                                 List<T> transactedMessages,
-                                 Boolean isTransacted,
-                                 Boolean hasTransactionFailed) {
-        this.transactionProducer.set(producer);
-        this.transactedMessages.set(transactedMessages);
-        this.isTransacted.set(isTransacted);
-        this.transactionAlreadyFailed.set(hasTransactionFailed);
-    }
-
-    private JMSProducer<T> getProducerForMessage() {
-        JMSProducer<T> producer = Optional
-                .ofNullable(transactionProducer.get())
-                .orElseGet(() ->
-                        JMSContextAwareComponentFactory
-                                .createProducer(
-                                        connectionContextHolder,
-                                        messageToStringMarshaller,
-                                        messagePreProcessor,
-                                        messagePostProcessor,
-                                        destinationName,
-                                        topic,
-                                        "transacted-producer-" + transactionId.getAndIncrement(),
-                                        isTransactionOpen() ?
-                                                JMSContext.SESSION_TRANSACTED : JMSContext.AUTO_ACKNOWLEDGE,
-                                        false));
-        transactionProducer.set(producer);
+        JMSTransactionState<T> state = transactionState.get();
+        metrics.onRollback();
+        tryCatch(state, false);
+        state.getSentObjects().forEach(this::messageAbortedCallback);
+        state.getSentObjects().clear();
+        endTransaction(state);
+    }
+
+    private boolean commit(JMSTransactionState<T> state) {
+        boolean committed = commitOrRollback(state);
+        endTransaction(state);
+        return committed;
+    }
+
+    /**
+     * Every commit goes through here, synchronous, with a result or asynchronous, so each emits its commit event.
+     */
+    private boolean commitOrRollback(JMSTransactionState<T> state) {
+        JMSCommitEvent event = new JMSCommitEvent();
+        event.begin();
+        int messageCount = state.getSentObjects().size();
+        boolean committed;
+        if (state.isFailed()) {
+            rollback(state);
+            committed = false;
+        } else {
+            committed = tryCatch(state, true);
+            metrics.onCommit(committed);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.destination = destinationName;
+            event.messageCount = messageCount;
+            event.committed = committed;
+            event.commit();
+        }
+        return committed;
+    }
+
+    private void rollback(JMSTransactionState<T> state) {
+        metrics.onRollback();
+        tryCatch(state, false);
+        // Cleared once reported, so a later rollback of the same transaction does not report them again
+        reportFailed(state);
+        state.getSentObjects().clear();
+    }
+
+    private JMSProducer<T> getProducerForMessage(JMSTransactionState<T> state) {
+        JMSProducer<T> producer = state.getProducer();
+        if (Objects.isNull(producer)) {
+            boolean transactionOpen = state.isTransacted();
+            producer = (transactionOpen ? idleTransactedProducers : idleProducers).poll();
+            if (Objects.isNull(producer)) {
+                producer = createProducer(transactionOpen ? JMSContext.SESSION_TRANSACTED : JMSContext.AUTO_ACKNOWLEDGE);
+            }
+            state.setProducer(producer);
+        }
         return producer;
     }
 
-    private void tryCatch(Consumer<JMSProducer<T>> producerMethod, String action) {
-        tryAndLogError(() -> Optional
-                        .ofNullable(transactionProducer.get())
-                        .ifPresent(producerMethod), "An exception was thrown while " + action,
-                () -> Optional.ofNullable(transactedMessages.get()).ifPresent(list -> list.forEach(this::messageFailedCallback)));
+    private JMSProducer<T> createProducer(int sessionMode) {
+        if (Objects.nonNull(messageToBytesMarshaller)) {
+            return JMSContextAwareComponentFactory
+                    .createBytesProducer(
+                            connectionContextHolder,
+                            messageToBytesMarshaller,
+                            messagePreProcessor,
+                            messagePostProcessor,
+                            destinationName,
+                            topic,
+                            "transacted-producer-" + transactionId.getAndIncrement(),
+                            sessionMode,
+                            getMaxIdleProducers() > 0);
+        }
+        return JMSContextAwareComponentFactory
+                .createProducer(
+                        connectionContextHolder,
+                        messageToStringMarshaller,
+                        messagePreProcessor,
+                        messagePostProcessor,
+                        destinationName,
+                        topic,
+                        "transacted-producer-" + transactionId.getAndIncrement(),
+                        sessionMode,
+                        // Producers that may be pooled keep their session open after committing
+                        getMaxIdleProducers() > 0);
     }
 
-    private void messageFailedCallback(T failedMessage) {
+    /**
+     * Commits or rolls back the transaction's producer, if it has one. On failure the objects sent in the
+     * transaction are reported as failed.
+     */
+    private boolean tryCatch(JMSTransactionState<T> state, boolean commit) {
+        JMSProducer<T> producer = state.getProducer();
+        if (Objects.isNull(producer)) {
+            return true;
+        }
+        try {
+            if (commit) {
+                producer.commit();
+            } else {
+                producer.rollback();
+            }
+            return true;
+        } catch (Exception e) {
+            log.error(commit ? "An exception was thrown while committing" : "An exception was thrown while rolling back",
+                    e instanceof JMSRuntimeException ? e.getCause() : e);
+            reportFailed(state);
+            return false;
+        }
+    }
+
+    private void reportFailed(JMSTransactionState<T> state) {
+        if (state.getSentObjects().size() > 0) {
+            state.getSentObjects().forEach(object -> messageFailedCallback(state, object));
+        }
+    }
+
+    void messageFailedCallback(T failedMessage) {
+        messageFailedCallback(transactionState.get(), failedMessage);
+    }
+
+    private void messageFailedCallback(JMSTransactionState<T> state, T failedMessage) {
+        metrics.onFailed();
+        if (state.isTransacted()) {
+            state.getFailedObjects().add(failedMessage);
+        }
         try {
             sendMessageExceptionHandler.accept(failedMessage);
         } catch (Exception sendMessageExceptionHandlerException) {
@@ -212,6 +607,7 @@ public final class JMSProducerTransactionManager<T> {
     }
 
     private void messageAbortedCallback(T abortedMessage) {
+        metrics.onAborted();
         try {
             sendMessageAbortedHandler.accept(abortedMessage);
         } catch (Exception messageAbortedHandlerException) {
@@ -219,23 +615,18 @@ public final class JMSProducerTransactionManager<T> {
         }
     }
 
-    private boolean isTransactionOpen() {
-        return Optional.ofNullable(isTransacted.get()).orElse(false);
-    }
-
-    private boolean hasTransactionFailed() {
-        return Optional.ofNullable(transactionAlreadyFailed.get()).orElse(false);
-    }
-
-    private void clearThreadLocals() {
-        Optional.ofNullable(transactionProducer.get()).ifPresent(JMSProducer::close);
-        clearThreadLocalsNoClose();
+    /**
+     * Pools or closes the transaction's producer and clears the record for the thread's next transaction.
+     */
+    private void endTransaction(JMSTransactionState<T> state) {
+        JMSProducer<T> producer = state.getProducer();
+        if (Objects.nonNull(producer) && !releaseProducer(producer, state.isTransacted())) {
+            producer.close();
+        }
+        state.clear();
     }
 
-    private void clearThreadLocalsNoClose() {
-        transactionProducer.remove();
-        isTransacted.remove();
-        transactedMessages.remove();
-        transactionAlreadyFailed.remove();
+    private boolean releaseProducer(JMSProducer<T> producer, boolean transacted) {
+        return producer.isAlive() && (transacted ? idleTransactedProducers : idleProducers).offer(producer);
     }
 }
@@ -0,0 +1,161 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.enums.JMSCircuitState;
+import io.github.fishthefirst.jmscontextprovider.exceptions.ExceptionPointer;
+import io.github.fishthefirst.jmscontextprovider.exceptions.JMSCircuitOpenException;
+import io.github.fishthefirst.jmscontextprovider.utils.CustomizableThreadFactory;
+import io.github.fishthefirst.jmscontextprovider.utils.ExponentialBackoff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
+
+/**
+ * Circuit breaker and reconnect loop of a {@link JMSConnectionContextHolder}.
+ * <p>
+ * The first connection failure opens the circuit. While it is open, session requests fail fast and a single probe
+ * tries to reconnect with exponential backoff. Once the probe succeeds the circuit closes and recovery listeners
+ * (consumers waiting to restart) are notified.
+ */
+final class JMSReconnectEngine {
+    private static final Logger log = LoggerFactory.getLogger(JMSReconnectEngine.class);
+
+    // Constructor vars
+    private final Runnable probe;
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, CustomizableThreadFactory.getInstance(this));
+    private final Set<Runnable> recoveryListeners = ConcurrentHashMap.newKeySet();
+    private final ExceptionPointer exceptionPointer = new ExceptionPointer(60000);
+    private final LongAdder connectionFailures = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+
+    // Object vars
+    private volatile JMSCircuitState state = JMSCircuitState.CLOSED;
+    private int attempt;
+    private ScheduledFuture<?> probeFuture;
+
+    // User props
+    private volatile ExponentialBackoff backoff;
+
+    JMSReconnectEngine(Runnable probe, ExponentialBackoff backoff) {
+        this.probe = Objects.requireNonNull(probe, "Probe cannot be null");
+        this.backoff = Objects.requireNonNull(backoff, "Backoff cannot be null");
+        // The probe thread only lives while there is something to reconnect
+        scheduler.setKeepAliveTime(30, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    void setBackoff(ExponentialBackoff backoff) {
+        this.backoff = Objects.requireNonNull(backoff, "Backoff cannot be null");
+    }
+
+    ExponentialBackoff getBackoff() {
+        return backoff;
+    }
+
+    JMSCircuitState getState() {
+        return state;
+    }
+
+    long getConnectionFailures() {
+        return connectionFailures.sum();
+    }
+
+    long getReconnects() {
+        return reconnects.sum();
+    }
+
+    void checkAvailable() {
+        if (state != JMSCircuitState.CLOSED) {
+            throw new JMSCircuitOpenException("Connection is unavailable, waiting for the reconnect probe to succeed");
+        }
+    }
+
+    void addRecoveryListener(Runnable listener) {
+        recoveryListeners.add(Objects.requireNonNull(listener, "Recovery listener cannot be null"));
+    }
+
+    void removeRecoveryListener(Runnable listener) {
+        recoveryListeners.remove(listener);
+    }
+
+    void onConnectionFailure(Exception exception) {
+        long delay;
+        synchronized (this) {
+            if (state != JMSCircuitState.CLOSED) {
+                // A probe is already scheduled or running
+                return;
+            }
+            state = JMSCircuitState.OPEN;
+            attempt = 0;
+            delay = scheduleProbe();
+        }
+        connectionFailures.increment();
+        log.warn("Connection failed ({}), opening circuit and probing again in {} ms", exception.getMessage(), delay);
+    }
+
+    /**
+     * Closes the circuit without probing, e.g. when the holder itself is closed or recycled.
+     */
+    synchronized void reset() {
+        if (Objects.nonNull(probeFuture)) {
+            probeFuture.cancel(false);
+        }
+        probeFuture = null;
+        attempt = 0;
+        state = JMSCircuitState.CLOSED;
+    }
+
+    private long scheduleProbe() {
+        long delay = backoff.getDelayMillis(attempt);
+        probeFuture = scheduler.schedule(this::runProbe, delay, TimeUnit.MILLISECONDS);
+        return delay;
+    }
+
+    private void runProbe() {
+        synchronized (this) {
+            if (state != JMSCircuitState.OPEN) {
+                return;
+            }
+            state = JMSCircuitState.HALF_OPEN;
+        }
+        try {
+            probe.run();
+        } catch (Exception e) {
+            long delay = -1;
+            synchronized (this) {
+                if (state == JMSCircuitState.HALF_OPEN) {
+                    state = JMSCircuitState.OPEN;
+                    attempt++;
+                    delay = scheduleProbe();
+                }
+            }
+            if (delay >= 0 && exceptionPointer.shouldLog(e)) {
+                log.warn("Reconnect probe failed ({}), probing again in {} ms", e.getMessage(), delay);
+            }
+            return;
+        }
+        synchronized (this) {
+            if (state != JMSCircuitState.HALF_OPEN) {
+                return;
+            }
+            state = JMSCircuitState.CLOSED;
+            attempt = 0;
+            probeFuture = null;
+        }
+        reconnects.increment();
+        exceptionPointer.clear();
+        log.info("Connection restored, notifying {} waiting components", recoveryListeners.size());
+        for (Runnable recoveryListener : recoveryListeners) {
+            tryAndLogError(recoveryListener, "A recovery listener threw an exception");
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.exceptions.JMSReplyException;
+import io.github.fishthefirst.jmscontextprovider.serde.ObjectToStringMarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.StringToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.utils.CustomizableThreadFactory;
+import jakarta.jms.Destination;
+import jakarta.jms.IllegalStateRuntimeException;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.JMSRuntimeException;
+import jakarta.jms.Message;
+import jakarta.jms.Queue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
+
+/**
+ * Sends requests to a queue and completes their futures with the replies, so many requests can be outstanding at once.
+ * <p>
+ * Requests carry a JMSCorrelationID unique to the client and a JMSReplyTo naming the client's reply queue, which is
+ * a temporary queue unless a queue name is given. A fixed queue must be dedicated to the client, replies are
+ * consumed without a selector. One consumer reads every reply and looks its request up in a concurrent map,
+ * requests are sent round-robin over a few sessions, and timeouts run on a single scheduler.
+ * <p>
+ * A temporary queue is lost with its session, the requests still waiting for a reply on it then fail straight away.
+ * Futures are completed on the reply consumer's thread, long-running continuations should use the async variants.
+ */
+public final class JMSRequestReplyClient<Q, R> implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(JMSRequestReplyClient.class);
+
+    // Constructor vars
+    private final ObjectToStringMarshaller<Q> requestMarshaller;
+    private final StringToObjectUnmarshaller<R> replyUnmarshaller;
+    private final String requestDestinationName;
+    private final String replyQueueName;
+    private final JMSSessionContextSupplier replySession;
+    private final JMSSessionContextSupplier[] requestSessions;
+    private final ScheduledExecutorService timer;
+    private final boolean sharedTimer;
+    private final Runnable recoveryListener = this::onConnectionRecovered;
+
+    // Object vars
+    private final ConcurrentHashMap<String, JMSPendingReply<R>> pending = new ConcurrentHashMap<>();
+    private final String correlationPrefix = UUID.randomUUID() + "-";
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger nextSession = new AtomicInteger();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder unmatchedReplies = new LongAdder();
+    private volatile Destination replyDestination;
+    private volatile Queue requestDestination;
+    private volatile boolean closed;
+
+    // User props
+    private volatile Duration defaultTimeout = Duration.ofSeconds(30);
+
+    /**
+     * @param replyQueueName A queue dedicated to the client's replies, or null for a temporary queue
+     * @param sessionCount   The number of sessions requests are sent over
+     * @param timer          Runs the timeouts, shared by many clients to save a thread each. It is not shut down when
+     *                       the client is closed. When null the client uses a thread of its own
+     */
+    JMSRequestReplyClient(JMSConnectionContextHolder contextHolder,
+                          ObjectToStringMarshaller<Q> requestMarshaller,
+                          StringToObjectUnmarshaller<R> replyUnmarshaller,
+                          String requestDestinationName,
+                          String replyQueueName,
+                          int sessionCount,
+                          ScheduledExecutorService timer) {
+        Objects.requireNonNull(contextHolder, "Context holder cannot be null");
+        Objects.requireNonNull(requestMarshaller, "Request marshaller cannot be null");
+        Objects.requireNonNull(replyUnmarshaller, "Reply unmarshaller cannot be null");
+        Objects.requireNonNull(requestDestinationName, "Request destination name cannot be null");
+        if (sessionCount < 1) {
+            throw new IllegalArgumentException("Session count cannot be less than 1");
+        }
+        this.requestMarshaller = requestMarshaller;
+        this.replyUnmarshaller = replyUnmarshaller;
+        this.requestDestinationName = requestDestinationName;
+        this.replyQueueName = replyQueueName;
+        this.replySession = new JMSSessionContextSupplier(contextHolder, JMSContext.AUTO_ACKNOWLEDGE);
+        this.requestSessions = new JMSSessionContextSupplier[sessionCount];
+        for (int i = 0; i < sessionCount; i++) {
+            requestSessions[i] = new JMSSessionContextSupplier(contextHolder, JMSContext.AUTO_ACKNOWLEDGE);
+        }
+        this.sharedTimer = Objects.nonNull(timer);
+        this.timer = sharedTimer ? timer : createTimer();
+        contextHolder.addRecoveryListener(recoveryListener);
+    }
+
+    /**
+     * @param defaultTimeout The time to wait for a reply when none is given, defaults to 30 seconds
+     */
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        Objects.requireNonNull(defaultTimeout, "Default timeout cannot be null");
+        if (defaultTimeout.isNegative() || defaultTimeout.isZero()) {
+            throw new IllegalArgumentException("Default timeout must be positive");
+        }
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    /**
+     * @return the number of requests waiting for a reply
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return the number of replies that matched no waiting request, e.g. because it had timed out
+     */
+    public long getUnmatchedReplyCount() {
+        return unmatchedReplies.sum();
+    }
+
+    public CompletableFuture<R> request(Q request) {
+        return request(request, defaultTimeout);
+    }
+
+    /**
+     * @return completes with the reply, exceptionally with a {@link TimeoutException} if none arrived in time,
+     * or a {@link JMSReplyException} if the replying side failed to handle the request
+     */
+    public CompletableFuture<R> request(Q request, Duration timeout) {
+        Objects.requireNonNull(timeout, "Timeout cannot be null");
+        String correlationId = correlationPrefix + sequence.incrementAndGet();
+        JMSPendingReply<R> reply = new JMSPendingReply<>(correlationId);
+        Destination replyTo;
+        try {
+            replyTo = getReplyDestination();
+        } catch (RuntimeException e) {
+            reply.completeExceptionally(e);
+            return reply;
+        }
+        // Registered before sending, the reply may arrive before the send returns
+        pending.put(correlationId, reply);
+        reply.setTimeout(timer.schedule(() -> onTimeout(reply), timeout.toNanos(), TimeUnit.NANOSECONDS));
+        try {
+            send(request, correlationId, replyTo);
+        } catch (RuntimeException e) {
+            pending.remove(correlationId, reply);
+            reply.cancelTimeout();
+            reply.completeExceptionally(e);
+        }
+        return reply;
+    }
+
+    /**
+     * Closes the sessions and fails the requests still waiting for a reply.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        replySession.removeRecoveryListener(recoveryListener);
+        synchronized (this) {
+            replyDestination = null;
+            replySession.release();
+        }
+        for (JMSSessionContextSupplier session : requestSessions) {
+            synchronized (session) {
+                session.release();
+            }
+        }
+        failPending(new IllegalStateRuntimeException("Request-reply client closed"));
+        if (!sharedTimer) {
+            timer.shutdownNow();
+        }
+    }
+
+    private void send(Q request, String correlationId, Destination replyTo) {
+        JMSSessionContextSupplier session = requestSessions[Math.floorMod(nextSession.getAndIncrement(), requestSessions.length)];
+        String body = requestMarshaller.marshal(request);
+        synchronized (session) {
+            JMSContext context = session.createContext(null);
+            context.createProducer()
+                    .setJMSCorrelationID(correlationId)
+                    .setJMSReplyTo(replyTo)
+                    .send(getRequestDestination(context), body);
+            session.markActive();
+        }
+    }
+
+    private Queue getRequestDestination(JMSContext context) {
+        Queue current = requestDestination;
+        if (Objects.isNull(current)) {
+            current = context.createQueue(requestDestinationName);
+            requestDestination = current;
+        }
+        return current;
+    }
+
+    private Destination getReplyDestination() {
+        Destination current = replyDestination;
+        return Objects.nonNull(current) ? current : createReplyConsumer();
+    }
+
+    private synchronized Destination createReplyConsumer() {
+        if (closed) {
+            throw new IllegalStateRuntimeException("Request-reply client closed");
+        }
+        if (Objects.isNull(replyDestination)) {
+            JMSContext context = replySession.createContext(this::onReplySessionException);
+            Destination destination = Objects.isNull(replyQueueName) ? context.createTemporaryQueue() : context.createQueue(replyQueueName);
+            context.createConsumer(destination).setMessageListener(this::onReply);
+            replyDestination = destination;
+            log.info("Reply consumer started on {}", destination);
+        }
+        return replyDestination;
+    }
+
+    private void onReply(Message message) {
+        String correlationId;
+        try {
+            correlationId = message.getJMSCorrelationID();
+        } catch (JMSException e) {
+            log.warn("Could not read the correlation ID of a reply", e);
+            return;
+        }
+        JMSPendingReply<R> reply = Objects.isNull(correlationId) ? null : pending.remove(correlationId);
+        if (Objects.isNull(reply)) {
+            unmatchedReplies.increment();
+            log.debug("Reply {} matched no waiting request", correlationId);
+            return;
+        }
+        reply.cancelTimeout();
+        try {
+            String error = message.getStringProperty(JMSRequestReplyServer.ERROR_PROPERTY);
+            if (Objects.nonNull(error)) {
+                reply.completeExceptionally(new JMSReplyException(error, correlationId));
+            } else {
+                reply.complete(replyUnmarshaller.unmarshal(message.getBody(String.class)));
+            }
+        } catch (Exception e) {
+            reply.completeExceptionally(e);
+        }
+    }
+
+    private void onTimeout(JMSPendingReply<R> reply) {
+        if (pending.remove(reply.getCorrelationId(), reply)) {
+            timeouts.increment();
+            reply.completeExceptionally(new TimeoutException("No reply to request " + reply.getCorrelationId()));
+        }
+    }
+
+    private void onReplySessionException(JMSException exception) {
+        // Not synchronized, it only touches volatile and concurrent state
+        replyDestination = null;
+        if (Objects.isNull(replyQueueName)) {
+            // Replies to a temporary queue are gone with it
+            failPending(new JMSRuntimeException("Reply session lost: " + exception.getMessage()));
+        }
+    }
+
+    /**
+     * Replies to a fixed queue wait on the broker, they are read as soon as the connection is back.
+     */
+    private void onConnectionRecovered() {
+        if (!closed && Objects.nonNull(replyQueueName) && !pending.isEmpty()) {
+            tryAndLogError(this::getReplyDestination, "An exception was thrown while restarting the reply consumer");
+        }
+    }
+
+    private void failPending(RuntimeException cause) {
+        for (JMSPendingReply<R> reply : pending.values()) {
+            if (pending.remove(reply.getCorrelationId(), reply)) {
+                reply.cancelTimeout();
+                reply.completeExceptionally(cause);
+            }
+        }
+    }
+
+    private ScheduledExecutorService createTimer() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, CustomizableThreadFactory.getInstance(this));
+        // Most timeouts are cancelled by their reply, they should not linger in the queue
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
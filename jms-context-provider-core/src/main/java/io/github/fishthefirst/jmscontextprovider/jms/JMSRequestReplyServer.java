@@ -0,0 +1,229 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.handlers.RequestHandler;
+import io.github.fishthefirst.jmscontextprovider.serde.ObjectToStringMarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.StringToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.utils.CustomizableThreadFactory;
+import jakarta.jms.Destination;
+import jakarta.jms.InvalidDestinationRuntimeException;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.TextMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
+
+/**
+ * Consumes requests from a queue and answers them to their JMSReplyTo, in the same transaction as the consume.
+ * <p>
+ * A request is only removed from its queue once its reply has been sent, if either fails both are rolled back and
+ * the request is redelivered. A handler exception is answered with an error reply, carried by the
+ * {@link #ERROR_PROPERTY} property, and is not retried. Replies take the request's JMSCorrelationID, or its
+ * JMSMessageID when it has none. Requests without a JMSReplyTo, or whose requester is gone, are consumed unanswered.
+ */
+public final class JMSRequestReplyServer<Q, R> implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(JMSRequestReplyServer.class);
+
+    /**
+     * The String property holding the error message of a failed request on its reply.
+     */
+    public static final String ERROR_PROPERTY = "replyError";
+
+    // Constructor vars
+    private final JMSSessionContextSupplier contextProvider;
+    private final RequestHandler<Q, R> requestHandler;
+    private final StringToObjectUnmarshaller<Q> requestUnmarshaller;
+    private final ObjectToStringMarshaller<R> replyMarshaller;
+    private final String destinationName;
+    private final ScheduledExecutorService clientCreator;
+    private final boolean sharedClientCreator;
+    private final Runnable recoveryListener = this::onConnectionRecovered;
+
+    // Object vars
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder replied = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rolledBack = new LongAdder();
+
+    // JMS
+    private JMSContext context;
+    private jakarta.jms.JMSConsumer consumer;
+    private int restartAttempt;
+
+    // User props
+    private volatile int restartDelay = 1000;
+
+    /**
+     * @param scheduler Schedules (re)starts, shared by many components to save a thread each.
+     *                  It is not shut down when the server is closed. When null the server uses a thread of its own
+     */
+    JMSRequestReplyServer(JMSSessionContextSupplier contextProvider,
+                          RequestHandler<Q, R> requestHandler,
+                          StringToObjectUnmarshaller<Q> requestUnmarshaller,
+                          ObjectToStringMarshaller<R> replyMarshaller,
+                          String destinationName,
+                          ScheduledExecutorService scheduler) {
+        Objects.requireNonNull(contextProvider, "Context provider cannot be null");
+        Objects.requireNonNull(requestHandler, "Request handler cannot be null");
+        Objects.requireNonNull(requestUnmarshaller, "Request unmarshaller cannot be null");
+        Objects.requireNonNull(replyMarshaller, "Reply marshaller cannot be null");
+        Objects.requireNonNull(destinationName, "Destination name cannot be null");
+        this.contextProvider = contextProvider;
+        this.requestHandler = requestHandler;
+        this.requestUnmarshaller = requestUnmarshaller;
+        this.replyMarshaller = replyMarshaller;
+        this.destinationName = destinationName;
+        this.sharedClientCreator = Objects.nonNull(scheduler);
+        this.clientCreator = sharedClientCreator ? scheduler : Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.getInstance(this));
+    }
+
+    /**
+     * The minimum amount of time to wait before recreating the consumer after a failure, in milliseconds.
+     *
+     * @param restartDelay
+     */
+    public void setRestartDelay(int restartDelay) {
+        if (restartDelay < 0) {
+            throw new IllegalArgumentException("Restart delay cannot be negative");
+        }
+        this.restartDelay = restartDelay;
+    }
+
+    public long getRepliedCount() {
+        return replied.sum();
+    }
+
+    /**
+     * @return the number of requests answered with an error reply
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getRolledBackCount() {
+        return rolledBack.sum();
+    }
+
+    public String getDestinationName() {
+        return destinationName;
+    }
+
+    public synchronized void start() {
+        if (running.compareAndSet(false, true)) {
+            contextProvider.addRecoveryListener(recoveryListener);
+            clientCreator.execute(this::tryCreateConsumer);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running.set(false);
+        contextProvider.removeRecoveryListener(recoveryListener);
+        if (!sharedClientCreator) {
+            clientCreator.shutdownNow();
+        }
+        doClose();
+        log.info("JMSRequestReplyServer on {} shut down", destinationName);
+    }
+
+    private synchronized void doClose() {
+        if (Objects.nonNull(consumer)) {
+            tryAndLogError(consumer::close, "An exception was thrown while closing request consumer");
+        }
+        consumer = null;
+        // Whatever was not committed yet is redelivered
+        contextProvider.release();
+        context = null;
+    }
+
+    private synchronized void tryCreateConsumer() {
+        if (!running.get() || Objects.nonNull(consumer)) {
+            return;
+        }
+        tryAndLogError(() -> {
+            context = Objects.requireNonNull(contextProvider.createContext(this::onException), "Context provider returned null");
+            consumer = context.createConsumer(context.createQueue(destinationName));
+            consumer.setMessageListener(this::handleRequest);
+            restartAttempt = 0;
+            log.info("JMSRequestReplyServer started on destination: {}", destinationName);
+        }, "Exception thrown when creating request consumer", () -> {
+            doClose();
+            scheduleRestart();
+        });
+    }
+
+    private synchronized void scheduleRestart() {
+        if (!running.get() || !contextProvider.isConnectionAvailable()) {
+            // The connection holder probes the connection and calls onConnectionRecovered once it is back
+            return;
+        }
+        long delay = Math.max(restartDelay, contextProvider.getReconnectBackoff().getDelayMillis(restartAttempt++));
+        clientCreator.schedule(this::tryCreateConsumer, delay, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void onException(JMSException exception) {
+        doClose();
+        scheduleRestart();
+    }
+
+    private synchronized void onConnectionRecovered() {
+        if (running.get() && Objects.isNull(consumer)) {
+            restartAttempt = 0;
+            clientCreator.schedule(this::tryCreateConsumer, contextProvider.getReconnectBackoff().getDelayMillis(0), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void handleRequest(Message request) {
+        if (Objects.isNull(context)) {
+            return;
+        }
+        try {
+            Destination replyTo = request.getJMSReplyTo();
+            TextMessage reply = answer(request);
+            if (Objects.nonNull(replyTo)) {
+                sendReply(request, replyTo, reply);
+            }
+            context.commit();
+            contextProvider.markActive();
+        } catch (Exception e) {
+            log.error("Exception thrown while answering request on {}, rolling back", destinationName, e);
+            rolledBack.increment();
+            tryAndLogError(context::rollback, "An exception was thrown while rolling back request");
+        }
+    }
+
+    private TextMessage answer(Message request) throws JMSException {
+        try {
+            Q unmarshalled = requestUnmarshaller.unmarshal(request.getBody(String.class));
+            TextMessage reply = context.createTextMessage(replyMarshaller.marshal(requestHandler.apply(unmarshalled)));
+            replied.increment();
+            return reply;
+        } catch (RuntimeException e) {
+            log.warn("Request {} on {} failed, answering with an error", request.getJMSMessageID(), destinationName, e);
+            failed.increment();
+            TextMessage reply = context.createTextMessage();
+            reply.setStringProperty(ERROR_PROPERTY, String.valueOf(e.getMessage()));
+            return reply;
+        }
+    }
+
+    private void sendReply(Message request, Destination replyTo, TextMessage reply) throws JMSException {
+        String correlationId = request.getJMSCorrelationID();
+        reply.setJMSCorrelationID(Objects.nonNull(correlationId) ? correlationId : request.getJMSMessageID());
+        try {
+            context.createProducer().send(replyTo, reply);
+        } catch (InvalidDestinationRuntimeException e) {
+            // The requester's temporary queue is gone, redelivering the request would not bring it back
+            log.warn("Reply destination {} of request {} no longer exists", replyTo, request.getJMSMessageID());
+        }
+    }
+}
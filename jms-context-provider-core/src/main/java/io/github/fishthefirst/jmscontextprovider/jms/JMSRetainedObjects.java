@@ -0,0 +1,23 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.util.function.Consumer;
+
+/**
+ * The objects sent in a transaction, kept until it ends so they can be handed to the failure or abort handler.
+ * A buffer belongs to one transaction at a time and is cleared, then reused, once the transaction ends.
+ */
+public interface JMSRetainedObjects<T> {
+    void add(T object);
+
+    int size();
+
+    /**
+     * Hands the objects over in the order they were sent, rebuilt from whatever the buffer kept of them.
+     */
+    void forEach(Consumer<? super T> action);
+
+    /**
+     * Releases what the buffer holds, e.g. its spill file.
+     */
+    void clear();
+}
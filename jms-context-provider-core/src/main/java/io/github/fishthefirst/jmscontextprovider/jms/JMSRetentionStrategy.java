@@ -0,0 +1,61 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.serde.BytesToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.ObjectToBytesMarshaller;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * How {@link JMSProducerTransactionManager} keeps the objects of a transaction until it is committed or rolled back.
+ * <p>
+ * Keeping the objects themselves is the default. Large transactions can instead keep them marshalled to compact
+ * bytes, spill those bytes to a temporary memory-mapped file past a threshold, or keep only a key per object.
+ */
+@FunctionalInterface
+public interface JMSRetentionStrategy<T> {
+
+    /**
+     * @return an empty buffer, reused by one thread for its successive transactions
+     */
+    JMSRetainedObjects<T> newBuffer();
+
+    static <T> JMSRetentionStrategy<T> objects() {
+        return JMSObjectRetention::new;
+    }
+
+    /**
+     * Keeps each object as the bytes of the given marshaller, unmarshalled again only if it has to be reported.
+     * Spills to disk only past what one array can hold.
+     */
+    static <T> JMSRetentionStrategy<T> marshalled(ObjectToBytesMarshaller<T> marshaller, BytesToObjectUnmarshaller<T> unmarshaller) {
+        return spilling(marshaller, unmarshaller, JMSMarshalledRetention.MAX_ARRAY_BYTES);
+    }
+
+    /**
+     * Keeps marshalled objects in memory up to the threshold, and appends the rest to a temporary file deleted when the
+     * transaction ends.
+     *
+     * @param spillThresholdBytes The bytes kept in memory per transaction
+     */
+    static <T> JMSRetentionStrategy<T> spilling(ObjectToBytesMarshaller<T> marshaller,
+                                                BytesToObjectUnmarshaller<T> unmarshaller,
+                                                long spillThresholdBytes) {
+        Objects.requireNonNull(marshaller, "Object to Bytes Marshaller cannot be null");
+        Objects.requireNonNull(unmarshaller, "Bytes to Object Unmarshaller cannot be null");
+        if (spillThresholdBytes < 1) {
+            throw new IllegalArgumentException("Spill threshold must be positive");
+        }
+        return () -> new JMSMarshalledRetention<>(marshaller, unmarshaller, spillThresholdBytes);
+    }
+
+    /**
+     * Keeps only a key per object. Handlers receive the object the resolver returns for the key, e.g. one loaded back
+     * from the application's store, or a placeholder carrying the key.
+     */
+    static <T, K> JMSRetentionStrategy<T> keys(Function<? super T, ? extends K> keyExtractor, Function<? super K, ? extends T> resolver) {
+        Objects.requireNonNull(keyExtractor, "Key extractor cannot be null");
+        Objects.requireNonNull(resolver, "Resolver cannot be null");
+        return () -> new JMSKeyRetention<T, K>(keyExtractor, resolver);
+    }
+}
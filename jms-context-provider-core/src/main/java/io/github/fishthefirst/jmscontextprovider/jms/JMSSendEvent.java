@@ -0,0 +1,26 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Creating, processing and sending one message.
+ */
+@Name("io.github.fishthefirst.jmscontextprovider.Send")
+@Label("JMS Send")
+@Category("JMS Context Provider")
+@Description("Creating, processing and sending one message.")
+@StackTrace(false)
+final class JMSSendEvent extends jdk.jfr.Event {
+    @Label("Destination")
+    String destination;
+
+    @Label("Producer")
+    String producer;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -1,6 +1,7 @@
 package io.github.fishthefirst.jmscontextprovider.jms;
 
 import io.github.fishthefirst.jmscontextprovider.exceptions.ExceptionPointer;
+import io.github.fishthefirst.jmscontextprovider.utils.ExponentialBackoff;
 import jakarta.jms.ExceptionListener;
 import jakarta.jms.JMSContext;
 import jakarta.jms.JMSException;
@@ -10,6 +11,8 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ConcurrentModificationException;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
@@ -22,9 +25,18 @@ public final class JMSSessionContextSupplier {
     private final int sessionMode;
     private final ExceptionPointer exceptionPointer = new ExceptionPointer(60000);
     private final ReentrantLock sessionBusy = new ReentrantLock();
+    private final AtomicLong probeCount = new AtomicLong();
 
     // JMS
-    private JMSContextWrapper context;
+    private volatile JMSContextWrapper context;
+    private ExceptionListener exceptionListener;
+    private int connectionIndex = -1;
+    private boolean built;
+
+    // User props
+    private boolean stickyConnection;
+    private volatile long idleProbeThresholdNanos = TimeUnit.SECONDS.toNanos(30);
+    private volatile long busyTimeoutMillis = 1000;
 
     JMSSessionContextSupplier(JMSConnectionContextHolder contextProvider, int sessionMode) {
         Objects.requireNonNull(contextProvider, "Context provider cannot be null");
@@ -32,23 +44,96 @@ public final class JMSSessionContextSupplier {
         this.sessionMode = sessionMode;
     }
 
+    /**
+     * When set, sessions are always rebuilt on the connection the first session was created on.
+     * Durable subscriptions need this, as they are bound to the connection's client ID.
+     *
+     * @param stickyConnection
+     */
+    void setStickyConnection(boolean stickyConnection) {
+        this.stickyConnection = stickyConnection;
+    }
+
+    /**
+     * A reused session is only probed with a broker round trip once it has been idle for longer than this threshold,
+     * in milliseconds. Until then its health is taken from its exception listener and recent successful operations.
+     *
+     * @param idleProbeThresholdMillis
+     */
+    public void setIdleProbeThreshold(long idleProbeThresholdMillis) {
+        if (idleProbeThresholdMillis < 0) {
+            throw new IllegalArgumentException("Idle probe threshold cannot be negative");
+        }
+        this.idleProbeThresholdNanos = TimeUnit.MILLISECONDS.toNanos(idleProbeThresholdMillis);
+    }
+
+    /**
+     * The amount of time to wait for a busy session before giving up, in milliseconds.
+     *
+     * @param busyTimeoutMillis
+     */
+    public void setBusyTimeout(long busyTimeoutMillis) {
+        if (busyTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Busy timeout cannot be negative");
+        }
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    /**
+     * @return the number of liveness probes run on reused sessions
+     */
+    public long getProbeCount() {
+        return probeCount.get();
+    }
+
+    /**
+     * @return true if a session is open and its connection has not reported an exception
+     */
+    boolean isSessionHealthy() {
+        JMSContextWrapper current = context;
+        return Objects.nonNull(current) && current.isHealthy();
+    }
+
+    /**
+     * Records a successful operation on the current session.
+     */
+    void markActive() {
+        JMSContextWrapper current = context;
+        if (Objects.nonNull(current)) {
+            current.markActive();
+        }
+    }
+
+    boolean isConnectionAvailable() {
+        return contextProvider.isConnectionAvailable();
+    }
+
+    ExponentialBackoff getReconnectBackoff() {
+        return contextProvider.getReconnectBackoff();
+    }
+
+    void addRecoveryListener(Runnable listener) {
+        contextProvider.addRecoveryListener(listener);
+    }
+
+    void removeRecoveryListener(Runnable listener) {
+        contextProvider.removeRecoveryListener(listener);
+    }
+
     JMSContext createContext(ExceptionListener exceptionListener) {
-        if(!sessionBusy.tryLock()) throw new ConcurrentModificationException("Session is busy");
+        acquire();
         try {
+            if (Objects.nonNull(context) && !context.isHealthy()) {
+                context.close();
+                context = null;
+            }
             if (Objects.isNull(context)) {
                 buildAndAssignContext(exceptionListener);
-            }
-            else {
-                JMSContext realContext = context.getContext();
-                try {
-                    realContext.recover();
-                } catch (JMSRuntimeException e) {
-                    realContext.close();
-                    throw e;
-                }
+            } else if (context.getIdleNanos() > idleProbeThresholdNanos) {
+                probe();
             }
             return context.getContext();
-        }  finally {
+        } finally {
             sessionBusy.unlock();
         }
     }
@@ -57,7 +142,7 @@ public final class JMSSessionContextSupplier {
         try {
             sessionBusy.lock();
             if (Objects.nonNull(context)) {
-                tryAndLogError(context.getContext()::close);
+                context.close();
             }
             context = null;
         } finally {
@@ -65,37 +150,89 @@ public final class JMSSessionContextSupplier {
         }
     }
 
+    private void acquire() {
+        try {
+            if (!sessionBusy.tryLock(busyTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ConcurrentModificationException("Session is busy");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentModificationException("Interrupted while waiting for busy session");
+        }
+    }
+
+    private void probe() {
+        JMSContext realContext = context.getContext();
+        probeCount.incrementAndGet();
+        try {
+            // Transacted sessions cannot be recovered, their connection's exception listener is relied upon instead
+            if (!realContext.getTransacted()) {
+                realContext.recover();
+            }
+            context.markActive();
+        } catch (JMSRuntimeException e) {
+            context.close();
+            context = null;
+            throw e;
+        }
+    }
+
     private void buildAndAssignContext(ExceptionListener exceptionListener) {
+        JMSSessionEvent event = new JMSSessionEvent();
+        event.begin();
         try {
-            // Create a session context from the connection context
-            JMSContextWrapper contextWrapper = contextProvider.createContext(sessionMode, this::onException);
-            // Wrap the session context with the caller's exception handler,
-            // so we know where to propagate connection exceptions to
-            context = new JMSContextWrapper(contextWrapper.getContext(), exceptionListener);
+            // Create a session context from the connection context. The connection
+            // reports its exceptions to us, we propagate them to the caller's exception handler
+            context = stickyConnection && connectionIndex >= 0 ?
+                    contextProvider.createContext(sessionMode, this::onException, connectionIndex) :
+                    contextProvider.createContext(sessionMode, this::onException);
+            connectionIndex = context.getConnectionIndex();
+            this.exceptionListener = exceptionListener;
             log.info("Session Context built");
             exceptionPointer.clear();
+            commitSessionEvent(event, true);
         } catch (Exception e) {
             if(exceptionPointer.shouldLog(e)) {
                 log.error("Failed to build Session Context");
             }
             context = null;
+            commitSessionEvent(event, false);
             throw e;
         }
     }
 
+    private void commitSessionEvent(JMSSessionEvent event, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.sessionMode = sessionMode;
+            event.connectionIndex = connectionIndex;
+            event.rebuild = built;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+        built |= succeeded;
+    }
+
+    /**
+     * Closes the session, then tells its owner. The owner is called without holding the session, so it may take
+     * its own monitor even while another of its threads waits for the session under that monitor.
+     */
     void onException(JMSException exception) {
+        ExceptionListener listener = null;
         try {
             sessionBusy.lock();
             if (Objects.nonNull(context)) {
                 log.error("Session Context expired: {}", exception.getMessage());
-                context.onException(exception);
-                if (Objects.nonNull(context)) {
-                    tryAndLogError(context.getContext()::close);
-                }
+                listener = exceptionListener;
+                context.close();
             }
             context = null;
         } finally {
             sessionBusy.unlock();
         }
+        if (Objects.nonNull(listener)) {
+            ExceptionListener owner = listener;
+            tryAndLogError(() -> owner.onException(exception));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live and peak session counts across all connections of a {@link JMSConnectionContextHolder}.
+ */
+final class JMSSessionCounter {
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    void increment() {
+        int current = live.incrementAndGet();
+        peak.accumulateAndGet(current, Math::max);
+    }
+
+    void decrement() {
+        live.decrementAndGet();
+    }
+
+    int getLive() {
+        return live.get();
+    }
+
+    int getPeak() {
+        return peak.get();
+    }
+}
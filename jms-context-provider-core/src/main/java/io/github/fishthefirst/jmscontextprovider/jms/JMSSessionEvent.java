@@ -0,0 +1,30 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Building a session, either for the first time or to replace a failed one.
+ */
+@Name("io.github.fishthefirst.jmscontextprovider.Session")
+@Label("JMS Session")
+@Category("JMS Context Provider")
+@Description("Building a session, either for the first time or to replace a failed one.")
+@StackTrace(false)
+final class JMSSessionEvent extends jdk.jfr.Event {
+    @Label("Session Mode")
+    int sessionMode;
+
+    @Label("Connection Index")
+    int connectionIndex;
+
+    @Label("Rebuild")
+    @Description("A session was built before and had failed or been closed")
+    boolean rebuild;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
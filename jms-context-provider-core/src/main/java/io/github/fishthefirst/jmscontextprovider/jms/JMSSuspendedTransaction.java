@@ -0,0 +1,17 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+/**
+ * A transaction taken off its thread by {@link JMSProducerTransactionManager#suspend()}, to be resumed once the
+ * transaction that replaced it has ended.
+ */
+public final class JMSSuspendedTransaction<T> {
+    private final JMSTransactionState<T> state;
+
+    JMSSuspendedTransaction(JMSTransactionState<T> state) {
+        this.state = state;
+    }
+
+    JMSTransactionState<T> getState() {
+        return state;
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+/**
+ * A thread's transaction on a {@link JMSProducerTransactionManager}. Cleared and reused once the transaction ends,
+ * so sending does not allocate any state of its own.
+ */
+final class JMSTransactionState<T> {
+    // Object vars
+    private JMSRetentionStrategy<T> retentionStrategy;
+    private JMSRetainedObjects<T> sentObjects = new JMSObjectRetention<>();
+    private JMSRetainedObjects<T> failedObjects = new JMSObjectRetention<>();
+    private JMSProducer<T> producer;
+    private boolean transacted;
+    private boolean failed;
+    private boolean rollbackOnly;
+    private int depth;
+
+    JMSProducer<T> getProducer() {
+        return producer;
+    }
+
+    void setProducer(JMSProducer<T> producer) {
+        this.producer = producer;
+    }
+
+    boolean isTransacted() {
+        return transacted;
+    }
+
+    void setTransacted(boolean transacted) {
+        this.transacted = transacted;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    void setFailed(boolean failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * Set when a joined call failed, as opposed to a send failing
+     */
+    boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    void setRollbackOnly(boolean rollbackOnly) {
+        this.rollbackOnly = rollbackOnly;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Objects sent in the transaction and not yet reported as failed
+     */
+    JMSRetainedObjects<T> getSentObjects() {
+        return sentObjects;
+    }
+
+    /**
+     * Swaps the buffers of sent and failed objects when the strategy changed since the thread's last transaction.
+     */
+    void retainWith(JMSRetentionStrategy<T> retentionStrategy) {
+        if (this.retentionStrategy != retentionStrategy) {
+            sentObjects.clear();
+            failedObjects.clear();
+            sentObjects = retentionStrategy.newBuffer();
+            failedObjects = retentionStrategy.newBuffer();
+            this.retentionStrategy = retentionStrategy;
+        }
+    }
+
+    /**
+     * Objects handed to the send message exception handler during the transaction, kept like the sent objects
+     * so a rolled back transaction is no larger on the heap than the strategy allows
+     */
+    JMSRetainedObjects<T> getFailedObjects() {
+        return failedObjects;
+    }
+
+    void clear() {
+        producer = null;
+        transacted = false;
+        failed = false;
+        rollbackOnly = false;
+        depth = 0;
+        sentObjects.clear();
+        failedObjects.clear();
+    }
+}
@@ -0,0 +1,206 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.utils.CustomizableThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.fishthefirst.jmscontextprovider.utils.JMSRuntimeExceptionUtils.tryAndLogError;
+
+/**
+ * Publishes a {@link Flow.Publisher} stream through a {@link JMSProducerTransactionManager}.
+ * <p>
+ * Elements are grouped into transactions of at most {@code batchSize} elements, or whatever arrived within
+ * {@code maxBatchDelay} of the first element of the batch. Upstream demand is only replenished once the batch's
+ * commit has completed, so at most {@code batchSize} elements are held in memory at any time.
+ * <p>
+ * All sends and commits run on a single worker thread, as the transaction manager keeps its transaction state
+ * per thread. Elements that fail to be sent, as well as elements that arrive after the subscriber was closed,
+ * are routed to the transaction manager's {@link io.github.fishthefirst.jmscontextprovider.handlers.SendMessageExceptionHandler}.
+ */
+public final class JMSTransactionalSubscriber<T> implements Flow.Subscriber<T>, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(JMSTransactionalSubscriber.class);
+
+    // Constructor vars
+    private final JMSProducerTransactionManager<T> transactionManager;
+    private final int batchSize;
+    private final long maxBatchDelayMillis;
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.getInstance(this));
+
+    // Worker thread state
+    private Flow.Subscription subscription;
+    private ScheduledFuture<?> batchTimer;
+    private int pending;
+    private boolean terminated;
+
+    // User props
+    private volatile long failureBackoffMillis = 1000;
+
+    JMSTransactionalSubscriber(JMSProducerTransactionManager<T> transactionManager, int batchSize, Duration maxBatchDelay) {
+        Objects.requireNonNull(transactionManager, "Transaction manager cannot be null");
+        Objects.requireNonNull(maxBatchDelay, "Max batch delay cannot be null");
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size cannot be less than 1");
+        }
+        if (maxBatchDelay.isNegative() || maxBatchDelay.isZero()) {
+            throw new IllegalArgumentException("Max batch delay must be positive");
+        }
+        this.transactionManager = transactionManager;
+        this.batchSize = batchSize;
+        this.maxBatchDelayMillis = maxBatchDelay.toMillis();
+    }
+
+    /**
+     * The amount of time to wait before requesting more elements after a failed commit, in milliseconds.
+     * The failed elements will already have been routed to the failure handler.
+     *
+     * @param failureBackoffMillis The delay before the next request, 0 requests again straight away
+     */
+    public void setFailureBackoff(long failureBackoffMillis) {
+        if (failureBackoffMillis < 0) {
+            throw new IllegalArgumentException("Failure backoff cannot be negative");
+        }
+        this.failureBackoffMillis = failureBackoffMillis;
+    }
+
+    // Flow.Subscriber
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "Subscription cannot be null");
+        if (!execute(() -> {
+            if (Objects.nonNull(this.subscription) || terminated) {
+                log.warn("Subscriber is already subscribed or terminated. Cancelling new subscription.");
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            subscription.request(batchSize);
+        })) {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        Objects.requireNonNull(item, "Item cannot be null");
+        if (!execute(() -> handleItem(item))) {
+            transactionManager.messageFailedCallback(item);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.error("Upstream publisher failed, committing pending elements and terminating", throwable);
+        terminate();
+    }
+
+    @Override
+    public void onComplete() {
+        log.info("Upstream publisher completed, committing pending elements and terminating");
+        terminate();
+    }
+
+    /**
+     * Cancels the subscription, aborting the pending transaction.
+     */
+    @Override
+    public void close() {
+        execute(() -> {
+            if (!terminated) {
+                terminated = true;
+                cancelBatchTimer();
+                if (pending > 0) {
+                    transactionManager.abort();
+                    pending = 0;
+                }
+                if (Objects.nonNull(subscription)) {
+                    tryAndLogError(subscription::cancel, "An exception was thrown while cancelling the subscription");
+                }
+            }
+            worker.shutdown();
+        });
+    }
+
+    /**
+     * Blocks until all accepted elements have been committed and the worker has shut down.
+     *
+     * @return true if the subscriber terminated, false if the timeout elapsed
+     */
+    public boolean awaitTermination(Duration timeout) throws InterruptedException {
+        return worker.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Worker thread
+    private void handleItem(T item) {
+        if (terminated) {
+            transactionManager.messageFailedCallback(item);
+            return;
+        }
+        if (pending == 0) {
+            transactionManager.startTransaction();
+            batchTimer = worker.schedule(this::commitBatch, maxBatchDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        pending++;
+        transactionManager.sendObject(item);
+        if (pending >= batchSize) {
+            commitBatch();
+        }
+    }
+
+    private void commitBatch() {
+        cancelBatchTimer();
+        if (pending == 0) {
+            return;
+        }
+        int committed = pending;
+        pending = 0;
+        if (transactionManager.commit()) {
+            requestMore(committed);
+        } else if (!terminated) {
+            log.warn("Batch of {} elements failed to commit, requesting more in {} ms", committed, failureBackoffMillis);
+            worker.schedule(() -> requestMore(committed), failureBackoffMillis, TimeUnit.MILLISECONDS);
+        } else {
+            log.warn("Final batch of {} elements failed to commit", committed);
+        }
+    }
+
+    private void requestMore(int n) {
+        if (!terminated && Objects.nonNull(subscription)) {
+            subscription.request(n);
+        }
+    }
+
+    private void cancelBatchTimer() {
+        if (Objects.nonNull(batchTimer)) {
+            batchTimer.cancel(false);
+        }
+        batchTimer = null;
+    }
+
+    private void terminate() {
+        execute(() -> {
+            if (!terminated) {
+                terminated = true;
+                commitBatch();
+            }
+            worker.shutdown();
+        });
+    }
+
+    private boolean execute(Runnable runnable) {
+        try {
+            worker.execute(runnable);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Builds connections, sessions, producers and destinations ahead of the first send,
+ * so the first messages after startup do not pay for the setup.
+ */
+public final class JMSWarmUp {
+    private static final Logger log = LoggerFactory.getLogger(JMSWarmUp.class);
+
+    private JMSWarmUp() {
+    }
+
+    /**
+     * @param connectionContextHolder The holder whose connections are built
+     * @param transactionManagers     The transaction managers to pool producers for
+     * @param producersPerManager     The number of transacted producers to pool per transaction manager
+     */
+    public static JMSWarmUpReport warmUp(JMSConnectionContextHolder connectionContextHolder,
+                                         Collection<? extends JMSProducerTransactionManager<?>> transactionManagers,
+                                         int producersPerManager) {
+        Objects.requireNonNull(connectionContextHolder, "Connection context holder cannot be null");
+        Objects.requireNonNull(transactionManagers, "Transaction managers cannot be null");
+        if (producersPerManager < 0) {
+            throw new IllegalArgumentException("Producers per manager cannot be negative");
+        }
+
+        long start = System.nanoTime();
+        int connections = connectionContextHolder.warmUp();
+        long connected = System.nanoTime();
+
+        int producers = 0;
+        if (producersPerManager > 0) {
+            for (JMSProducerTransactionManager<?> transactionManager : transactionManagers) {
+                producers += transactionManager.warmUp(producersPerManager);
+            }
+        }
+        long end = System.nanoTime();
+
+        JMSWarmUpReport report = new JMSWarmUpReport(connections,
+                producers,
+                Duration.ofNanos(connected - start),
+                Duration.ofNanos(end - connected));
+        log.info("Warm-up completed in {} ms: {}", report.getTotalDuration().toMillis(), report);
+        return report;
+    }
+}
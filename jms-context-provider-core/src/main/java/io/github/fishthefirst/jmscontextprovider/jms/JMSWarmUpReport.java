@@ -0,0 +1,56 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import java.time.Duration;
+
+/**
+ * The outcome of {@link JMSWarmUp#warmUp}.
+ */
+public final class JMSWarmUpReport {
+    private final int connectionCount;
+    private final int producerCount;
+    private final Duration connectionsDuration;
+    private final Duration producersDuration;
+
+    JMSWarmUpReport(int connectionCount, int producerCount, Duration connectionsDuration, Duration producersDuration) {
+        this.connectionCount = connectionCount;
+        this.producerCount = producerCount;
+        this.connectionsDuration = connectionsDuration;
+        this.producersDuration = producersDuration;
+    }
+
+    /**
+     * @return the number of connections that were connected
+     */
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /**
+     * @return the number of idle producers, with their sessions and destinations, ready across all transaction managers
+     */
+    public int getProducerCount() {
+        return producerCount;
+    }
+
+    public Duration getConnectionsDuration() {
+        return connectionsDuration;
+    }
+
+    public Duration getProducersDuration() {
+        return producersDuration;
+    }
+
+    public Duration getTotalDuration() {
+        return connectionsDuration.plus(producersDuration);
+    }
+
+    @Override
+    public String toString() {
+        return "JMSWarmUpReport{" +
+                "connectionCount=" + connectionCount +
+                ", producerCount=" + producerCount +
+                ", connectionsDuration=" + connectionsDuration.toMillis() + "ms" +
+                ", producersDuration=" + producersDuration.toMillis() + "ms" +
+                '}';
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.fishthefirst.jmscontextprovider.utils;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Sizes transactions the way TCP sizes its congestion window, additively increasing and multiplicatively decreasing.
+ * <p>
+ * A chunk that was full and committed within the target commit time grows the next one by the additive increase.
+ * A chunk that failed or took longer than the target shrinks the next one by the decrease factor, so chunks settle
+ * just under the size the broker commits in the target time. Smoothed commit time and failure rate are kept for
+ * monitoring. Shared by every thread of a manager.
+ */
+public final class AdaptiveChunkSizer {
+    private static final double SMOOTHING = 0.2;
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long targetCommitNanos;
+    private final int additiveIncrease;
+    private final double decreaseFactor;
+
+    private int chunkSize;
+    private double averageCommitNanos;
+    private double failureRate;
+
+    /**
+     * Grows by a quarter of the initial size and halves on a slow or failed commit.
+     */
+    public AdaptiveChunkSizer(int initialChunkSize, int minChunkSize, int maxChunkSize, Duration targetCommitTime) {
+        this(initialChunkSize, minChunkSize, maxChunkSize, targetCommitTime, Math.max(1, initialChunkSize / 4), 0.5);
+    }
+
+    /**
+     * @param initialChunkSize The size of the first chunk
+     * @param minChunkSize     The size chunks never shrink below, at least 1
+     * @param maxChunkSize     The size chunks never grow above, e.g. the broker's limit on a transaction
+     * @param targetCommitTime The commit time chunks are sized for
+     * @param additiveIncrease The number of objects a chunk grows by after a fast commit
+     * @param decreaseFactor   The factor a chunk shrinks by after a slow or failed commit, between 0 and 1
+     */
+    public AdaptiveChunkSizer(int initialChunkSize,
+                              int minChunkSize,
+                              int maxChunkSize,
+                              Duration targetCommitTime,
+                              int additiveIncrease,
+                              double decreaseFactor) {
+        Objects.requireNonNull(targetCommitTime, "Target commit time cannot be null");
+        if (minChunkSize < 1) {
+            throw new IllegalArgumentException("Min chunk size must be at least 1");
+        }
+        if (maxChunkSize < minChunkSize) {
+            throw new IllegalArgumentException("Max chunk size cannot be less than the min chunk size");
+        }
+        if (initialChunkSize < minChunkSize || initialChunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("Initial chunk size must be between the min and max chunk sizes");
+        }
+        if (additiveIncrease < 1) {
+            throw new IllegalArgumentException("Additive increase must be at least 1");
+        }
+        if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("Decrease factor must be between 0 and 1");
+        }
+        this.chunkSize = initialChunkSize;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetCommitNanos = targetCommitTime.toNanos();
+        this.additiveIncrease = additiveIncrease;
+        this.decreaseFactor = decreaseFactor;
+    }
+
+    public synchronized int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param messageCount The number of objects in the chunk, chunks smaller than the current size do not grow it
+     * @param commitNanos  The time spent committing, or rolling back, the chunk
+     * @param committed    false if the chunk was rolled back
+     */
+    public synchronized void onCommit(int messageCount, long commitNanos, boolean committed) {
+        averageCommitNanos = averageCommitNanos == 0 ? commitNanos : averageCommitNanos + SMOOTHING * (commitNanos - averageCommitNanos);
+        failureRate += SMOOTHING * ((committed ? 0 : 1) - failureRate);
+        if (!committed || commitNanos > targetCommitNanos) {
+            chunkSize = Math.max(minChunkSize, (int) (chunkSize * decreaseFactor));
+        } else if (messageCount >= chunkSize) {
+            chunkSize = (int) Math.min(maxChunkSize, (long) chunkSize + additiveIncrease);
+        }
+    }
+
+    public synchronized double getAverageCommitNanos() {
+        return averageCommitNanos;
+    }
+
+    /**
+     * @return the smoothed share of chunks rolled back, between 0 and 1
+     */
+    public synchronized double getFailureRate() {
+        return failureRate;
+    }
+
+    public int getMinChunkSize() {
+        return minChunkSize;
+    }
+
+    public int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public Duration getTargetCommitTime() {
+        return Duration.ofNanos(targetCommitNanos);
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.fishthefirst.jmscontextprovider.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponentially growing retry delays with random jitter, so that many clients failing at the same time
+ * do not retry in lockstep.
+ */
+public final class ExponentialBackoff {
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final double multiplier;
+    private final double jitter;
+
+    /**
+     * @param initialDelayMillis The delay before the first retry, in milliseconds
+     * @param maxDelayMillis     The upper bound for the delay, in milliseconds
+     * @param multiplier         The factor the delay grows by on every attempt
+     * @param jitter             The fraction of the delay that is randomized, between 0 (none) and 1 (full jitter)
+     */
+    public ExponentialBackoff(long initialDelayMillis, long maxDelayMillis, double multiplier, double jitter) {
+        if (initialDelayMillis < 0) {
+            throw new IllegalArgumentException("Initial delay cannot be negative");
+        }
+        if (maxDelayMillis < initialDelayMillis) {
+            throw new IllegalArgumentException("Max delay cannot be less than the initial delay");
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Multiplier cannot be less than 1");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1");
+        }
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    /**
+     * @param attempt The number of retries already made, starting at 0
+     * @return The delay before the next retry, in milliseconds
+     */
+    public long getDelayMillis(int attempt) {
+        double delay = Math.min(maxDelayMillis, initialDelayMillis * Math.pow(multiplier, Math.max(0, attempt)));
+        double randomized = delay * jitter * ThreadLocalRandom.current().nextDouble();
+        return Math.round(delay - randomized);
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.enums.JMSCircuitState;
+import io.github.fishthefirst.jmscontextprovider.enums.JMSSessionDistribution;
+import io.github.fishthefirst.jmscontextprovider.exceptions.JMSCircuitOpenException;
+import io.github.fishthefirst.jmscontextprovider.utils.ExponentialBackoff;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.JMSRuntimeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JMSConnectionContextHolderTest {
+    private final List<JMSContext> connections = new ArrayList<>();
+    private final AtomicBoolean brokerDown = new AtomicBoolean();
+    private JMSConnectionContextHolder connectionContextHolder;
+
+    @BeforeEach
+    public void setup() {
+        ConnectionFactory connectionFactory = Mockito.mock(ConnectionFactory.class);
+        when(connectionFactory.createContext()).thenAnswer(invocation -> {
+            if (brokerDown.get()) {
+                throw new JMSRuntimeException("Broker down");
+            }
+            JMSContext connection = Mockito.mock(JMSContext.class);
+            lenient().when(connection.createContext(anyInt())).thenAnswer(i -> Mockito.mock(JMSContext.class));
+            connections.add(connection);
+            return connection;
+        });
+        connectionContextHolder = JMSContextAwareComponentFactory.createContextHolder(connectionFactory);
+        connectionContextHolder.setClientId("client");
+    }
+
+    @Test
+    public void sessionsAreSpreadRoundRobin() {
+        connectionContextHolder.setConnectionCount(2);
+
+        for (int i = 0; i < 4; i++) {
+            connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+        }
+
+        assertEquals(2, connections.size());
+        verify(connections.get(0)).setClientID("client-0");
+        verify(connections.get(1)).setClientID("client-1");
+        verify(connections.get(0), times(2)).createContext(anyInt());
+        verify(connections.get(1), times(2)).createContext(anyInt());
+    }
+
+    @Test
+    public void singleConnectionKeepsClientId() {
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+
+        assertEquals(1, connections.size());
+        verify(connections.get(0)).setClientID("client");
+    }
+
+    @Test
+    public void leastLoadedPicksConnectionWithFewestSessions() {
+        connectionContextHolder.setConnectionCount(2);
+        connectionContextHolder.setSessionDistribution(JMSSessionDistribution.LEAST_LOADED);
+
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null, 0);
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null, 0);
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+
+        verify(connections.get(0), times(2)).createContext(anyInt());
+        verify(connections.get(1), times(2)).createContext(anyInt());
+    }
+
+    @Test
+    public void connectionFailureOnlyRecyclesItsOwnSessions() {
+        connectionContextHolder.setConnectionCount(2);
+        ExceptionListener firstSessionListener = Mockito.mock(ExceptionListener.class);
+        ExceptionListener secondSessionListener = Mockito.mock(ExceptionListener.class);
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, firstSessionListener);
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, secondSessionListener);
+
+        ArgumentCaptor<ExceptionListener> connectionListener = ArgumentCaptor.forClass(ExceptionListener.class);
+        verify(connections.get(0)).setExceptionListener(connectionListener.capture());
+        connectionListener.getValue().onException(new JMSException("Connection lost"));
+
+        verify(firstSessionListener).onException(any());
+        verify(secondSessionListener, never()).onException(any());
+        verify(connections.get(0)).close();
+        verify(connections.get(1), never()).close();
+    }
+
+    @Test
+    public void closedSessionsAreDeregistered() {
+        List<JMSContextWrapper> sessions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sessions.add(connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null));
+        }
+        assertEquals(3, connectionContextHolder.getLiveSessionCount());
+
+        sessions.get(0).close();
+        sessions.get(0).close();
+        sessions.get(1).close();
+
+        assertEquals(1, connectionContextHolder.getLiveSessionCount());
+        assertEquals(3, connectionContextHolder.getPeakSessionCount());
+        verify(sessions.get(0).getContext(), times(1)).close();
+    }
+
+    @Test
+    public void sessionsClosedDuringConnectionFailureAreCountedOnce() {
+        ExceptionListener closingListener = Mockito.mock(ExceptionListener.class);
+        JMSContextWrapper session = connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, closingListener);
+        Mockito.doAnswer(invocation -> {
+            session.close();
+            return null;
+        }).when(closingListener).onException(any());
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+
+        connectionContextHolder.close();
+
+        assertEquals(0, connectionContextHolder.getLiveSessionCount());
+        assertEquals(2, connectionContextHolder.getPeakSessionCount());
+    }
+
+    @Test
+    public void circuitOpensWhileBrokerIsDownAndClosesAfterProbe() {
+        connectionContextHolder.setReconnectBackoff(new ExponentialBackoff(50, 50, 1, 0));
+        Runnable recoveryListener = Mockito.mock(Runnable.class);
+        connectionContextHolder.addRecoveryListener(recoveryListener);
+        brokerDown.set(true);
+
+        assertThrows(JMSRuntimeException.class, () -> connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null));
+        assertFalse(connectionContextHolder.isConnectionAvailable());
+        assertThrows(JMSCircuitOpenException.class, () -> connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null));
+
+        brokerDown.set(false);
+        verify(recoveryListener, Mockito.timeout(5000)).run();
+        assertEquals(JMSCircuitState.CLOSED, connectionContextHolder.getCircuitState());
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+        assertEquals(1, connections.size());
+    }
+}
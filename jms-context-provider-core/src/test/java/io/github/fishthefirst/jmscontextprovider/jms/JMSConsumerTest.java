@@ -0,0 +1,103 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.serde.MessageMetadataProperties;
+import jakarta.jms.JMSContext;
+import jakarta.jms.MessageListener;
+import jakarta.jms.Queue;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JMSConsumerTest {
+    private final List<String> received = new ArrayList<>();
+    private jakarta.jms.JMSConsumer jmsConsumer;
+    private JMSConsumer<String> consumer;
+
+    @BeforeEach
+    public void setup() {
+        JMSSessionContextSupplier contextSupplier = Mockito.mock(JMSSessionContextSupplier.class);
+        JMSContext context = Mockito.mock(JMSContext.class);
+        jmsConsumer = Mockito.mock(jakarta.jms.JMSConsumer.class);
+        when(contextSupplier.createContext(any())).thenReturn(context);
+        when(context.createQueue("queue")).thenReturn(Mockito.mock(Queue.class));
+        when(context.createConsumer(any(), any(), anyBoolean())).thenReturn(jmsConsumer);
+        consumer = new JMSConsumer<>(contextSupplier, received::add, s -> s, "queue", false, "consumer");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        consumer.close();
+    }
+
+    @Test
+    public void messagesAreAcknowledgedInBatches() throws Exception {
+        consumer.setCommitBatchSize(3);
+        consumer.setCommitBatchDelay(200);
+        MessageListener listener = startAndCaptureListener();
+
+        List<TextMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            TextMessage message = Mockito.mock(TextMessage.class);
+            when(message.getText()).thenReturn("message-" + i);
+            when(message.getJMSMessageID()).thenReturn("ID:" + i);
+            messages.add(message);
+        }
+        for (int i = 0; i < 4; i++) {
+            listener.onMessage(messages.get(i));
+        }
+
+        assertEquals(4, received.size());
+        verify(messages.get(0), never()).acknowledge();
+        verify(messages.get(2)).acknowledge();
+        // The session belongs to the delivery thread, no timer acknowledges the partial batch behind its back
+        Thread.sleep(300);
+        verify(messages.get(3), never()).acknowledge();
+        // The next delivery finds the batch older than the delay and acknowledges it
+        listener.onMessage(messages.get(4));
+        verify(messages.get(4)).acknowledge();
+        assertEquals(5, consumer.getLatency().getCallback().getCount());
+        assertEquals(5, consumer.getLatency().getReceiveToUnmarshalled().getCount());
+        assertEquals(5, consumer.getMetrics().getConsumed());
+    }
+
+    @Test
+    public void produceToReceiveLatencyIsReadFromTheSourceDateProperty() throws Exception {
+        MessageListener listener = startAndCaptureListener();
+
+        TextMessage message = Mockito.mock(TextMessage.class);
+        when(message.getText()).thenReturn("message");
+        when(message.getJMSMessageID()).thenReturn("ID:0");
+        // Written as epoch millis by the header metadata writer
+        when(message.propertyExists(MessageMetadataProperties.SOURCE_DATE)).thenReturn(true);
+        when(message.getLongProperty(MessageMetadataProperties.SOURCE_DATE)).thenReturn(System.currentTimeMillis() - 5000);
+        listener.onMessage(message);
+
+        JMSConsumerLatency latency = consumer.getLatency();
+        assertEquals(1, latency.getProduceToReceive().getCount());
+        assertTrue(latency.getProduceToReceive().getMaxNanos() >= TimeUnit.SECONDS.toNanos(5));
+        verify(message, never()).getJMSTimestamp();
+    }
+
+    private MessageListener startAndCaptureListener() {
+        consumer.start();
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(jmsConsumer, timeout(5000)).setMessageListener(listener.capture());
+        return listener.getValue();
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import io.github.fishthefirst.jmscontextprovider.enums.JMSEndpointSelection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.JMSRuntimeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JMSEndpointFailoverTest {
+    private final StandInBroker primary = new StandInBroker();
+    private final StandInBroker secondary = new StandInBroker();
+    private JMSConnectionContextHolder connectionContextHolder;
+
+    @BeforeEach
+    public void setup() {
+        connectionContextHolder = JMSContextAwareComponentFactory.createContextHolder(List.of(
+                JMSContextAwareComponentFactory.createEndpoint("primary", primary.connectionFactory, 1),
+                JMSContextAwareComponentFactory.createEndpoint("secondary", secondary.connectionFactory, 1)),
+                JMSEndpointSelection.ORDERED);
+        connectionContextHolder.setClientId("client");
+        connectionContextHolder.setFailbackInterval(50);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionContextHolder.close();
+    }
+
+    @Test
+    public void failsOverWithoutOpeningCircuitAndFailsBack() {
+        ExceptionListener sessionListener = Mockito.mock(ExceptionListener.class);
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, sessionListener);
+        assertEquals(1, primary.connections.size());
+        JMSEndpoint primaryEndpoint = connectionContextHolder.getEndpoints().get(0);
+        assertTrue(primaryEndpoint.getAverageConnectMillis() >= 0);
+
+        primary.down.set(true);
+        primary.failConnection(0);
+
+        verify(sessionListener).onException(any());
+        assertFalse(primaryEndpoint.isHealthy());
+        assertTrue(connectionContextHolder.isConnectionAvailable());
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+        assertEquals(1, secondary.connections.size());
+
+        primary.down.set(false);
+        verify(secondary.connections.get(0), Mockito.timeout(5000)).close();
+        assertTrue(primaryEndpoint.isHealthy());
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+        verify(primary.connections.get(primary.connections.size() - 1)).createContext(anyInt());
+    }
+
+    @Test
+    public void circuitOpensOnlyWhenAllEndpointsAreDown() {
+        primary.down.set(true);
+        secondary.down.set(true);
+
+        assertThrows(JMSRuntimeException.class, () -> connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null));
+
+        assertFalse(connectionContextHolder.isConnectionAvailable());
+        assertEquals(1, connectionContextHolder.getEndpoints().get(0).getConsecutiveFailures());
+        assertEquals(1, connectionContextHolder.getEndpoints().get(1).getConsecutiveFailures());
+    }
+
+    @Test
+    public void skipsUnhealthyEndpointWhenConnecting() {
+        primary.down.set(true);
+
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+        connectionContextHolder.setConnectionCount(2);
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+        connectionContextHolder.createContext(JMSContext.AUTO_ACKNOWLEDGE, null);
+
+        assertTrue(connectionContextHolder.isConnectionAvailable());
+        assertEquals(3, secondary.connections.size());
+    }
+
+    private static class StandInBroker {
+        private final ConnectionFactory connectionFactory = Mockito.mock(ConnectionFactory.class);
+        private final List<JMSContext> connections = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean down = new AtomicBoolean();
+
+        StandInBroker() {
+            when(connectionFactory.createContext()).thenAnswer(invocation -> {
+                if (down.get()) {
+                    throw new JMSRuntimeException("Broker down");
+                }
+                JMSContext connection = Mockito.mock(JMSContext.class);
+                lenient().when(connection.createContext(anyInt())).thenAnswer(i -> Mockito.mock(JMSContext.class));
+                connections.add(connection);
+                return connection;
+            });
+        }
+
+        void failConnection(int index) {
+            ArgumentCaptor<ExceptionListener> connectionListener = ArgumentCaptor.forClass(ExceptionListener.class);
+            verify(connections.get(index)).setExceptionListener(connectionListener.capture());
+            connectionListener.getValue().onException(new JMSException("Connection lost"));
+        }
+    }
+}
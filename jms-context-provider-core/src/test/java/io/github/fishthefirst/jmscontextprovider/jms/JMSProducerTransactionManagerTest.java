@@ -7,6 +7,11 @@ import jakarta.jms.JMSException;
 import jakarta.jms.JMSProducer;
 import jakarta.jms.JMSRuntimeException;
 import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+import io.github.fishthefirst.jmscontextprovider.utils.AdaptiveChunkSizer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,9 +20,24 @@ import org.mockito.Captor;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -58,6 +78,8 @@ class JMSProducerTransactionManagerTest {
 
         jmsProducerTransactionManager.sendObject("Object 2");
         jmsProducerTransactionManager.sendObject("Object 3");
+        // Failed sends are reported to the handlers, they do not mark the transaction rollback-only
+        assertFalse(jmsProducerTransactionManager.isRollbackOnly());
         jmsProducerTransactionManager.commit();
         verify(jmsContextMock, times(1)).createProducer();
 
@@ -110,4 +132,281 @@ class JMSProducerTransactionManagerTest {
         jmsProducerTransactionManager.commit();
         verify(jmsContextMock, times(1)).createProducer();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void warmedUpProducerIsReusedAcrossTransactions() {
+        JMSContextWrapper contextWrapperMock = Mockito.mock(JMSContextWrapper.class);
+        JMSContext jmsContextMock = Mockito.mock(JMSContext.class);
+        JMSProducer jmsProducer = Mockito.mock(JMSProducer.class);
+
+        when(connectionContextHolder.createContext(anyInt(), any())).thenReturn(contextWrapperMock);
+        when(contextWrapperMock.getContext()).thenReturn(jmsContextMock);
+        when(jmsContextMock.getTransacted()).thenReturn(true);
+        when(jmsContextMock.createTopic(any())).thenReturn(Mockito.mock(Topic.class));
+        when(jmsContextMock.createProducer()).thenReturn(jmsProducer);
+
+        assertEquals(1, jmsProducerTransactionManager.warmUp(1));
+        verify(jmsContextMock, times(1)).createProducer();
+
+        for (int i = 0; i < 2; i++) {
+            jmsProducerTransactionManager.startTransaction();
+            jmsProducerTransactionManager.sendObject("Object " + i);
+            assertTrue(jmsProducerTransactionManager.commit());
+        }
+
+        verify(jmsContextMock, times(1)).createProducer();
+        verify(jmsContextMock, times(2)).commit();
+        assertEquals(1, jmsProducerTransactionManager.getIdleProducerCount());
+
+        jmsProducerTransactionManager.closeIdleProducers();
+        verify(contextWrapperMock).close();
+        assertEquals(0, jmsProducerTransactionManager.getIdleProducerCount());
+    }
+
+    @Test
+    public void abortEndsTheTransactionAndReleasesTheProducer() {
+        JMSContextWrapper contextWrapperMock = Mockito.mock(JMSContextWrapper.class);
+        JMSContext jmsContextMock = Mockito.mock(JMSContext.class);
+        JMSProducer jmsProducer = Mockito.mock(JMSProducer.class);
+
+        when(connectionContextHolder.createContext(anyInt(), any())).thenReturn(contextWrapperMock);
+        when(contextWrapperMock.getContext()).thenReturn(jmsContextMock);
+        when(jmsContextMock.getTransacted()).thenReturn(true);
+        when(jmsContextMock.createTopic(any())).thenReturn(Mockito.mock(Topic.class));
+        when(jmsContextMock.createProducer()).thenReturn(jmsProducer);
+
+        assertEquals(1, jmsProducerTransactionManager.warmUp(1));
+        jmsProducerTransactionManager.startTransaction();
+        jmsProducerTransactionManager.sendObject("Object 1");
+        assertEquals(0, jmsProducerTransactionManager.getIdleProducerCount());
+        jmsProducerTransactionManager.abort();
+
+        assertEquals(1, jmsProducerTransactionManager.getMetrics().getAborted());
+        assertFalse(jmsProducerTransactionManager.isTransactionActive());
+        verify(jmsContextMock).rollback();
+        assertEquals(1, jmsProducerTransactionManager.getIdleProducerCount());
+
+        // The next transaction picks the released producer back up
+        jmsProducerTransactionManager.startTransaction();
+        jmsProducerTransactionManager.sendObject("Object 2");
+        assertTrue(jmsProducerTransactionManager.commit());
+        verify(jmsContextMock, times(1)).createProducer();
+    }
+
+    @Test
+    public void joinedCallsShareOneCommitAndSuspendedTransactionsResume() {
+        JMSContextWrapper contextWrapperMock = Mockito.mock(JMSContextWrapper.class);
+        JMSContext jmsContextMock = Mockito.mock(JMSContext.class);
+        JMSProducer jmsProducer = Mockito.mock(JMSProducer.class);
+
+        when(connectionContextHolder.createContext(anyInt(), any())).thenReturn(contextWrapperMock);
+        when(contextWrapperMock.getContext()).thenReturn(jmsContextMock);
+        when(jmsContextMock.getTransacted()).thenReturn(true);
+        when(jmsContextMock.createTopic(any())).thenReturn(Mockito.mock(Topic.class));
+        when(jmsContextMock.createProducer()).thenReturn(jmsProducer);
+
+        assertFalse(jmsProducerTransactionManager.joinTransaction());
+        jmsProducerTransactionManager.startTransaction();
+        jmsProducerTransactionManager.sendObject("Outer");
+        assertTrue(jmsProducerTransactionManager.joinTransaction());
+        assertEquals(2, jmsProducerTransactionManager.getTransactionDepth());
+        jmsProducerTransactionManager.sendObjectsTransacted(List.of("Inner 1", "Inner 2"));
+        jmsProducerTransactionManager.leaveTransaction(false);
+        verify(jmsContextMock, never()).commit();
+
+        JMSSuspendedTransaction<String> suspended = jmsProducerTransactionManager.suspend();
+        assertEquals(0, jmsProducerTransactionManager.getTransactionDepth());
+        jmsProducerTransactionManager.sendObject("Independent");
+        verify(jmsContextMock, times(1)).commit();
+        jmsProducerTransactionManager.resume(suspended);
+
+        assertEquals(1, jmsProducerTransactionManager.getTransactionDepth());
+        assertTrue(jmsProducerTransactionManager.commit());
+        verify(jmsContextMock, times(2)).commit();
+        verify(jmsProducer, times(4)).send(nullable(Destination.class), nullable(TextMessage.class));
+        assertEquals(0, jmsProducerTransactionManager.getTransactionDepth());
+
+        jmsProducerTransactionManager.startTransaction();
+        jmsProducerTransactionManager.sendObject("Outer");
+        assertTrue(jmsProducerTransactionManager.joinTransaction());
+        jmsProducerTransactionManager.leaveTransaction(true);
+        assertTrue(jmsProducerTransactionManager.isRollbackOnly());
+        assertFalse(jmsProducerTransactionManager.commit());
+        assertFalse(jmsProducerTransactionManager.isRollbackOnly());
+    }
+
+    @Test
+    public void asyncCommitCompletesWithFailedObjects() throws Exception {
+        JMSContextWrapper contextWrapperMock = Mockito.mock(JMSContextWrapper.class);
+        JMSContext jmsContextMock = Mockito.mock(JMSContext.class);
+        JMSProducer jmsProducer = Mockito.mock(JMSProducer.class);
+
+        when(connectionContextHolder.createContext(anyInt(), any())).thenReturn(contextWrapperMock);
+        when(contextWrapperMock.getContext()).thenReturn(jmsContextMock);
+        when(jmsContextMock.getTransacted()).thenReturn(true);
+        when(jmsContextMock.createTopic(any())).thenReturn(Mockito.mock(Topic.class));
+        when(jmsContextMock.createProducer()).thenReturn(jmsProducer);
+
+        jmsProducerTransactionManager.startTransaction();
+        jmsProducerTransactionManager.sendObject("Object 1");
+        JMSCommitResult<String> committed = jmsProducerTransactionManager.commitAsync().get(5, TimeUnit.SECONDS);
+        assertTrue(committed.isCommitted());
+        assertEquals(1, committed.getMessageCount());
+
+        jmsProducerTransactionManager.startTransaction();
+        jmsProducerTransactionManager.sendObject("Object 2");
+        when(jmsProducer.send(nullable(Destination.class), nullable(TextMessage.class))).thenThrow(new JMSRuntimeException(""));
+        jmsProducerTransactionManager.sendObject("Object 3");
+        JMSCommitResult<String> rolledBack = jmsProducerTransactionManager.commitAsync().get(5, TimeUnit.SECONDS);
+
+        assertFalse(rolledBack.isCommitted());
+        assertEquals(2, rolledBack.getMessageCount());
+        assertEquals(List.of("Object 2", "Object 3"), rolledBack.getFailedObjects());
+        assertFalse(jmsProducerTransactionManager.isTransactionActive());
+        assertEquals(2, jmsProducerTransactionManager.getMetrics().getSent());
+        assertEquals(2, jmsProducerTransactionManager.getMetrics().getFailed());
+        assertEquals(1, jmsProducerTransactionManager.getMetrics().getCommits());
+    }
+
+    @Test
+    public void spilledObjectsAreReportedInOrderOnRollback() throws Exception {
+        JMSContextWrapper contextWrapperMock = Mockito.mock(JMSContextWrapper.class);
+        JMSContext jmsContextMock = Mockito.mock(JMSContext.class);
+        JMSProducer jmsProducer = Mockito.mock(JMSProducer.class);
+
+        when(connectionContextHolder.createContext(anyInt(), any())).thenReturn(contextWrapperMock);
+        when(contextWrapperMock.getContext()).thenReturn(jmsContextMock);
+        when(jmsContextMock.getTransacted()).thenReturn(true);
+        when(jmsContextMock.createTopic(any())).thenReturn(Mockito.mock(Topic.class));
+        when(jmsContextMock.createProducer()).thenReturn(jmsProducer);
+
+        jmsProducerTransactionManager.setRetentionStrategy(JMSRetentionStrategy.spilling(
+                s -> s.getBytes(StandardCharsets.UTF_8),
+                b -> new String(b, StandardCharsets.UTF_8),
+                20));
+        List<String> sent = List.of("Object 1", "Object 2", "Object 3", "An object too large to be kept in memory", "Object 5");
+        jmsProducerTransactionManager.startTransaction();
+        sent.forEach(jmsProducerTransactionManager::sendObject);
+        when(jmsProducer.send(nullable(Destination.class), nullable(TextMessage.class))).thenThrow(new JMSRuntimeException(""));
+        jmsProducerTransactionManager.sendObject("Object 6");
+        JMSCommitResult<String> rolledBack = jmsProducerTransactionManager.commitWithResult();
+
+        assertFalse(rolledBack.isCommitted());
+        assertEquals(6, rolledBack.getMessageCount());
+        assertEquals(List.of("Object 1", "Object 2", "Object 3", "An object too large to be kept in memory", "Object 5", "Object 6"),
+                rolledBack.getFailedObjects());
+    }
+
+    @Test
+    public void rolledBackSpilledObjectsStayOffTheHeap() {
+        JMSContextWrapper contextWrapperMock = Mockito.mock(JMSContextWrapper.class);
+        JMSContext jmsContextMock = Mockito.mock(JMSContext.class);
+        JMSProducer jmsProducer = Mockito.mock(JMSProducer.class);
+
+        when(connectionContextHolder.createContext(anyInt(), any())).thenReturn(contextWrapperMock);
+        when(contextWrapperMock.getContext()).thenReturn(jmsContextMock);
+        when(jmsContextMock.getTransacted()).thenReturn(true);
+        when(jmsContextMock.createTopic(any())).thenReturn(Mockito.mock(Topic.class));
+        when(jmsContextMock.createProducer()).thenReturn(jmsProducer);
+
+        JMSRetentionStrategy<String> spilling = JMSRetentionStrategy.spilling(
+                s -> s.getBytes(StandardCharsets.UTF_8),
+                b -> new String(b, StandardCharsets.UTF_8),
+                64);
+        List<JMSMarshalledRetention<String>> buffers = new ArrayList<>();
+        jmsProducerTransactionManager.setRetentionStrategy(() -> {
+            JMSMarshalledRetention<String> buffer = (JMSMarshalledRetention<String>) spilling.newBuffer();
+            buffers.add(buffer);
+            return buffer;
+        });
+        jmsProducerTransactionManager.startTransaction();
+        for (int i = 0; i < 10_000; i++) {
+            jmsProducerTransactionManager.sendObject("A transacted object numbered " + i);
+        }
+        jmsProducerTransactionManager.rollback();
+
+        // The sent and the failed objects each have a buffer
+        assertEquals(2, buffers.size());
+        JMSMarshalledRetention<String> failed = buffers.get(1);
+        assertEquals(10_000, failed.size());
+        assertTrue(failed.getHeapBytes() <= 4096);
+        jmsProducerTransactionManager.rollbackTransaction();
+        assertEquals(0, failed.size());
+    }
+
+    @Test
+    public void chunksGrowWhileCommitsSucceedAndTheRestIsAbortedAfterRepeatedFailures() {
+        JMSContextWrapper contextWrapperMock = Mockito.mock(JMSContextWrapper.class);
+        JMSContext jmsContextMock = Mockito.mock(JMSContext.class);
+        JMSProducer jmsProducer = Mockito.mock(JMSProducer.class);
+
+        when(connectionContextHolder.createContext(anyInt(), any())).thenReturn(contextWrapperMock);
+        when(contextWrapperMock.getContext()).thenReturn(jmsContextMock);
+        when(jmsContextMock.getTransacted()).thenReturn(true);
+        when(jmsContextMock.createTopic(any())).thenReturn(Mockito.mock(Topic.class));
+        when(jmsContextMock.createProducer()).thenReturn(jmsProducer);
+
+        jmsProducerTransactionManager.setChunkSizer(new AdaptiveChunkSizer(4, 1, 100, Duration.ofMinutes(1), 2, 0.5));
+        jmsProducerTransactionManager.setMaxConsecutiveChunkFailures(2);
+        List<String> objects = IntStream.range(0, 10).mapToObj(i -> "Object " + i).toList();
+
+        List<JMSCommitResult<String>> committed = jmsProducerTransactionManager.sendObjectsChunked(objects);
+        assertEquals(List.of(4, 6), committed.stream().map(JMSCommitResult::getMessageCount).toList());
+        assertTrue(committed.stream().allMatch(JMSCommitResult::isCommitted));
+        assertEquals(8, jmsProducerTransactionManager.getChunkSizer().getChunkSize());
+
+        doThrow(new JMSRuntimeException("")).when(jmsContextMock).commit();
+        List<JMSCommitResult<String>> failed = jmsProducerTransactionManager.sendObjectsChunked(
+                IntStream.range(0, 15).mapToObj(i -> "Object " + i).toList());
+        assertEquals(List.of(8, 4), failed.stream().map(JMSCommitResult::getMessageCount).toList());
+        assertEquals(12, jmsProducerTransactionManager.getMetrics().getFailed());
+        assertEquals(3, jmsProducerTransactionManager.getMetrics().getAborted());
+        assertEquals(2, jmsProducerTransactionManager.getChunkSizer().getChunkSize());
+        assertFalse(jmsProducerTransactionManager.isTransactionActive());
+    }
+
+    @Test
+    public void sendAndCommitAreRecordedAsFlightRecorderEvents() throws Exception {
+        JMSContextWrapper contextWrapperMock = Mockito.mock(JMSContextWrapper.class);
+        JMSContext jmsContextMock = Mockito.mock(JMSContext.class);
+        JMSProducer jmsProducer = Mockito.mock(JMSProducer.class);
+
+        when(connectionContextHolder.createContext(anyInt(), any())).thenReturn(contextWrapperMock);
+        when(contextWrapperMock.getContext()).thenReturn(jmsContextMock);
+        when(jmsContextMock.getTransacted()).thenReturn(true);
+        when(jmsContextMock.createTopic(any())).thenReturn(Mockito.mock(Topic.class));
+        when(jmsContextMock.createProducer()).thenReturn(jmsProducer);
+
+        Path dump = Files.createTempFile("jms-context-provider", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.fishthefirst.jmscontextprovider.Send");
+            recording.enable("io.github.fishthefirst.jmscontextprovider.Commit");
+            recording.start();
+            jmsProducerTransactionManager.sendObjectsTransacted(List.of("Object 1", "Object 2"));
+            jmsProducerTransactionManager.startTransaction();
+            jmsProducerTransactionManager.sendObject("Object 3");
+            jmsProducerTransactionManager.commitAsync().get(5, TimeUnit.SECONDS);
+            recording.stop();
+            recording.dump(dump);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            List<RecordedEvent> sends = events.stream()
+                    .filter(e -> e.getEventType().getName().endsWith(".Send"))
+                    .toList();
+            List<RecordedEvent> commits = events.stream()
+                    .filter(e -> e.getEventType().getName().endsWith(".Commit"))
+                    .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                    .toList();
+            assertEquals(3, sends.size());
+            assertEquals("destination", sends.get(0).getString("destination"));
+            assertTrue(sends.get(0).getBoolean("succeeded"));
+            // Asynchronous commits are recorded too
+            assertEquals(2, commits.size());
+            assertEquals(2, commits.get(0).getInt("messageCount"));
+            assertEquals(1, commits.get(1).getInt("messageCount"));
+            assertTrue(commits.get(1).getBoolean("committed"));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.Queue;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JMSSessionContextSupplierTest {
+    private JMSSessionContextSupplier sessionContextSupplier;
+
+    @BeforeEach
+    public void setup() {
+        JMSConnectionContextHolder connectionContextHolder = Mockito.mock(JMSConnectionContextHolder.class);
+        when(connectionContextHolder.createContext(anyInt(), any())).thenAnswer(invocation ->
+                new JMSContextWrapper(Mockito.mock(JMSContext.class), invocation.getArgument(1)));
+        sessionContextSupplier = new JMSSessionContextSupplier(connectionContextHolder, JMSContext.AUTO_ACKNOWLEDGE);
+    }
+
+    @Test
+    public void recentlyUsedSessionIsReusedWithoutProbe() {
+        JMSContext first = sessionContextSupplier.createContext(null);
+        JMSContext second = sessionContextSupplier.createContext(null);
+
+        assertSame(first, second);
+        verify(first, never()).recover();
+        assertEquals(0, sessionContextSupplier.getProbeCount());
+    }
+
+    @Test
+    public void idleSessionIsProbed() {
+        sessionContextSupplier.setIdleProbeThreshold(0);
+        JMSContext first = sessionContextSupplier.createContext(null);
+        sessionContextSupplier.createContext(null);
+
+        verify(first, times(1)).recover();
+        assertEquals(1, sessionContextSupplier.getProbeCount());
+    }
+
+    @Test
+    public void failedSessionIsRebuiltWithoutProbe() {
+        ExceptionListener exceptionListener = Mockito.mock(ExceptionListener.class);
+        JMSContext first = sessionContextSupplier.createContext(exceptionListener);
+
+        sessionContextSupplier.onException(new JMSException("Connection lost"));
+        JMSContext second = sessionContextSupplier.createContext(exceptionListener);
+
+        verify(exceptionListener).onException(any());
+        verify(first).close();
+        assertNotSame(first, second);
+        assertTrue(sessionContextSupplier.isSessionHealthy());
+    }
+
+    @Test
+    public void exceptionListenerDoesNotHoldTheSession() throws InterruptedException {
+        CountDownLatch inListener = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JMSContext first = sessionContextSupplier.createContext(exception -> {
+            inListener.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread failing = new Thread(() -> sessionContextSupplier.onException(new JMSException("Connection lost")));
+        failing.start();
+        assertTrue(inListener.await(5, TimeUnit.SECONDS));
+
+        // The session was closed before its owner was told, a new one is built while the listener still runs
+        verify(first).close();
+        assertNotSame(first, sessionContextSupplier.createContext(null));
+        assertTrue(sessionContextSupplier.isSessionHealthy());
+        release.countDown();
+        failing.join();
+    }
+
+    @Test
+    public void connectionExceptionRacingACommitDoesNotDeadlock() throws InterruptedException {
+        JMSConnectionContextHolder connectionContextHolder = Mockito.mock(JMSConnectionContextHolder.class);
+        JMSContext jmsContext = Mockito.mock(JMSContext.class);
+        when(connectionContextHolder.createContext(anyInt(), any())).thenAnswer(invocation ->
+                new JMSContextWrapper(jmsContext, invocation.getArgument(1)));
+        when(jmsContext.getTransacted()).thenReturn(true);
+        when(jmsContext.createProducer()).thenReturn(Mockito.mock(jakarta.jms.JMSProducer.class));
+        when(jmsContext.createQueue(any())).thenReturn(Mockito.mock(Queue.class));
+        when(jmsContext.createTextMessage(any())).thenReturn(Mockito.mock(TextMessage.class));
+        JMSSessionContextSupplier supplier = new JMSSessionContextSupplier(connectionContextHolder, JMSContext.SESSION_TRANSACTED);
+        JMSProducer<String> producer = new JMSProducer<>(supplier, Object::toString, "destination", false, "producer", 0, false);
+        producer.sendMessage("Object 1");
+
+        Thread failing = new Thread(() -> supplier.onException(new JMSException("Connection lost")));
+        CountDownLatch inCommit = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inCommit.countDown();
+            // Let the exception reach the producer while the commit holds its monitor
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (failing.getState() != Thread.State.BLOCKED && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            return null;
+        }).when(jmsContext).commit();
+        Thread committing = new Thread(producer::commit);
+        // A deadlock must not keep the JVM alive
+        committing.setDaemon(true);
+        failing.setDaemon(true);
+        committing.start();
+        assertTrue(inCommit.await(5, TimeUnit.SECONDS));
+        failing.start();
+
+        committing.join(5000);
+        failing.join(5000);
+        assertFalse(committing.isAlive());
+        assertFalse(failing.isAlive());
+        assertFalse(producer.isAlive());
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.fishthefirst.jmscontextprovider.jms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.SubmissionPublisher;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JMSTransactionalSubscriberTest {
+    private JMSProducerTransactionManager<String> transactionManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        transactionManager = Mockito.mock(JMSProducerTransactionManager.class);
+    }
+
+    @Test
+    public void streamIsChunkedByBatchSize() throws InterruptedException {
+        when(transactionManager.commit()).thenReturn(true);
+        JMSTransactionalSubscriber<String> subscriber = JMSContextAwareComponentFactory.createTransactionalSubscriber(transactionManager, 4, Duration.ofMinutes(1));
+
+        try (SubmissionPublisher<String> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(subscriber);
+            for (int i = 0; i < 10; i++) {
+                publisher.submit("Object " + i);
+            }
+        }
+
+        assertTrue(subscriber.awaitTermination(Duration.ofSeconds(5)));
+        verify(transactionManager, times(3)).startTransaction();
+        verify(transactionManager, times(10)).sendObject(any());
+        verify(transactionManager, times(3)).commit();
+    }
+
+    @Test
+    public void partialBatchIsCommittedAfterDelay() throws InterruptedException {
+        when(transactionManager.commit()).thenReturn(true);
+        JMSTransactionalSubscriber<String> subscriber = JMSContextAwareComponentFactory.createTransactionalSubscriber(transactionManager, 100, Duration.ofMillis(50));
+
+        SubmissionPublisher<String> publisher = new SubmissionPublisher<>();
+        publisher.subscribe(subscriber);
+        publisher.submit("Object 1");
+        publisher.submit("Object 2");
+
+        verify(transactionManager, Mockito.timeout(5000).times(1)).commit();
+        verify(transactionManager, times(2)).sendObject(any());
+
+        publisher.close();
+        assertTrue(subscriber.awaitTermination(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void itemsAfterCloseAreRoutedToFailureHandler() throws InterruptedException {
+        JMSTransactionalSubscriber<String> subscriber = JMSContextAwareComponentFactory.createTransactionalSubscriber(transactionManager, 4, Duration.ofMinutes(1));
+        subscriber.close();
+        subscriber.onNext("Object 1");
+
+        assertTrue(subscriber.awaitTermination(Duration.ofSeconds(5)));
+        verify(transactionManager, times(1)).messageFailedCallback("Object 1");
+        verify(transactionManager, times(0)).sendObject(any());
+    }
+}
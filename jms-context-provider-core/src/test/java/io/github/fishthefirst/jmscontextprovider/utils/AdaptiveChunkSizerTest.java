@@ -0,0 +1,39 @@
+package io.github.fishthefirst.jmscontextprovider.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveChunkSizerTest {
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofMillis(200).toNanos();
+
+    @Test
+    void fullFastChunksGrowAdditivelyUpToMax() {
+        AdaptiveChunkSizer sizer = new AdaptiveChunkSizer(10, 1, 25, Duration.ofMillis(100), 5, 0.5);
+        sizer.onCommit(10, FAST, true);
+        assertEquals(15, sizer.getChunkSize());
+        // A partial chunk says nothing about whether a full one would commit in time
+        sizer.onCommit(3, FAST, true);
+        assertEquals(15, sizer.getChunkSize());
+        sizer.onCommit(15, FAST, true);
+        sizer.onCommit(20, FAST, true);
+        sizer.onCommit(25, FAST, true);
+        assertEquals(25, sizer.getChunkSize());
+    }
+
+    @Test
+    void slowOrFailedChunksShrinkMultiplicativelyDownToMin() {
+        AdaptiveChunkSizer sizer = new AdaptiveChunkSizer(40, 8, 100, Duration.ofMillis(100), 5, 0.5);
+        sizer.onCommit(40, SLOW, true);
+        assertEquals(20, sizer.getChunkSize());
+        sizer.onCommit(20, FAST, false);
+        assertEquals(10, sizer.getChunkSize());
+        sizer.onCommit(10, FAST, false);
+        assertEquals(8, sizer.getChunkSize());
+        assertTrue(sizer.getFailureRate() > 0.3);
+    }
+}
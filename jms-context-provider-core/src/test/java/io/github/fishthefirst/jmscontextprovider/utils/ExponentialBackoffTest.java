@@ -0,0 +1,28 @@
+package io.github.fishthefirst.jmscontextprovider.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExponentialBackoffTest {
+
+    @Test
+    void delayGrowsUpToMax() {
+        ExponentialBackoff backoff = new ExponentialBackoff(100, 1000, 2, 0);
+        assertEquals(100, backoff.getDelayMillis(0));
+        assertEquals(200, backoff.getDelayMillis(1));
+        assertEquals(800, backoff.getDelayMillis(3));
+        assertEquals(1000, backoff.getDelayMillis(4));
+        assertEquals(1000, backoff.getDelayMillis(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void jitterStaysWithinBounds() {
+        ExponentialBackoff backoff = new ExponentialBackoff(1000, 1000, 2, 0.5);
+        for (int i = 0; i < 1000; i++) {
+            long delay = backoff.getDelayMillis(0);
+            assertTrue(delay >= 500 && delay <= 1000, "Delay out of bounds: " + delay);
+        }
+    }
+}
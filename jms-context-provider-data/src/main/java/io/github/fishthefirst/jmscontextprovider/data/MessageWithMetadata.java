@@ -1,42 +1,127 @@
 package io.github.fishthefirst.jmscontextprovider.data;
 
+import io.github.fishthefirst.jmscontextprovider.serde.MessageMetadataHeaderWriter;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageMetadataProperties;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
 import java.time.Instant;
+import java.util.Objects;
 
+/**
+ * A payload along with the date it was produced at and the name of its class, encoded as a flat JSON object:
+ * {@code {"sourceDate": "...", "className": "...", "payload": "..."}}.
+ * <p>
+ * Parsing is a single pass over the envelope that only records where each field starts and ends.
+ * The payload is not copied until {@link #getPayload()} is called, {@link #getPayloadReader()} streams it without copying.
+ */
 public final class MessageWithMetadata {
+    private static final String SOURCE_DATE = "sourceDate";
+    private static final String CLASS_NAME = "className";
+    private static final String PAYLOAD = "payload";
+
     private final Instant sourceDate;
-    private final String payload;
     private final String className;
 
+    // Parsed envelopes keep the payload in place until it is requested
+    private final CharSequence source;
+    private final int payloadStart;
+    private final int payloadEnd;
+    private final boolean payloadEscaped;
+    private String payload;
+
     public MessageWithMetadata(Instant sourceDate, String payload, String className) {
         this.sourceDate = sourceDate;
         this.payload = payload;
         this.className = className;
+        this.source = null;
+        this.payloadStart = -1;
+        this.payloadEnd = -1;
+        this.payloadEscaped = false;
     }
 
     public MessageWithMetadata(String fromStringPayload) {
-        try {
-            int firstComma = fromStringPayload.indexOf(",");
-            String sourceDateValue = fromStringPayload.substring("{\"sourceDate\": \"".length(), firstComma-1);
-            sourceDate = Instant.parse(sourceDateValue);
-
-            String afterFirstComma = fromStringPayload.substring(firstComma + 1);
-            int secondComma = afterFirstComma.indexOf(",");
-            className = afterFirstComma.substring(" \"className\": \"".length(), secondComma - 1);
+        this(scan(fromStringPayload));
+    }
 
-            String afterSecondComma = afterFirstComma.substring(secondComma+1);
-            String payloadValue = afterSecondComma.substring(" \"payload\": ".length());
-            payload = payloadValue.substring(payloadValue.indexOf('\"'), payloadValue.length() - 1);
+    private MessageWithMetadata(Scanner scanner) {
+        this.source = scanner.source;
+        this.payloadStart = scanner.payloadStart;
+        this.payloadEnd = scanner.payloadEnd;
+        this.payloadEscaped = scanner.payloadEscaped;
+        try {
+            this.sourceDate = Instant.parse(scanner.dateEscaped ?
+                    unescape(source, scanner.dateStart, scanner.dateEnd) :
+                    CharBuffer.wrap(source, scanner.dateStart, scanner.dateEnd));
+            this.className = scanner.classEscaped ?
+                    unescape(source, scanner.classStart, scanner.classEnd) :
+                    source.subSequence(scanner.classStart, scanner.classEnd).toString();
         } catch (Exception e) {
-            throw new IllegalArgumentException("Message has invalid format: " + fromStringPayload, e);
+            throw new IllegalArgumentException("Message has invalid format: " + source, e);
+        }
+    }
+
+    /**
+     * Reads the metadata from the message's properties if it was sent with {@link MessageMetadataHeaderWriter},
+     * in which case the body is the raw payload. Otherwise the body is parsed as an envelope.
+     */
+    public static MessageWithMetadata fromMessage(Message message, String body) {
+        try {
+            String className = message.getStringProperty(MessageMetadataProperties.CLASS_NAME);
+            if (Objects.isNull(className)) {
+                return parse(body);
+            }
+            Instant sourceDate = message.propertyExists(MessageMetadataProperties.SOURCE_DATE) ?
+                    Instant.ofEpochMilli(message.getLongProperty(MessageMetadataProperties.SOURCE_DATE)) : null;
+            return new MessageWithMetadata(sourceDate, body, className);
+        } catch (JMSException e) {
+            throw new IllegalArgumentException("Failed to read metadata properties", e);
         }
     }
 
+    /**
+     * Parses an envelope without copying its payload.
+     */
+    public static MessageWithMetadata parse(CharSequence fromStringPayload) {
+        return new MessageWithMetadata(scan(fromStringPayload));
+    }
+
     public Instant getSourceDate() {
         return sourceDate;
     }
 
     public String getPayload() {
-        return payload;
+        String result = payload;
+        if (Objects.isNull(result) && Objects.nonNull(source)) {
+            result = payloadEscaped ?
+                    unescape(source, payloadStart, payloadEnd) :
+                    source.subSequence(payloadStart, payloadEnd).toString();
+            payload = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the payload as a read-only view over the parsed envelope, copied only if it had to be unescaped
+     */
+    public CharSequence getPayloadView() {
+        if (Objects.nonNull(payload) || payloadEscaped) {
+            return CharBuffer.wrap(getPayload());
+        }
+        return CharBuffer.wrap(source, payloadStart, payloadEnd);
+    }
+
+    /**
+     * @return a reader over the payload in the parsed envelope, escaped payloads are unescaped as they are read
+     */
+    public Reader getPayloadReader() {
+        String result = payload;
+        if (Objects.nonNull(result)) {
+            return new PayloadReader(result, 0, result.length(), false);
+        }
+        return new PayloadReader(source, payloadStart, payloadEnd, payloadEscaped);
     }
 
     public String getPayloadClassName() {
@@ -48,6 +133,185 @@ public final class MessageWithMetadata {
     }
 
     public String toStringPayload() {
-        return String.format("{\"sourceDate\": \"%s\", \"className\": \"%s\", \"payload\": \"%s\"}", sourceDate.toString(), className, payload);
+        return MessageWithMetadataWriter.write(sourceDate, className, getPayload());
+    }
+
+    // Parsing
+    private static Scanner scan(CharSequence fromStringPayload) {
+        Objects.requireNonNull(fromStringPayload, "Message cannot be null");
+        Scanner scanner = new Scanner(fromStringPayload);
+        try {
+            scanner.scan(false);
+        } catch (Exception e) {
+            // Envelopes written before the payload was escaped: the payload is the last field and runs up to the last quote
+            try {
+                scanner.scan(true);
+            } catch (Exception legacyException) {
+                IllegalArgumentException exception = new IllegalArgumentException("Message has invalid format: " + fromStringPayload, e);
+                exception.addSuppressed(legacyException);
+                throw exception;
+            }
+        }
+        return scanner;
+    }
+
+    private static String unescape(CharSequence source, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            char escaped = source.charAt(++i);
+            switch (escaped) {
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'n' -> builder.append('\n');
+                case 'r' -> builder.append('\r');
+                case 't' -> builder.append('\t');
+                case 'u' -> {
+                    builder.append((char) Integer.parseInt(source, i + 1, i + 5, 16));
+                    i += 4;
+                }
+                default -> builder.append(escaped);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static final class Scanner {
+        private final CharSequence source;
+        private int dateStart = -1;
+        private int dateEnd;
+        private boolean dateEscaped;
+        private int classStart = -1;
+        private int classEnd;
+        private boolean classEscaped;
+        private int payloadStart = -1;
+        private int payloadEnd;
+        private boolean payloadEscaped;
+
+        // Set by readString
+        private boolean escaped;
+
+        private Scanner(CharSequence source) {
+            this.source = source;
+        }
+
+        private void scan(boolean legacy) {
+            dateStart = classStart = payloadStart = -1;
+            int length = source.length();
+            int pos = expect(skipWhitespace(0), '{');
+            pos = skipWhitespace(pos);
+            if (source.charAt(pos) != '}') {
+                while (true) {
+                    int keyStart = expect(pos, '"');
+                    int keyEnd = readString(keyStart);
+                    pos = expect(skipWhitespace(keyEnd + 1), ':');
+                    int valueStart = expect(skipWhitespace(pos), '"');
+                    int valueEnd;
+                    boolean payloadKey = matches(keyStart, keyEnd, PAYLOAD);
+                    if (legacy && payloadKey) {
+                        valueEnd = lastQuote(valueStart);
+                        escaped = false;
+                    } else {
+                        valueEnd = readString(valueStart);
+                    }
+
+                    if (payloadKey) {
+                        payloadStart = valueStart;
+                        payloadEnd = valueEnd;
+                        payloadEscaped = escaped;
+                    } else if (matches(keyStart, keyEnd, CLASS_NAME)) {
+                        classStart = valueStart;
+                        classEnd = valueEnd;
+                        classEscaped = escaped;
+                    } else if (matches(keyStart, keyEnd, SOURCE_DATE)) {
+                        dateStart = valueStart;
+                        dateEnd = valueEnd;
+                        dateEscaped = escaped;
+                    }
+
+                    pos = skipWhitespace(valueEnd + 1);
+                    if (source.charAt(pos) == ',') {
+                        pos = skipWhitespace(pos + 1);
+                    } else {
+                        break;
+                    }
+                }
+            }
+            pos = skipWhitespace(expect(pos, '}'));
+            if (pos != length) {
+                throw new IllegalArgumentException("Unexpected content after envelope at " + pos);
+            }
+            if (dateStart < 0 || classStart < 0 || payloadStart < 0) {
+                throw new IllegalArgumentException("Envelope is missing a field");
+            }
+        }
+
+        /**
+         * @return the index of the closing quote of the string starting at the given index
+         */
+        private int readString(int start) {
+            escaped = false;
+            int length = source.length();
+            for (int i = start; i < length; i++) {
+                char c = source.charAt(i);
+                if (c == '"') {
+                    return i;
+                }
+                if (c == '\\') {
+                    escaped = true;
+                    i++;
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string at " + start);
+        }
+
+        private int lastQuote(int start) {
+            int end = source.length() - 1;
+            while (end > start && Character.isWhitespace(source.charAt(end))) {
+                end--;
+            }
+            if (source.charAt(end) != '}') {
+                throw new IllegalArgumentException("Envelope is not terminated");
+            }
+            end--;
+            while (end > start && Character.isWhitespace(source.charAt(end))) {
+                end--;
+            }
+            if (end < start || source.charAt(end) != '"') {
+                throw new IllegalArgumentException("Unterminated payload at " + start);
+            }
+            return end;
+        }
+
+        private boolean matches(int start, int end, String key) {
+            if (end - start != key.length()) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (source.charAt(start + i) != key.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int expect(int pos, char c) {
+            if (pos >= source.length() || source.charAt(pos) != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at " + pos);
+            }
+            return pos + 1;
+        }
+
+        private int skipWhitespace(int pos) {
+            int length = source.length();
+            while (pos < length && Character.isWhitespace(source.charAt(pos))) {
+                pos++;
+            }
+            return pos;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package io.github.fishthefirst.jmscontextprovider.data;
+
+import io.github.fishthefirst.jmscontextprovider.serde.PayloadWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+/**
+ * Writes {@link MessageWithMetadata} envelopes in a single pass into a per-thread buffer that is reused between messages.
+ * The payload is JSON escaped as it is written, so it can be streamed straight from a serializer.
+ * A payload writer that itself writes an envelope, e.g. a nested marshaller, gets a buffer of its own.
+ */
+public final class MessageWithMetadataWriter {
+    // Buffers that grew past this are not kept, so one large message does not pin its buffer for the thread's lifetime
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private static final ThreadLocal<EscapingWriter> buffers = ThreadLocal.withInitial(() -> new EscapingWriter(new StringBuilder(1024)));
+
+    private MessageWithMetadataWriter() {
+    }
+
+    public static String write(Instant sourceDate, String className, CharSequence payload) {
+        return write(sourceDate, className, payload, (p, writer) -> writer.append(p));
+    }
+
+    public static <T> String write(Instant sourceDate, String className, T object, PayloadWriter<? super T> payloadWriter) {
+        Objects.requireNonNull(sourceDate, "Source date cannot be null");
+        Objects.requireNonNull(className, "Class name cannot be null");
+        Objects.requireNonNull(payloadWriter, "Payload writer cannot be null");
+        EscapingWriter shared = buffers.get();
+        EscapingWriter writer = shared.inUse ? new EscapingWriter(new StringBuilder(1024)) : shared;
+        StringBuilder builder = writer.builder;
+        builder.setLength(0);
+        writer.inUse = true;
+        try {
+            builder.append("{\"sourceDate\": \"");
+            DateTimeFormatter.ISO_INSTANT.formatTo(sourceDate, builder);
+            builder.append("\", \"className\": \"");
+            writer.append(className);
+            builder.append("\", \"payload\": \"");
+            payloadWriter.write(object, writer);
+            builder.append("\"}");
+            return builder.toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("Payload writer failed", e);
+        } finally {
+            writer.inUse = false;
+            if (writer == shared && builder.capacity() > MAX_RETAINED_CAPACITY) {
+                buffers.remove();
+            }
+        }
+    }
+
+    /**
+     * JSON escapes everything written to it into a StringBuilder.
+     */
+    private static final class EscapingWriter extends Writer {
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final StringBuilder builder;
+        // Set while an envelope is being written into the builder
+        private boolean inUse;
+
+        private EscapingWriter(StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void write(int c) {
+            escape((char) c);
+        }
+
+        @Override
+        public void write(char[] chars, int off, int len) {
+            int end = off + len;
+            int plainStart = off;
+            for (int i = off; i < end; i++) {
+                if (needsEscape(chars[i])) {
+                    builder.append(chars, plainStart, i - plainStart);
+                    escape(chars[i]);
+                    plainStart = i + 1;
+                }
+            }
+            builder.append(chars, plainStart, end - plainStart);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            append(str, off, off + len);
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            CharSequence sequence = Objects.requireNonNullElse(csq, "null");
+            return append(sequence, 0, sequence.length());
+        }
+
+        @Override
+        public Writer append(CharSequence csq, int start, int end) {
+            CharSequence sequence = Objects.requireNonNullElse(csq, "null");
+            int plainStart = start;
+            for (int i = start; i < end; i++) {
+                char c = sequence.charAt(i);
+                if (needsEscape(c)) {
+                    builder.append(sequence, plainStart, i);
+                    escape(c);
+                    plainStart = i + 1;
+                }
+            }
+            builder.append(sequence, plainStart, end);
+            return this;
+        }
+
+        @Override
+        public Writer append(char c) {
+            escape(c);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            // Serializers such as Jackson close their target when done, the buffer must outlive them
+        }
+
+        private static boolean needsEscape(char c) {
+            return c < 0x20 || c == '"' || c == '\\';
+        }
+
+        private void escape(char c) {
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                case '\b' -> builder.append("\\b");
+                case '\f' -> builder.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
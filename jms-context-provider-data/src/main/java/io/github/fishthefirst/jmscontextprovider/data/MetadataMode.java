@@ -0,0 +1,15 @@
+package io.github.fishthefirst.jmscontextprovider.data;
+
+/**
+ * Where the envelope metadata (source date and payload class name) travels.
+ */
+public enum MetadataMode {
+    /**
+     * Wrapped around the payload in the message body, see {@link MessageWithMetadata}.
+     */
+    BODY,
+    /**
+     * In message properties, leaving only the raw payload in the body. Brokers can filter on them with selectors.
+     */
+    HEADERS
+}
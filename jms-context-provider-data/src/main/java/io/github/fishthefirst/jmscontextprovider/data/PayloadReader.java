@@ -0,0 +1,80 @@
+package io.github.fishthefirst.jmscontextprovider.data;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a range of a CharSequence in place, unescaping JSON string escapes as it goes if the range is escaped.
+ */
+final class PayloadReader extends Reader {
+    private final CharSequence source;
+    private final int end;
+    private final boolean escaped;
+    private int position;
+
+    PayloadReader(CharSequence source, int start, int end, boolean escaped) {
+        this.source = source;
+        this.position = start;
+        this.end = end;
+        this.escaped = escaped;
+    }
+
+    @Override
+    public int read(char[] buffer, int off, int len) throws IOException {
+        if (position >= end) {
+            return -1;
+        }
+        if (!escaped) {
+            int count = Math.min(len, end - position);
+            if (source instanceof String string) {
+                string.getChars(position, position + count, buffer, off);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    buffer[off + i] = source.charAt(position + i);
+                }
+            }
+            position += count;
+            return count;
+        }
+        int count = 0;
+        while (count < len && position < end) {
+            char c = source.charAt(position++);
+            if (c == '\\') {
+                c = unescape();
+            }
+            buffer[off + count++] = c;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private char unescape() throws IOException {
+        if (position >= end) {
+            throw new IOException("Unterminated escape at " + position);
+        }
+        char escapedChar = source.charAt(position++);
+        return switch (escapedChar) {
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                if (position + 4 > end) {
+                    throw new IOException("Truncated unicode escape at " + position);
+                }
+                try {
+                    char unicode = (char) Integer.parseInt(source, position, position + 4, 16);
+                    position += 4;
+                    yield unicode;
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid unicode escape at " + position, e);
+                }
+            }
+            default -> escapedChar;
+        };
+    }
+}
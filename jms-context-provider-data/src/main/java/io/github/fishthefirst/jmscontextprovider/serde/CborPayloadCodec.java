@@ -0,0 +1,14 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+/**
+ * Binary JSON (RFC 8949), requires jackson-dataformat-cbor.
+ */
+public final class CborPayloadCodec extends JacksonPayloadCodec {
+    public static final String NAME = "cbor";
+
+    public CborPayloadCodec() {
+        super(NAME, CBORMapper.builder().findAndAddModules().build());
+    }
+}
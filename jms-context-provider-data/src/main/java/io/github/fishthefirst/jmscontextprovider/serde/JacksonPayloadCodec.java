@@ -0,0 +1,36 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * A {@link PayloadCodec} backed by a Jackson {@link ObjectMapper}, for any data format Jackson supports.
+ */
+public class JacksonPayloadCodec implements PayloadCodec {
+    private final String name;
+    private final ObjectMapper objectMapper;
+
+    public JacksonPayloadCodec(String name, ObjectMapper objectMapper) {
+        Objects.requireNonNull(name, "Codec name cannot be null");
+        Objects.requireNonNull(objectMapper, "Object mapper cannot be null");
+        this.name = name;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(Object payload) throws IOException {
+        return objectMapper.writerFor(payload.getClass()).writeValueAsBytes(payload);
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type) throws IOException {
+        return objectMapper.readValue(bytes, type);
+    }
+}
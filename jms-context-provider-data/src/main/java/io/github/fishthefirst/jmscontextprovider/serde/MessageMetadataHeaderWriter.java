@@ -0,0 +1,53 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+
+import java.util.Objects;
+
+/**
+ * Writes the envelope metadata as message properties instead of into the body, see {@link MessageMetadataProperties}.
+ * Use it as the producer's pre-processor along with a marshaller that writes the raw payload.
+ */
+public final class MessageMetadataHeaderWriter<T> implements MessageProcessor<T> {
+    private final MessageProcessor<T> next;
+    private final boolean alwaysEncodeAsString;
+    private final String codecName;
+
+    public MessageMetadataHeaderWriter(boolean alwaysEncodeAsString) {
+        this(null, alwaysEncodeAsString);
+    }
+
+    /**
+     * @param next A pre-processor to run after the metadata has been written, may be null
+     */
+    public MessageMetadataHeaderWriter(MessageProcessor<T> next, boolean alwaysEncodeAsString) {
+        this(next, alwaysEncodeAsString, null);
+    }
+
+    /**
+     * @param next      A pre-processor to run after the metadata has been written, may be null
+     * @param codecName The {@link PayloadCodec} the body is encoded with, or null for text bodies
+     */
+    public MessageMetadataHeaderWriter(MessageProcessor<T> next, boolean alwaysEncodeAsString, String codecName) {
+        this.next = next;
+        this.alwaysEncodeAsString = alwaysEncodeAsString;
+        this.codecName = codecName;
+    }
+
+    @Override
+    public void accept(Message message, T o) {
+        try {
+            message.setLongProperty(MessageMetadataProperties.SOURCE_DATE, System.currentTimeMillis());
+            message.setStringProperty(MessageMetadataProperties.CLASS_NAME, alwaysEncodeAsString ? String.class.getName() : o.getClass().getName());
+            if (Objects.nonNull(codecName)) {
+                message.setStringProperty(MessageMetadataProperties.CODEC, codecName);
+            }
+        } catch (JMSException e) {
+            throw new IllegalStateException("Failed to write metadata properties", e);
+        }
+        if (Objects.nonNull(next)) {
+            next.accept(message, o);
+        }
+    }
+}
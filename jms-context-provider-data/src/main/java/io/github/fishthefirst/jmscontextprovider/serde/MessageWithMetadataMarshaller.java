@@ -1,25 +1,33 @@
 package io.github.fishthefirst.jmscontextprovider.serde;
 
-import io.github.fishthefirst.jmscontextprovider.data.MessageWithMetadata;
+import io.github.fishthefirst.jmscontextprovider.data.MessageWithMetadataWriter;
 
 import java.time.Instant;
 import java.util.Objects;
 
 public final class MessageWithMetadataMarshaller<T> implements ObjectToStringMarshaller<T> {
-    private final ObjectToStringMarshaller<T> objectToStringMarshaller;
+    private final PayloadWriter<T> payloadWriter;
     private final boolean alwaysEncodeAsString;
 
     public MessageWithMetadataMarshaller(ObjectToStringMarshaller<T> objectToStringMarshaller, boolean alwaysEncodeAsString) {
         Objects.requireNonNull(objectToStringMarshaller, "Object to String Marshaller cannot be null");
-        this.objectToStringMarshaller = objectToStringMarshaller;
+        this.payloadWriter = (o, writer) -> writer.append(Objects.requireNonNull(objectToStringMarshaller.marshal(o), "Serializer returned null"));
+        this.alwaysEncodeAsString = alwaysEncodeAsString;
+    }
+
+    /**
+     * @param payloadWriter Streams the payload straight into the envelope, e.g. {@code (o, writer) -> objectMapper.writeValue(writer, o)}
+     */
+    public MessageWithMetadataMarshaller(PayloadWriter<T> payloadWriter, boolean alwaysEncodeAsString) {
+        Objects.requireNonNull(payloadWriter, "Payload writer cannot be null");
+        this.payloadWriter = payloadWriter;
         this.alwaysEncodeAsString = alwaysEncodeAsString;
     }
 
     @Override
     public String marshal(T o) {
         try {
-            String serialized = Objects.requireNonNull(objectToStringMarshaller.marshal(o), "Serializer returned null");
-            return new MessageWithMetadata(Instant.now(), serialized, alwaysEncodeAsString ? String.class.getName() : o.getClass().getName()).toStringPayload();
+            return MessageWithMetadataWriter.write(Instant.now(), alwaysEncodeAsString ? String.class.getName() : o.getClass().getName(), o, payloadWriter);
         } catch (Exception e) {
             throw new RuntimeException("Exception thrown while serializing", e);
         }
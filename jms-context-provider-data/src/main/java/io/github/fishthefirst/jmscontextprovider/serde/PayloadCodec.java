@@ -0,0 +1,18 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import java.io.IOException;
+
+/**
+ * Encodes payloads to and from bytes, for {@link jakarta.jms.BytesMessage} bodies.
+ * <p>
+ * Codecs are looked up by name, which is recorded in the {@link MessageMetadataProperties#CODEC} property of every message,
+ * so consumers can decode messages from producers that use a different codec. Implementations listed in
+ * {@code META-INF/services/io.github.fishthefirst.jmscontextprovider.serde.PayloadCodec} are registered by {@link PayloadCodecs}.
+ */
+public interface PayloadCodec {
+    String getName();
+
+    byte[] encode(Object payload) throws IOException;
+
+    <T> T decode(byte[] bytes, Class<T> type) throws IOException;
+}
@@ -0,0 +1,29 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import java.util.Objects;
+
+/**
+ * Encodes payloads with a {@link PayloadCodec}. Pair it with a {@link MessageMetadataHeaderWriter} for the same codec,
+ * so consumers know how to decode the body.
+ */
+public final class PayloadCodecMarshaller<T> implements ObjectToBytesMarshaller<T> {
+    private final PayloadCodec codec;
+
+    public PayloadCodecMarshaller(PayloadCodec codec) {
+        Objects.requireNonNull(codec, "Codec cannot be null");
+        this.codec = codec;
+    }
+
+    public PayloadCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    public byte[] marshal(T o) {
+        try {
+            return codec.encode(o);
+        } catch (Exception e) {
+            throw new RuntimeException("Exception thrown while encoding with codec " + codec.getName(), e);
+        }
+    }
+}
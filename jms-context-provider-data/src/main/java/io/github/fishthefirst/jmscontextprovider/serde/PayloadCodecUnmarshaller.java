@@ -0,0 +1,45 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import jakarta.jms.Message;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Decodes messages with the codec named in their {@link MessageMetadataProperties#CODEC} property,
+ * and hands messages without one to a text unmarshaller, so consumers can read from producers migrating between codecs.
+ */
+public final class PayloadCodecUnmarshaller<T> implements MessageToObjectUnmarshaller<T> {
+    private final PayloadCodecs codecs;
+    private final Function<String, Class<?>> typeResolver;
+    private final MessageToObjectUnmarshaller<T> textUnmarshaller;
+
+    /**
+     * @param typeResolver     Resolves the payload class name, and should reject classes that must not be instantiated
+     * @param textUnmarshaller Unmarshals messages that were not encoded with a codec
+     */
+    public PayloadCodecUnmarshaller(PayloadCodecs codecs,
+                                    Function<String, Class<?>> typeResolver,
+                                    MessageToObjectUnmarshaller<T> textUnmarshaller) {
+        Objects.requireNonNull(codecs, "Codecs cannot be null");
+        Objects.requireNonNull(typeResolver, "Type resolver cannot be null");
+        Objects.requireNonNull(textUnmarshaller, "Text unmarshaller cannot be null");
+        this.codecs = codecs;
+        this.typeResolver = typeResolver;
+        this.textUnmarshaller = textUnmarshaller;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T unmarshal(Message message, String body) throws Exception {
+        String codecName = message.getStringProperty(MessageMetadataProperties.CODEC);
+        if (Objects.isNull(codecName)) {
+            return textUnmarshaller.unmarshal(message, body);
+        }
+        String className = message.getStringProperty(MessageMetadataProperties.CLASS_NAME);
+        if (Objects.isNull(className)) {
+            throw new IllegalArgumentException("Message encoded with codec " + codecName + " has no class name property");
+        }
+        return (T) codecs.get(codecName).decode(message.getBody(byte[].class), typeResolver.apply(className));
+    }
+}
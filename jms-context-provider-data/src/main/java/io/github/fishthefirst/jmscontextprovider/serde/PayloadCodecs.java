@@ -0,0 +1,62 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry of {@link PayloadCodec}s by name.
+ */
+public final class PayloadCodecs {
+    private final Map<String, PayloadCodec> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * @return a registry holding every codec found through the {@link ServiceLoader} whose dependencies are present
+     */
+    public static PayloadCodecs loadInstalled() {
+        PayloadCodecs payloadCodecs = new PayloadCodecs();
+        Iterator<PayloadCodec> iterator = ServiceLoader.load(PayloadCodec.class).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                payloadCodecs.register(iterator.next());
+            } catch (ServiceConfigurationError | LinkageError e) {
+                // The built-in Jackson codecs are skipped when their optional dependencies are missing
+            }
+        }
+        return payloadCodecs;
+    }
+
+    /**
+     * Registers a codec, replacing any codec registered under the same name.
+     */
+    public void register(PayloadCodec codec) {
+        Objects.requireNonNull(codec, "Codec cannot be null");
+        codecs.put(codec.getName(), codec);
+    }
+
+    /**
+     * @throws IllegalArgumentException if no codec is registered under that name
+     */
+    public PayloadCodec get(String name) {
+        PayloadCodec codec = codecs.get(name);
+        if (Objects.isNull(codec)) {
+            throw new IllegalArgumentException("No payload codec registered as " + name);
+        }
+        return codec;
+    }
+
+    public boolean contains(String name) {
+        return codecs.containsKey(name);
+    }
+
+    public Collection<PayloadCodec> getAll() {
+        return codecs.values();
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * CBOR with objects written as arrays of their property values, in alphabetical property order, so property names
+ * are kept out of every message. The payload class acts as the schema: producers and consumers must use versions of it
+ * with the same properties. Requires jackson-dataformat-cbor.
+ */
+public final class PositionalCborPayloadCodec extends JacksonPayloadCodec {
+    public static final String NAME = "cbor-positional";
+
+    public PositionalCborPayloadCodec() {
+        super(NAME, CBORMapper.builder()
+                .findAndAddModules()
+                .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .annotationIntrospector(new PositionalIntrospector())
+                .build());
+    }
+
+    private static final class PositionalIntrospector extends JacksonAnnotationIntrospector {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public JsonFormat.Value findFormat(Annotated annotated) {
+            JsonFormat.Value format = super.findFormat(annotated);
+            if (annotated instanceof AnnotatedClass annotatedClass && isBean(annotatedClass.getRawType()) &&
+                    (Objects.isNull(format) || format.getShape() == JsonFormat.Shape.ANY)) {
+                return JsonFormat.Value.forShape(JsonFormat.Shape.ARRAY);
+            }
+            return format;
+        }
+
+        private static boolean isBean(Class<?> type) {
+            String name = type.getName();
+            return !type.isPrimitive() && !type.isArray() && !type.isEnum() &&
+                    !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type) &&
+                    !name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("com.fasterxml.jackson.");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Jackson's binary JSON format, which also back-references repeated property names, requires jackson-dataformat-smile.
+ */
+public final class SmilePayloadCodec extends JacksonPayloadCodec {
+    public static final String NAME = "smile";
+
+    public SmilePayloadCodec() {
+        super(NAME, SmileMapper.builder().findAndAddModules().build());
+    }
+}
@@ -1,9 +1,23 @@
 package io.github.fishthefirst.data;
 
 import io.github.fishthefirst.jmscontextprovider.data.MessageWithMetadata;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageMetadataHeaderWriter;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageMetadataProperties;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageWithMetadataMarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.PayloadWriter;
+import jakarta.jms.Message;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Proxy;
+import java.nio.CharBuffer;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class MessageWithMetadataTest {
 
@@ -18,4 +32,122 @@ class MessageWithMetadataTest {
             new String(recvMessage.getPayload());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void parsesEscapedFieldsInAnyOrder() {
+        String envelope = "{ \"payload\" : \"{\\\"a\\\": \\\"b, c\\\\d\\\"}\\n\\u00e9\", \"className\": \"com.example.A,B\", \"sourceDate\": \"2024-01-02T03:04:05Z\" }";
+
+        MessageWithMetadata message = MessageWithMetadata.parse(envelope);
+
+        assertEquals(Instant.parse("2024-01-02T03:04:05Z"), message.getSourceDate());
+        assertEquals("com.example.A,B", message.getPayloadClassName());
+        assertEquals("{\"a\": \"b, c\\d\"}\né", message.getPayload());
+        assertEquals(message.getPayload(), message.getPayloadView().toString());
+    }
+
+    @Test
+    void payloadReaderUnescapesAsItReads() throws IOException {
+        String envelope = "{\"sourceDate\": \"2024-01-02T03:04:05Z\", \"className\": \"java.lang.Object\", \"payload\": \"{\\\"a\\\": \\\"b\\\\c\\\"}\\t\\u00e9\"}";
+
+        MessageWithMetadata message = MessageWithMetadata.parse(envelope);
+        StringBuilder read = new StringBuilder();
+        Reader reader = message.getPayloadReader();
+        // A small buffer so escapes straddle reads
+        char[] buffer = new char[3];
+        for (int count; (count = reader.read(buffer)) >= 0; ) {
+            read.append(buffer, 0, count);
+        }
+
+        assertEquals("{\"a\": \"b\\c\"}\té", read.toString());
+        assertEquals(message.getPayload(), read.toString());
+    }
+
+    @Test
+    void nestedEnvelopeDoesNotOverwriteTheOuterOne() {
+        Instant sourceDate = Instant.parse("2024-01-02T03:04:05Z");
+        // The inner marshaller writes an envelope of its own while the outer envelope is being written
+        MessageWithMetadataMarshaller<String> marshaller = new MessageWithMetadataMarshaller<>(
+                (String o) -> new MessageWithMetadata(sourceDate, o, "com.example.Inner").toStringPayload(), false);
+
+        MessageWithMetadata outer = MessageWithMetadata.parse(marshaller.marshal("{\"a\":1}"));
+        MessageWithMetadata inner = MessageWithMetadata.parse(outer.getPayload());
+
+        assertEquals(String.class.getName(), outer.getPayloadClassName());
+        assertEquals("com.example.Inner", inner.getPayloadClassName());
+        assertEquals("{\"a\":1}", inner.getPayload());
+    }
+
+    @Test
+    void payloadViewIsNotCopied() {
+        char[] envelope = "{\"sourceDate\": \"2024-01-02T03:04:05Z\", \"className\": \"java.lang.String\", \"payload\": \"plain payload\"}".toCharArray();
+
+        MessageWithMetadata message = MessageWithMetadata.parse(CharBuffer.wrap(envelope));
+        CharSequence view = message.getPayloadView();
+        assertEquals("plain payload", view.toString());
+
+        // The view reads through to the envelope's buffer
+        envelope[new String(envelope).indexOf("plain")] = 'P';
+        assertEquals("Plain payload", view.toString());
+    }
+
+    @Test
+    void parsesLegacyUnescapedPayload() {
+        String envelope = "{\"sourceDate\": \"2024-01-02T03:04:05Z\", \"className\": \"java.lang.Object\", \"payload\": \"{\"a\": \"b\"}\"}";
+
+        MessageWithMetadata message = new MessageWithMetadata(envelope);
+
+        assertEquals("{\"a\": \"b\"}", message.getPayload());
+        assertEquals("java.lang.Object", message.getPayloadClassName());
+    }
+
+    @Test
+    void rejectsInvalidEnvelope() {
+        assertThrows(IllegalArgumentException.class, () -> new MessageWithMetadata("{\"sourceDate\": \"2024-01-02T03:04:05Z\", \"payload\": \"x\"}"));
+        assertThrows(IllegalArgumentException.class, () -> new MessageWithMetadata("not an envelope"));
+    }
+
+    @Test
+    void writtenEnvelopeRoundTripsEscapedPayload() {
+        String payload = "{\"a\": \"b\\c\"}\n\u0001";
+        Instant sourceDate = Instant.parse("2024-01-02T03:04:05.123Z");
+
+        String envelope = new MessageWithMetadata(sourceDate, payload, "com.example.\"Quoted\"").toStringPayload();
+        MessageWithMetadata message = new MessageWithMetadata(envelope);
+
+        assertEquals("{\"sourceDate\": \"2024-01-02T03:04:05.123Z\", \"className\": \"com.example.\\\"Quoted\\\"\", " +
+                "\"payload\": \"{\\\"a\\\": \\\"b\\\\c\\\"}\\n\\u0001\"}", envelope);
+        assertEquals(payload, message.getPayload());
+        assertEquals(sourceDate, message.getSourceDate());
+        assertEquals("com.example.\"Quoted\"", message.getPayloadClassName());
+    }
+
+    @Test
+    void marshallerStreamsPayloadIntoSingleEnvelope() {
+        MessageWithMetadataMarshaller<Integer> marshaller = new MessageWithMetadataMarshaller<>(
+                (PayloadWriter<Integer>) (o, writer) -> writer.write("{\"value\": " + o + "}"), false);
+
+        MessageWithMetadata message = new MessageWithMetadata(marshaller.marshal(42));
+
+        assertEquals("{\"value\": 42}", message.getPayload());
+        assertEquals(Integer.class.getName(), message.getPayloadClassName());
+    }
+
+    @Test
+    void metadataIsReadFromHeadersWhenPresent() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        Message jmsMessage = (Message) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Message.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "setLongProperty", "setStringProperty" -> properties.put((String) args[0], args[1]);
+            case "getStringProperty" -> properties.get((String) args[0]);
+            case "getLongProperty" -> properties.get((String) args[0]);
+            case "propertyExists" -> properties.containsKey((String) args[0]);
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+
+        new MessageMetadataHeaderWriter<Integer>(false).accept(jmsMessage, 42);
+        MessageWithMetadata message = MessageWithMetadata.fromMessage(jmsMessage, "42");
+
+        assertEquals("42", message.getPayload());
+        assertEquals(Integer.class.getName(), message.getPayloadClassName());
+        assertEquals(properties.get(MessageMetadataProperties.SOURCE_DATE), message.getSourceDate().toEpochMilli());
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.fishthefirst.data;
+
+import io.github.fishthefirst.jmscontextprovider.serde.PayloadCodec;
+import io.github.fishthefirst.jmscontextprovider.serde.PayloadCodecs;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadCodecsTest {
+
+    @Test
+    void installedCodecsRoundTrip() throws IOException {
+        PayloadCodecs codecs = PayloadCodecs.loadInstalled();
+        Order order = new Order("order-1", 3, List.of("a", "b"));
+
+        for (String name : List.of("cbor", "smile", "cbor-positional")) {
+            PayloadCodec codec = codecs.get(name);
+            assertEquals(order, codec.decode(codec.encode(order), Order.class), name);
+        }
+        assertThrows(IllegalArgumentException.class, () -> codecs.get("avro"));
+    }
+
+    @Test
+    void positionalCodecLeavesFieldNamesOut() throws IOException {
+        PayloadCodecs codecs = PayloadCodecs.loadInstalled();
+        Order order = new Order("order-1", 3, List.of("a", "b"));
+
+        byte[] named = codecs.get("cbor").encode(order);
+        byte[] positional = codecs.get("cbor-positional").encode(order);
+
+        assertTrue(positional.length < named.length);
+    }
+
+    public static final class Order {
+        private String id;
+        private int quantity;
+        private List<String> lines;
+
+        public Order() {
+        }
+
+        Order(String id, int quantity, List<String> lines) {
+            this.id = id;
+            this.quantity = quantity;
+            this.lines = lines;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        public void setLines(List<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Order other && quantity == other.quantity
+                    && Objects.equals(id, other.id) && Objects.equals(lines, other.lines);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, quantity, lines);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.fishthefirst.jmscontextprovider.handlers;
+
+import java.util.function.Function;
+
+/**
+ * Answers a request, an exception thrown is sent back to the requester as an error reply.
+ */
+@FunctionalInterface
+public interface RequestHandler<Q, R> extends Function<Q, R> {}
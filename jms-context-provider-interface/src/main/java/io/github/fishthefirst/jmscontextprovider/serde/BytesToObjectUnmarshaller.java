@@ -0,0 +1,6 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+@FunctionalInterface
+public interface BytesToObjectUnmarshaller<T> {
+    T unmarshal(byte[] bytes);
+}
@@ -0,0 +1,23 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+/**
+ * Names of the JMS message properties that carry envelope metadata when it is sent as headers instead of in the body.
+ * They can be used in message selectors, e.g. {@code metadataClassName = 'com.example.OrderCreated'}.
+ */
+public final class MessageMetadataProperties {
+    /**
+     * The time the message was produced at, in milliseconds since the epoch, as a long property.
+     */
+    public static final String SOURCE_DATE = "metadataSourceDate";
+    /**
+     * The fully qualified class name of the payload, as a String property.
+     */
+    public static final String CLASS_NAME = "metadataClassName";
+    /**
+     * The name of the codec a binary payload was encoded with, as a String property.
+     */
+    public static final String CODEC = "metadataCodec";
+
+    private MessageMetadataProperties() {
+    }
+}
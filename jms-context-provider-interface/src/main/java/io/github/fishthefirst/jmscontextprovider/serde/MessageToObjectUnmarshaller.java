@@ -0,0 +1,11 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import jakarta.jms.Message;
+
+/**
+ * Unmarshals a message body with access to the message itself, e.g. to read metadata from its properties.
+ */
+@FunctionalInterface
+public interface MessageToObjectUnmarshaller<T> {
+    T unmarshal(Message message, String body) throws Exception;
+}
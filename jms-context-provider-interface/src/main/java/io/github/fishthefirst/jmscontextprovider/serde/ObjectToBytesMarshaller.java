@@ -0,0 +1,6 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+@FunctionalInterface
+public interface ObjectToBytesMarshaller<T> {
+    byte[] marshal(T object);
+}
@@ -0,0 +1,13 @@
+package io.github.fishthefirst.jmscontextprovider.serde;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams an object's serialized form into a writer, instead of returning it as a String.
+ * The writer must not be closed by the implementation, closing it has no effect.
+ */
+@FunctionalInterface
+public interface PayloadWriter<T> {
+    void write(T object, Writer writer) throws IOException;
+}
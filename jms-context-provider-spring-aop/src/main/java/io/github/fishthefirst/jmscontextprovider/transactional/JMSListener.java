@@ -0,0 +1,52 @@
+package io.github.fishthefirst.jmscontextprovider.transactional;
+
+import io.github.fishthefirst.jmscontextprovider.enums.JMSConsumerBehaviour;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a single argument method as the callback of consumers on the given destination.
+ * The consumers are created by {@link JMSListenerBeanPostProcessor} and started once the context has been refreshed.
+ * String attributes may hold property placeholders.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JMSListener {
+    String destination();
+
+    boolean topic() default false;
+
+    /**
+     * Required for topics, where it names the durable subscription. Listeners on a topic without one fail at startup.
+     */
+    String consumerName() default "";
+
+    String selector() default "";
+
+    /**
+     * The number of consumers, each with its own session. Topics only support 1.
+     */
+    int concurrency() default 1;
+
+    /**
+     * The number of messages acknowledged together, see {@link io.github.fishthefirst.jmscontextprovider.jms.JMSConsumer#setCommitBatchSize(int)}.
+     */
+    int batchSize() default 1;
+
+    /**
+     * The age of a partial batch after which the next delivery acknowledges it, in milliseconds,
+     * see {@link io.github.fishthefirst.jmscontextprovider.jms.JMSConsumer#setCommitBatchDelay(int)}.
+     */
+    int batchDelay() default 100;
+
+    JMSConsumerBehaviour onConsumeFail() default JMSConsumerBehaviour.ROLLBACK;
+
+    /**
+     * Applies to payloads that cannot be unmarshalled, or whose type the method does not take. Redelivering them
+     * would fail the same way, so they are discarded by default.
+     */
+    JMSConsumerBehaviour onUnmarshalFail() default JMSConsumerBehaviour.DISCARD;
+}
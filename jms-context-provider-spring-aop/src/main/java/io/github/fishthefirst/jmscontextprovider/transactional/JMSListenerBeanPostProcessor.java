@@ -0,0 +1,213 @@
+package io.github.fishthefirst.jmscontextprovider.transactional;
+
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConsumer;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSContextAwareComponentFactory;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSLatencyMetrics;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.utils.CustomizableThreadFactory;
+import jakarta.jms.JMSContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EmbeddedValueResolverAware;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringValueResolver;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Creates the consumers of {@link JMSListener} methods and runs them with the context's lifecycle.
+ * <p>
+ * Consumers use client acknowledged sessions and share one scheduler for their (re)starts and batch commits,
+ * so a large number of listeners does not cost a thread each. They are only started once the context has been refreshed,
+ * so no message reaches a bean before the application is fully wired.
+ */
+public final class JMSListenerBeanPostProcessor implements BeanPostProcessor, SmartLifecycle, EmbeddedValueResolverAware, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(JMSListenerBeanPostProcessor.class);
+
+    // Constructor vars
+    private final ObjectProvider<JMSConnectionContextHolder> connectionContextHolder;
+    private final ObjectProvider<MessageToObjectUnmarshaller<?>> messageToObjectUnmarshaller;
+    private final int schedulerThreads;
+
+    // Object vars
+    private final List<ListenerEndpoint> endpoints = new ArrayList<>();
+    private final List<JMSConsumer<Object>> consumers = new ArrayList<>();
+    private final JMSLatencyMetrics latencyMetrics = new JMSLatencyMetrics();
+    private StringValueResolver valueResolver;
+    private ScheduledExecutorService scheduler;
+    private boolean running;
+
+    public JMSListenerBeanPostProcessor(ObjectProvider<JMSConnectionContextHolder> connectionContextHolder,
+                                        ObjectProvider<MessageToObjectUnmarshaller<?>> messageToObjectUnmarshaller,
+                                        int schedulerThreads) {
+        Objects.requireNonNull(connectionContextHolder, "JMS Connection Context Holder provider cannot be null");
+        Objects.requireNonNull(messageToObjectUnmarshaller, "Unmarshaller provider cannot be null");
+        if (schedulerThreads < 1) {
+            throw new IllegalArgumentException("Scheduler threads cannot be less than 1");
+        }
+        this.connectionContextHolder = connectionContextHolder;
+        this.messageToObjectUnmarshaller = messageToObjectUnmarshaller;
+        this.schedulerThreads = schedulerThreads;
+    }
+
+    @Override
+    public void setEmbeddedValueResolver(StringValueResolver valueResolver) {
+        this.valueResolver = valueResolver;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Map<Method, JMSListener> annotatedMethods = MethodIntrospector.selectMethods(targetClass,
+                (MethodIntrospector.MetadataLookup<JMSListener>) method -> AnnotatedElementUtils.findMergedAnnotation(method, JMSListener.class));
+        for (Map.Entry<Method, JMSListener> entry : annotatedMethods.entrySet()) {
+            Method method = entry.getKey();
+            if (method.getParameterCount() != 1) {
+                throw new IllegalStateException("@JMSListener method " + method + " must take exactly one argument");
+            }
+            JMSListener listener = entry.getValue();
+            if (listener.concurrency() < 1) {
+                throw new IllegalStateException("@JMSListener concurrency of " + method + " cannot be less than 1");
+            }
+            if (listener.topic() && listener.concurrency() > 1) {
+                throw new IllegalStateException("@JMSListener " + method + " cannot consume a topic with more than one consumer");
+            }
+            if (listener.topic() && resolve(listener.consumerName()).isEmpty()) {
+                throw new IllegalStateException("@JMSListener " + method + " must name its durable subscription with consumerName to consume a topic");
+            }
+            Method invocableMethod = AopUtils.selectInvocableMethod(method, bean.getClass());
+            ReflectionUtils.makeAccessible(invocableMethod);
+            synchronized (this) {
+                endpoints.add(new ListenerEndpoint(bean, beanName, invocableMethod, listener));
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (consumers.isEmpty() && !endpoints.isEmpty()) {
+            scheduler = Executors.newScheduledThreadPool(schedulerThreads, CustomizableThreadFactory.getInstance(this));
+            for (ListenerEndpoint endpoint : endpoints) {
+                createConsumers(endpoint);
+            }
+        }
+        for (JMSConsumer<Object> consumer : consumers) {
+            consumer.start();
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        for (JMSConsumer<Object> consumer : consumers) {
+            consumer.stop();
+        }
+        running = false;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        for (JMSConsumer<Object> consumer : consumers) {
+            consumer.close();
+        }
+        consumers.clear();
+        running = false;
+        if (Objects.nonNull(scheduler)) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public synchronized List<JMSConsumer<Object>> getConsumers() {
+        return List.copyOf(consumers);
+    }
+
+    /**
+     * @return the latencies of the listener consumers, recorded into one set of histograms per destination
+     */
+    public JMSLatencyMetrics getLatencyMetrics() {
+        return latencyMetrics;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createConsumers(ListenerEndpoint endpoint) {
+        JMSListener listener = endpoint.listener();
+        String destination = resolve(listener.destination());
+        String consumerName = resolve(listener.consumerName());
+        String selector = resolve(listener.selector());
+        MessageToObjectUnmarshaller<Object> unmarshaller = (MessageToObjectUnmarshaller<Object>) messageToObjectUnmarshaller.getObject();
+        for (int i = 0; i < listener.concurrency(); i++) {
+            JMSConsumer<Object> consumer = JMSContextAwareComponentFactory.createConsumer(
+                    connectionContextHolder.getObject(),
+                    endpoint::invoke,
+                    // A payload the method cannot take fails to unmarshal, instead of failing the callback on every redelivery
+                    (message, body) -> endpoint.checkType(unmarshaller.unmarshal(message, body)),
+                    destination,
+                    listener.topic(),
+                    selector.isEmpty() ? null : selector,
+                    consumerName.isEmpty() ? null : consumerName,
+                    JMSContext.CLIENT_ACKNOWLEDGE,
+                    scheduler);
+            consumer.setCommitBatchSize(listener.batchSize());
+            consumer.setCommitBatchDelay(listener.batchDelay());
+            consumer.setOnConsumeFailBehaviour(listener.onConsumeFail());
+            consumer.setOnUnmarshallFailBehaviour(listener.onUnmarshalFail());
+            consumer.setLatencyMetrics(latencyMetrics);
+            consumers.add(consumer);
+        }
+        log.info("Created {} consumer(s) on destination {} for {}.{}",
+                listener.concurrency(), destination, endpoint.beanName(), endpoint.method().getName());
+    }
+
+    private String resolve(String value) {
+        return Objects.isNull(valueResolver) ? value : Objects.requireNonNullElse(valueResolver.resolveStringValue(value), "");
+    }
+
+    private record ListenerEndpoint(Object bean, String beanName, Method method, JMSListener listener) {
+        Object checkType(Object payload) {
+            Class<?> parameterType = method.getParameterTypes()[0];
+            if (Objects.isNull(payload) ? parameterType.isPrimitive() : !ClassUtils.resolvePrimitiveIfNecessary(parameterType).isInstance(payload)) {
+                throw new IllegalArgumentException("Payload of type " + (Objects.isNull(payload) ? null : payload.getClass().getName()) +
+                        " cannot be passed to " + method);
+            }
+            return payload;
+        }
+
+        void invoke(Object payload) {
+            try {
+                method.invoke(bean, payload);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package io.github.fishthefirst.jmscontextprovider.transactional;
 
+import io.github.fishthefirst.jmscontextprovider.enums.JMSPropagation;
+import io.github.fishthefirst.jmscontextprovider.exceptions.JMSCommitException;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSCommitResult;
 import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerTransactionManager;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSSuspendedTransaction;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 @Aspect
 @Component
 public final class JMSTransactionContextAspect {
@@ -18,19 +25,72 @@ public final class JMSTransactionContextAspect {
 
     @Around("@annotation(JMSTransactional)")
     public Object wrapWithTransaction(ProceedingJoinPoint joinPoint, JMSTransactional jmsTransactional) throws Throwable {
+        if (jmsTransactional.propagation() == JMSPropagation.REQUIRES_NEW) {
+            return runInNewTransaction(transactionManager, joinPoint, jmsTransactional);
+        }
+        // Inner calls share the outer call's session, only the outermost call commits
+        if (transactionManager.joinTransaction()) {
+            boolean failed = true;
+            try {
+                Object proceed = joinPoint.proceed();
+                failed = false;
+                return proceed;
+            } finally {
+                transactionManager.leaveTransaction(failed);
+            }
+        }
+        return runInTransaction(joinPoint, jmsTransactional);
+    }
+
+    private <T> Object runInNewTransaction(JMSProducerTransactionManager<T> transactionManager,
+                                           ProceedingJoinPoint joinPoint,
+                                           JMSTransactional jmsTransactional) throws Throwable {
+        JMSSuspendedTransaction<T> suspended = transactionManager.suspend();
+        try {
+            return runInTransaction(joinPoint, jmsTransactional);
+        } finally {
+            transactionManager.resume(suspended);
+        }
+    }
+
+    private Object runInTransaction(ProceedingJoinPoint joinPoint, JMSTransactional jmsTransactional) throws Throwable {
         transactionManager.startTransaction();
+        Object proceed;
         try {
-            Object proceed = joinPoint.proceed();
-            if(jmsTransactional.async()) {
-                transactionManager.commitAsync();
-            }
-            else {
-                transactionManager.commit();
-            }
-            return proceed;
+            proceed = joinPoint.proceed();
         } catch (Throwable e) {
-            transactionManager.rollback();
+            transactionManager.rollbackTransaction();
             throw e;
         }
+        if(jmsTransactional.async()) {
+            CompletableFuture<? extends JMSCommitResult<?>> commit = transactionManager.commitAsync();
+            if (proceed instanceof CompletionStage<?> stage) {
+                return afterCommit(stage, commit);
+            }
+        }
+        else if (transactionManager.isRollbackOnly()) {
+            // An inner call failed and the method swallowed its exception, the caller must not take it for committed
+            JMSCommitResult<?> result = transactionManager.commitWithResult();
+            throw new JMSCommitException("Transaction of " + result.getMessageCount() +
+                    " message(s) was rolled back, an inner transactional call marked it rollback-only", result.getFailedObjects());
+        }
+        else {
+            transactionManager.commit();
+        }
+        return proceed;
+    }
+
+    /**
+     * Methods returning a CompletionStage get back a future that completes with their own result once the commit has
+     * succeeded, or fails with a {@link JMSCommitException}, so async callers can react to failed commits without blocking.
+     */
+    private static <V> CompletableFuture<V> afterCommit(CompletionStage<V> stage, CompletableFuture<? extends JMSCommitResult<?>> commit) {
+        return stage.toCompletableFuture().thenCombine(commit, (value, result) -> {
+            if (!result.isCommitted()) {
+                throw new JMSCommitException("Transaction of " + result.getMessageCount() + " message(s) was rolled back",
+                        result.getFailedObjects());
+            }
+            return value;
+        });
     }
 }
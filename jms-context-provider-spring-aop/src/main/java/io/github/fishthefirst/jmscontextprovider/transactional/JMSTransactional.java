@@ -1,12 +1,26 @@
 package io.github.fishthefirst.jmscontextprovider.transactional;
 
+import io.github.fishthefirst.jmscontextprovider.enums.JMSPropagation;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Runs the method in a JMS transaction, committed when the outermost transactional call returns.
+ * Failed sends go to the transaction manager's handlers and roll the transaction back without an exception.
+ * If a joined inner call threw and the outer method returned normally, the transaction is rolled back and the
+ * synchronous outer call throws a JMSCommitException, as it would otherwise look committed.
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface JMSTransactional {
+    /**
+     * Commits on the transaction manager's executor. If the method returns a CompletionStage, the caller gets back
+     * a future that completes once the commit has succeeded, or fails with a JMSCommitException.
+     */
     boolean async() default false;
+
+    JMSPropagation propagation() default JMSPropagation.REQUIRED;
 }
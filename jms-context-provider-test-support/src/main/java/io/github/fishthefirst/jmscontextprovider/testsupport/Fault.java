@@ -0,0 +1,24 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+/**
+ * The failures a {@link FaultInjector} can inject.
+ */
+public enum Fault {
+    /**
+     * Every open connection is closed and reports the failure to its exception listener, as if the broker went away.
+     * When injected every n operations, sends are counted.
+     */
+    DROP_CONNECTION,
+    /**
+     * The transaction is rolled back and commit throws.
+     */
+    FAIL_COMMIT,
+    /**
+     * The send waits for the injector's stall duration before going through.
+     */
+    STALL_SEND,
+    /**
+     * Recover throws without putting anything back for redelivery.
+     */
+    FAIL_RECOVER
+}
@@ -0,0 +1,79 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.JMSRuntimeException;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The connection shared by a context created from a wrapped factory and the contexts created from it.
+ */
+final class FaultInjectingConnection {
+    private final FaultInjector injector;
+    private final Set<JMSContext> contexts = ConcurrentHashMap.newKeySet();
+    private volatile ExceptionListener exceptionListener;
+    private volatile boolean dropped;
+
+    FaultInjectingConnection(FaultInjector injector) {
+        this.injector = injector;
+    }
+
+    FaultInjector getInjector() {
+        return injector;
+    }
+
+    void onContextCreated(JMSContext context) {
+        contexts.add(context);
+    }
+
+    /**
+     * The connection is closed once its last context is.
+     */
+    void onContextClosed(JMSContext context) {
+        contexts.remove(context);
+        if (contexts.isEmpty()) {
+            injector.onConnectionClosed(this);
+        }
+    }
+
+    ExceptionListener getExceptionListener() {
+        return exceptionListener;
+    }
+
+    void setExceptionListener(ExceptionListener exceptionListener) {
+        this.exceptionListener = exceptionListener;
+    }
+
+    void check() {
+        if (dropped) {
+            throw new JMSRuntimeException("Connection dropped by fault injection");
+        }
+    }
+
+    /**
+     * Closes the contexts of the real provider first, so unacknowledged messages are redelivered to whoever reconnects.
+     */
+    void drop() {
+        if (dropped) {
+            return;
+        }
+        dropped = true;
+        injector.onConnectionClosed(this);
+        for (JMSContext context : contexts) {
+            try {
+                context.close();
+            } catch (RuntimeException e) {
+                // The connection is being dropped anyway
+            }
+        }
+        contexts.clear();
+        ExceptionListener listener = exceptionListener;
+        if (Objects.nonNull(listener)) {
+            injector.notifyLater(listener, new JMSException("Connection dropped by fault injection"));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+
+/**
+ * Connections of the classic API are passed through untouched.
+ */
+final class FaultInjectingConnectionFactory implements ConnectionFactory {
+    private final FaultInjector injector;
+    private final ConnectionFactory delegate;
+
+    FaultInjectingConnectionFactory(FaultInjector injector, ConnectionFactory delegate) {
+        this.injector = injector;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public JMSContext createContext() {
+        return wrap(delegate.createContext());
+    }
+
+    @Override
+    public JMSContext createContext(String userName, String password) {
+        return wrap(delegate.createContext(userName, password));
+    }
+
+    @Override
+    public JMSContext createContext(String userName, String password, int sessionMode) {
+        return wrap(delegate.createContext(userName, password, sessionMode));
+    }
+
+    @Override
+    public JMSContext createContext(int sessionMode) {
+        return wrap(delegate.createContext(sessionMode));
+    }
+
+    @Override
+    public Connection createConnection() throws JMSException {
+        return delegate.createConnection();
+    }
+
+    @Override
+    public Connection createConnection(String userName, String password) throws JMSException {
+        return delegate.createConnection(userName, password);
+    }
+
+    private JMSContext wrap(JMSContext context) {
+        FaultInjectingConnection connection = new FaultInjectingConnection(injector);
+        injector.onConnect(connection);
+        return new FaultInjectingContext(connection, context);
+    }
+}
@@ -0,0 +1,306 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.ConnectionMetaData;
+import jakarta.jms.Destination;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSConsumer;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSProducer;
+import jakarta.jms.JMSRuntimeException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.ObjectMessage;
+import jakarta.jms.Queue;
+import jakarta.jms.QueueBrowser;
+import jakarta.jms.StreamMessage;
+import jakarta.jms.TemporaryQueue;
+import jakarta.jms.TemporaryTopic;
+import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+import jakarta.jms.TransactionRolledBackRuntimeException;
+
+import java.io.Serializable;
+
+/**
+ * Every operation fails once the connection has been dropped, commits and recovers fail when the injector says so.
+ */
+final class FaultInjectingContext implements JMSContext {
+    private final FaultInjectingConnection connection;
+    private final JMSContext delegate;
+
+    FaultInjectingContext(FaultInjectingConnection connection, JMSContext delegate) {
+        this.connection = connection;
+        this.delegate = delegate;
+        connection.onContextCreated(delegate);
+    }
+
+    @Override
+    public JMSContext createContext(int sessionMode) {
+        connection.check();
+        return new FaultInjectingContext(connection, delegate.createContext(sessionMode));
+    }
+
+    @Override
+    public JMSProducer createProducer() {
+        connection.check();
+        return new FaultInjectingProducer(connection, delegate.createProducer());
+    }
+
+    @Override
+    public String getClientID() {
+        connection.check();
+        return delegate.getClientID();
+    }
+
+    @Override
+    public void setClientID(String clientID) {
+        connection.check();
+        delegate.setClientID(clientID);
+    }
+
+    @Override
+    public ConnectionMetaData getMetaData() {
+        connection.check();
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public ExceptionListener getExceptionListener() {
+        connection.check();
+        return connection.getExceptionListener();
+    }
+
+    /**
+     * Failures of the real provider still reach the listener.
+     */
+    @Override
+    public void setExceptionListener(ExceptionListener listener) {
+        connection.check();
+        connection.setExceptionListener(listener);
+        delegate.setExceptionListener(listener);
+    }
+
+    @Override
+    public void start() {
+        connection.check();
+        delegate.start();
+    }
+
+    @Override
+    public void stop() {
+        connection.check();
+        delegate.stop();
+    }
+
+    @Override
+    public void setAutoStart(boolean autoStart) {
+        connection.check();
+        delegate.setAutoStart(autoStart);
+    }
+
+    @Override
+    public boolean getAutoStart() {
+        connection.check();
+        return delegate.getAutoStart();
+    }
+
+    /**
+     * Closing a context of a dropped connection is allowed, as it is on a real provider.
+     */
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            connection.onContextClosed(delegate);
+        }
+    }
+
+    @Override
+    public BytesMessage createBytesMessage() {
+        connection.check();
+        return delegate.createBytesMessage();
+    }
+
+    @Override
+    public MapMessage createMapMessage() {
+        connection.check();
+        return delegate.createMapMessage();
+    }
+
+    @Override
+    public Message createMessage() {
+        connection.check();
+        return delegate.createMessage();
+    }
+
+    @Override
+    public ObjectMessage createObjectMessage() {
+        connection.check();
+        return delegate.createObjectMessage();
+    }
+
+    @Override
+    public ObjectMessage createObjectMessage(Serializable object) {
+        connection.check();
+        return delegate.createObjectMessage(object);
+    }
+
+    @Override
+    public StreamMessage createStreamMessage() {
+        connection.check();
+        return delegate.createStreamMessage();
+    }
+
+    @Override
+    public TextMessage createTextMessage() {
+        connection.check();
+        return delegate.createTextMessage();
+    }
+
+    @Override
+    public TextMessage createTextMessage(String text) {
+        connection.check();
+        return delegate.createTextMessage(text);
+    }
+
+    @Override
+    public boolean getTransacted() {
+        connection.check();
+        return delegate.getTransacted();
+    }
+
+    @Override
+    public int getSessionMode() {
+        connection.check();
+        return delegate.getSessionMode();
+    }
+
+    @Override
+    public void commit() {
+        connection.check();
+        if (connection.getInjector().shouldInject(Fault.FAIL_COMMIT)) {
+            delegate.rollback();
+            throw new TransactionRolledBackRuntimeException("Commit failed by fault injection");
+        }
+        delegate.commit();
+    }
+
+    @Override
+    public void rollback() {
+        connection.check();
+        delegate.rollback();
+    }
+
+    @Override
+    public void recover() {
+        connection.check();
+        if (connection.getInjector().shouldInject(Fault.FAIL_RECOVER)) {
+            throw new JMSRuntimeException("Recover failed by fault injection");
+        }
+        delegate.recover();
+    }
+
+    @Override
+    public JMSConsumer createConsumer(Destination destination) {
+        connection.check();
+        return delegate.createConsumer(destination);
+    }
+
+    @Override
+    public JMSConsumer createConsumer(Destination destination, String messageSelector) {
+        connection.check();
+        return delegate.createConsumer(destination, messageSelector);
+    }
+
+    @Override
+    public JMSConsumer createConsumer(Destination destination, String messageSelector, boolean noLocal) {
+        connection.check();
+        return delegate.createConsumer(destination, messageSelector, noLocal);
+    }
+
+    @Override
+    public Queue createQueue(String queueName) {
+        connection.check();
+        return delegate.createQueue(queueName);
+    }
+
+    @Override
+    public Topic createTopic(String topicName) {
+        connection.check();
+        return delegate.createTopic(topicName);
+    }
+
+    @Override
+    public JMSConsumer createDurableConsumer(Topic topic, String name) {
+        connection.check();
+        return delegate.createDurableConsumer(topic, name);
+    }
+
+    @Override
+    public JMSConsumer createDurableConsumer(Topic topic, String name, String messageSelector, boolean noLocal) {
+        connection.check();
+        return delegate.createDurableConsumer(topic, name, messageSelector, noLocal);
+    }
+
+    @Override
+    public JMSConsumer createSharedDurableConsumer(Topic topic, String name) {
+        connection.check();
+        return delegate.createSharedDurableConsumer(topic, name);
+    }
+
+    @Override
+    public JMSConsumer createSharedDurableConsumer(Topic topic, String name, String messageSelector) {
+        connection.check();
+        return delegate.createSharedDurableConsumer(topic, name, messageSelector);
+    }
+
+    @Override
+    public JMSConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName) {
+        connection.check();
+        return delegate.createSharedConsumer(topic, sharedSubscriptionName);
+    }
+
+    @Override
+    public JMSConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName, String messageSelector) {
+        connection.check();
+        return delegate.createSharedConsumer(topic, sharedSubscriptionName, messageSelector);
+    }
+
+    @Override
+    public QueueBrowser createBrowser(Queue queue) {
+        connection.check();
+        return delegate.createBrowser(queue);
+    }
+
+    @Override
+    public QueueBrowser createBrowser(Queue queue, String messageSelector) {
+        connection.check();
+        return delegate.createBrowser(queue, messageSelector);
+    }
+
+    @Override
+    public TemporaryQueue createTemporaryQueue() {
+        connection.check();
+        return delegate.createTemporaryQueue();
+    }
+
+    @Override
+    public TemporaryTopic createTemporaryTopic() {
+        connection.check();
+        return delegate.createTemporaryTopic();
+    }
+
+    @Override
+    public void unsubscribe(String name) {
+        connection.check();
+        delegate.unsubscribe(name);
+    }
+
+    @Override
+    public void acknowledge() {
+        connection.check();
+        delegate.acknowledge();
+    }
+}
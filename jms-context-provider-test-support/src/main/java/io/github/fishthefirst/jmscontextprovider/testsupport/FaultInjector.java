@@ -0,0 +1,148 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSException;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Injects failures into any JMS provider through the connection factories it wraps.
+ * <p>
+ * A fault is injected once with {@link #inject(Fault)}, on every n-th operation it applies to with
+ * {@link #injectEvery(Fault, int)}, or periodically with {@link #schedule(Fault, long, TimeUnit)}.
+ * Only the simplified API of the wrapped factories goes through the injector.
+ */
+public final class FaultInjector implements AutoCloseable {
+    private static final int FAULT_COUNT = Fault.values().length;
+
+    private final Set<FaultInjectingConnection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLongArray armed = new AtomicLongArray(FAULT_COUNT);
+    private final AtomicLongArray intervals = new AtomicLongArray(FAULT_COUNT);
+    private final AtomicLongArray operations = new AtomicLongArray(FAULT_COUNT);
+    private final AtomicLongArray injected = new AtomicLongArray(FAULT_COUNT);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "fault-injector");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long stallNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    public ConnectionFactory wrap(ConnectionFactory connectionFactory) {
+        Objects.requireNonNull(connectionFactory, "Connection factory cannot be null");
+        return new FaultInjectingConnectionFactory(this, connectionFactory);
+    }
+
+    /**
+     * Drops the open connections right away, other faults apply to the next operation they concern.
+     */
+    public void inject(Fault fault) {
+        Objects.requireNonNull(fault, "Fault cannot be null");
+        if (fault == Fault.DROP_CONNECTION) {
+            injected.incrementAndGet(fault.ordinal());
+            dropConnections();
+        } else {
+            armed.incrementAndGet(fault.ordinal());
+        }
+    }
+
+    /**
+     * @param operations Inject the fault on every n-th operation it applies to, 0 to stop
+     */
+    public void injectEvery(Fault fault, int operations) {
+        Objects.requireNonNull(fault, "Fault cannot be null");
+        if (operations < 0) {
+            throw new IllegalArgumentException("Operations cannot be negative");
+        }
+        intervals.set(fault.ordinal(), operations);
+    }
+
+    /**
+     * Injects the fault once per period, until the returned future is cancelled or the injector is closed.
+     */
+    public ScheduledFuture<?> schedule(Fault fault, long period, TimeUnit unit) {
+        Objects.requireNonNull(fault, "Fault cannot be null");
+        return scheduler.scheduleAtFixedRate(() -> inject(fault), period, period, unit);
+    }
+
+    public void setStall(long stall, TimeUnit unit) {
+        if (stall < 0) {
+            throw new IllegalArgumentException("Stall cannot be negative");
+        }
+        stallNanos = unit.toNanos(stall);
+    }
+
+    public long getInjectedCount(Fault fault) {
+        return injected.get(fault.ordinal());
+    }
+
+    /**
+     * Disarms every fault, scheduled faults keep being injected.
+     */
+    public void reset() {
+        for (int i = 0; i < FAULT_COUNT; i++) {
+            armed.set(i, 0);
+            intervals.set(i, 0);
+            operations.set(i, 0);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    // Hooks of the decorators
+    void onConnect(FaultInjectingConnection connection) {
+        connections.add(connection);
+    }
+
+    void onConnectionClosed(FaultInjectingConnection connection) {
+        connections.remove(connection);
+    }
+
+    void beforeSend() {
+        if (shouldInject(Fault.DROP_CONNECTION)) {
+            dropConnections();
+        }
+        if (shouldInject(Fault.STALL_SEND)) {
+            long deadline = System.nanoTime() + stallNanos;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+
+    boolean shouldInject(Fault fault) {
+        int index = fault.ordinal();
+        long interval = intervals.get(index);
+        boolean inject = armed.getAndUpdate(index, n -> Math.max(0, n - 1)) > 0
+                || (interval > 0 && operations.incrementAndGet(index) % interval == 0);
+        if (inject) {
+            injected.incrementAndGet(index);
+        }
+        return inject;
+    }
+
+    /**
+     * Providers report failures from their own threads, so listeners are not called on the thread injecting the fault.
+     */
+    void notifyLater(ExceptionListener exceptionListener, JMSException exception) {
+        scheduler.execute(() -> exceptionListener.onException(exception));
+    }
+
+    private void dropConnections() {
+        for (FaultInjectingConnection connection : connections) {
+            connection.drop();
+        }
+    }
+}
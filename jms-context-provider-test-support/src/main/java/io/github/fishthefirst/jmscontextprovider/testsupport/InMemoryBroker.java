@@ -0,0 +1,366 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Destination;
+import jakarta.jms.IllegalStateRuntimeException;
+import jakarta.jms.InvalidClientIDRuntimeException;
+import jakarta.jms.InvalidDestinationRuntimeException;
+import jakarta.jms.JMSException;
+import jakarta.jms.JMSRuntimeException;
+import jakarta.jms.Queue;
+import jakarta.jms.Topic;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A JMS broker living in the JVM, for tests and benchmarks that need the library's real behaviour without a server.
+ * <p>
+ * Supports queues, topics, durable and shared subscriptions, temporary destinations, transactions and every
+ * acknowledge mode through the simplified API. Latency can be added to sends, commits and deliveries, and sends,
+ * commits and connects can be made to fail at a given rate. {@link #disconnect()} and {@link #setAvailable(boolean)}
+ * simulate losing the broker: open connections report the failure to their exception listener and unacknowledged
+ * messages are put back for redelivery.
+ * <p>
+ * Message selectors and delivery delays are not supported, and nothing is persisted.
+ */
+public final class InMemoryBroker {
+    private final Map<String, InMemoryMessageQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, List<InMemorySubscription>> topics = new ConcurrentHashMap<>();
+    private final Map<String, InMemorySubscription> namedSubscriptions = new ConcurrentHashMap<>();
+    private final Set<InMemoryConnection> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, InMemoryConnection> clientIds = new ConcurrentHashMap<>();
+    private final AtomicLong messageIds = new AtomicLong();
+    private final AtomicLong temporaryIds = new AtomicLong();
+    private final AtomicLong connectionIds = new AtomicLong();
+
+    // Counters
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder deliveredCount = new LongAdder();
+    private final LongAdder connectCount = new LongAdder();
+
+    // Faults
+    private volatile boolean available = true;
+    private volatile long sendLatencyNanos;
+    private volatile long commitLatencyNanos;
+    private volatile long deliveryLatencyNanos;
+    private volatile double sendFailureRate;
+    private volatile double commitFailureRate;
+    private volatile double connectFailureRate;
+
+    public ConnectionFactory createConnectionFactory() {
+        return new InMemoryConnectionFactory(this);
+    }
+
+    /**
+     * Added to every send, transacted or not, as the round trip to a broker would be.
+     */
+    public void setSendLatency(long latency, TimeUnit unit) {
+        sendLatencyNanos = toNanos(latency, unit);
+    }
+
+    public void setCommitLatency(long latency, TimeUnit unit) {
+        commitLatencyNanos = toNanos(latency, unit);
+    }
+
+    /**
+     * Added before each message is handed to a consumer.
+     */
+    public void setDeliveryLatency(long latency, TimeUnit unit) {
+        deliveryLatencyNanos = toNanos(latency, unit);
+    }
+
+    /**
+     * @param sendFailureRate Between 0 and 1, the share of sends that throw instead of sending
+     */
+    public void setSendFailureRate(double sendFailureRate) {
+        this.sendFailureRate = checkRate(sendFailureRate);
+    }
+
+    /**
+     * @param commitFailureRate Between 0 and 1, the share of commits that roll the transaction back instead
+     */
+    public void setCommitFailureRate(double commitFailureRate) {
+        this.commitFailureRate = checkRate(commitFailureRate);
+    }
+
+    /**
+     * @param connectFailureRate Between 0 and 1, the share of connection attempts that are refused
+     */
+    public void setConnectFailureRate(double connectFailureRate) {
+        this.connectFailureRate = checkRate(connectFailureRate);
+    }
+
+    /**
+     * While unavailable every connection attempt is refused. Becoming unavailable disconnects every open connection.
+     */
+    public void setAvailable(boolean available) {
+        this.available = available;
+        if (!available) {
+            disconnect();
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Fails every open connection as if the broker had gone away, new connections can be made straight after.
+     */
+    public void disconnect() {
+        for (InMemoryConnection connection : connections) {
+            connection.fail(new JMSException("Connection to the in-memory broker was lost"));
+        }
+    }
+
+    /**
+     * @return the number of messages waiting on the queue, including delivered messages put back for redelivery
+     */
+    public int getQueueDepth(String queueName) {
+        InMemoryMessageQueue queue = queues.get(queueName);
+        return Objects.isNull(queue) ? 0 : queue.size();
+    }
+
+    /**
+     * @return the number of messages waiting on the topic's subscriptions with the given name, 0 if there are none
+     */
+    public int getSubscriptionDepth(String subscriptionName) {
+        return namedSubscriptions.values().stream()
+                .filter(subscription -> subscription.getKey().endsWith("/" + subscriptionName))
+                .mapToInt(subscription -> subscription.getQueue().size())
+                .sum();
+    }
+
+    public int getOpenConnectionCount() {
+        return connections.size();
+    }
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.sum();
+    }
+
+    public long getConnectCount() {
+        return connectCount.sum();
+    }
+
+    /**
+     * Drops every message and subscription. Open connections are left alone.
+     */
+    public void purge() {
+        queues.values().forEach(InMemoryMessageQueue::clear);
+        topics.values().forEach(subscriptions -> subscriptions.forEach(subscription -> subscription.getQueue().clear()));
+        namedSubscriptions.values().removeIf(subscription -> subscription.getActiveConsumers().get() == 0);
+    }
+
+    // Connections
+    InMemoryConnection connect() {
+        if (!available) {
+            throw new JMSRuntimeException("In-memory broker is unavailable");
+        }
+        if (fails(connectFailureRate)) {
+            throw new JMSRuntimeException("In-memory broker refused the connection");
+        }
+        InMemoryConnection connection = new InMemoryConnection(this, connectionIds.incrementAndGet());
+        connections.add(connection);
+        connectCount.increment();
+        return connection;
+    }
+
+    void claimClientId(String clientId, InMemoryConnection connection) {
+        InMemoryConnection owner = clientIds.putIfAbsent(clientId, connection);
+        if (Objects.nonNull(owner) && owner != connection) {
+            throw new InvalidClientIDRuntimeException("Client ID " + clientId + " is already in use");
+        }
+    }
+
+    void onConnectionClosed(InMemoryConnection connection) {
+        connections.remove(connection);
+        String clientId = connection.getClientID();
+        if (Objects.nonNull(clientId)) {
+            clientIds.remove(clientId, connection);
+        }
+    }
+
+    // Sending
+    void beforeSend() {
+        pause(sendLatencyNanos);
+        if (fails(sendFailureRate)) {
+            throw new JMSRuntimeException("In-memory broker failed the send");
+        }
+    }
+
+    /**
+     * @return false if the commit is to fail and the transaction be rolled back
+     */
+    boolean beforeCommit() {
+        pause(commitLatencyNanos);
+        return !fails(commitFailureRate);
+    }
+
+    void beforeDelivery() {
+        pause(deliveryLatencyNanos);
+        deliveredCount.increment();
+    }
+
+    String nextMessageId() {
+        return "ID:in-memory-" + messageIds.incrementAndGet();
+    }
+
+    void publish(Destination destination, InMemoryMessage message) {
+        if (destination instanceof Queue queue) {
+            queueFor(queueName(queue)).offer(message);
+        } else if (destination instanceof Topic topic) {
+            for (InMemorySubscription subscription : subscriptionsOf(topicName(topic))) {
+                subscription.publish(message);
+            }
+        } else {
+            throw new InvalidDestinationRuntimeException("Unsupported destination " + destination);
+        }
+        sentCount.increment();
+    }
+
+    // Destinations
+    InMemoryMessageQueue queueFor(String name) {
+        return queues.computeIfAbsent(name, n -> new InMemoryMessageQueue());
+    }
+
+    InMemoryTemporaryQueue createTemporaryQueue() {
+        InMemoryTemporaryQueue queue = new InMemoryTemporaryQueue("temporary-queue-" + temporaryIds.incrementAndGet(), this);
+        queueFor(queue.getQueueName());
+        return queue;
+    }
+
+    InMemoryTemporaryTopic createTemporaryTopic() {
+        return new InMemoryTemporaryTopic("temporary-topic-" + temporaryIds.incrementAndGet(), this);
+    }
+
+    void deleteQueue(String name) {
+        queues.remove(name);
+    }
+
+    void deleteTopic(String name) {
+        topics.remove(name);
+    }
+
+    // Subscriptions
+    InMemorySubscription subscribe(String topicName, InMemoryConnection noLocalConnection) {
+        InMemorySubscription subscription = new InMemorySubscription(null, topicName, false, false, noLocalConnection);
+        subscriptionsOf(topicName).add(subscription);
+        subscription.getActiveConsumers().incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * Creates the named subscription, or joins it if it exists. A subscription moved to another topic starts over.
+     */
+    InMemorySubscription subscribe(String key, String topicName, boolean durable, boolean shared, InMemoryConnection noLocalConnection) {
+        synchronized (namedSubscriptions) {
+            InMemorySubscription subscription = namedSubscriptions.get(key);
+            if (Objects.nonNull(subscription) && !subscription.getTopicName().equals(topicName)) {
+                if (subscription.getActiveConsumers().get() > 0) {
+                    throw new IllegalStateRuntimeException("Subscription " + key + " is active on another topic");
+                }
+                removeSubscription(subscription);
+                subscription = null;
+            }
+            if (Objects.isNull(subscription)) {
+                subscription = new InMemorySubscription(key, topicName, durable, shared, noLocalConnection);
+                namedSubscriptions.put(key, subscription);
+                subscriptionsOf(topicName).add(subscription);
+            } else if (!shared && subscription.getActiveConsumers().get() > 0) {
+                throw new IllegalStateRuntimeException("Subscription " + key + " already has an active consumer");
+            }
+            subscription.getActiveConsumers().incrementAndGet();
+            return subscription;
+        }
+    }
+
+    void release(InMemorySubscription subscription) {
+        synchronized (namedSubscriptions) {
+            if (subscription.getActiveConsumers().decrementAndGet() == 0 && !subscription.isDurable()) {
+                removeSubscription(subscription);
+            }
+        }
+    }
+
+    void unsubscribe(String key) {
+        synchronized (namedSubscriptions) {
+            InMemorySubscription subscription = namedSubscriptions.get(key);
+            if (Objects.isNull(subscription)) {
+                throw new InvalidDestinationRuntimeException("No durable subscription " + key);
+            }
+            if (subscription.getActiveConsumers().get() > 0) {
+                throw new IllegalStateRuntimeException("Subscription " + key + " has active consumers");
+            }
+            removeSubscription(subscription);
+        }
+    }
+
+    private void removeSubscription(InMemorySubscription subscription) {
+        if (Objects.nonNull(subscription.getKey())) {
+            namedSubscriptions.remove(subscription.getKey(), subscription);
+        }
+        subscriptionsOf(subscription.getTopicName()).remove(subscription);
+    }
+
+    private List<InMemorySubscription> subscriptionsOf(String topicName) {
+        return topics.computeIfAbsent(topicName, n -> new CopyOnWriteArrayList<>());
+    }
+
+    static String queueName(Queue queue) {
+        try {
+            return queue.getQueueName();
+        } catch (JMSException e) {
+            throw new InvalidDestinationRuntimeException(e.getMessage());
+        }
+    }
+
+    static String topicName(Topic topic) {
+        try {
+            return topic.getTopicName();
+        } catch (JMSException e) {
+            throw new InvalidDestinationRuntimeException(e.getMessage());
+        }
+    }
+
+    // Faults
+    private static boolean fails(double rate) {
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static void pause(long nanos) {
+        // Parking may return early
+        long deadline = System.nanoTime() + nanos;
+        for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static long toNanos(long latency, TimeUnit unit) {
+        if (latency < 0) {
+            throw new IllegalArgumentException("Latency cannot be negative");
+        }
+        return Objects.requireNonNull(unit, "Unit cannot be null").toNanos(latency);
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Rate must be between 0 and 1");
+        }
+        return rate;
+    }
+}
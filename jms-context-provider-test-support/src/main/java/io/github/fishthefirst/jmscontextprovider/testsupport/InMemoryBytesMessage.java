@@ -0,0 +1,362 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageEOFException;
+import jakarta.jms.MessageFormatException;
+import jakarta.jms.MessageNotReadableException;
+import jakarta.jms.MessageNotWriteableException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Written through a {@link DataOutputStream} and read back through a {@link DataInputStream}, which use the byte
+ * order and modified UTF-8 encoding the JMS specification asks for.
+ */
+final class InMemoryBytesMessage extends InMemoryMessage implements BytesMessage {
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private DataOutputStream output = new DataOutputStream(buffer);
+    private byte[] body;
+    private DataInputStream input;
+
+    @Override
+    InMemoryBytesMessage copy() {
+        InMemoryBytesMessage copy = copyHeadersTo(new InMemoryBytesMessage());
+        copy.buffer.writeBytes(getBodyBytes());
+        return copy;
+    }
+
+    @Override
+    void onDelivery(InMemoryContext context) {
+        super.onDelivery(context);
+        switchToReadMode();
+    }
+
+    private byte[] getBodyBytes() {
+        return Objects.nonNull(body) ? body : buffer.toByteArray();
+    }
+
+    private void switchToReadMode() {
+        if (Objects.isNull(body)) {
+            body = buffer.toByteArray();
+            buffer = null;
+            output = null;
+        }
+        input = new DataInputStream(new ByteArrayInputStream(body));
+    }
+
+    private DataInputStream in() throws MessageNotReadableException {
+        if (Objects.isNull(input)) {
+            throw new MessageNotReadableException("Message is in write-only mode");
+        }
+        return input;
+    }
+
+    private DataOutputStream out() throws JMSException {
+        checkBodyWriteable();
+        if (Objects.isNull(output)) {
+            throw new MessageNotWriteableException("Message is in read-only mode");
+        }
+        return output;
+    }
+
+    private static JMSException readFailure(IOException e) {
+        JMSException exception = e instanceof EOFException ?
+                new MessageEOFException("Unexpected end of message body") :
+                new MessageFormatException("Failed to read message body");
+        exception.setLinkedException(e);
+        exception.initCause(e);
+        return exception;
+    }
+
+    private static JMSException writeFailure(IOException e) {
+        JMSException exception = new JMSException("Failed to write message body");
+        exception.setLinkedException(e);
+        exception.initCause(e);
+        return exception;
+    }
+
+    @Override
+    public long getBodyLength() throws JMSException {
+        in();
+        return body.length;
+    }
+
+    @Override
+    public boolean readBoolean() throws JMSException {
+        try {
+            return in().readBoolean();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public byte readByte() throws JMSException {
+        try {
+            return in().readByte();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public int readUnsignedByte() throws JMSException {
+        try {
+            return in().readUnsignedByte();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public short readShort() throws JMSException {
+        try {
+            return in().readShort();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public int readUnsignedShort() throws JMSException {
+        try {
+            return in().readUnsignedShort();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public char readChar() throws JMSException {
+        try {
+            return in().readChar();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public int readInt() throws JMSException {
+        try {
+            return in().readInt();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public long readLong() throws JMSException {
+        try {
+            return in().readLong();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public float readFloat() throws JMSException {
+        try {
+            return in().readFloat();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public double readDouble() throws JMSException {
+        try {
+            return in().readDouble();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public String readUTF() throws JMSException {
+        try {
+            return in().readUTF();
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public int readBytes(byte[] value) throws JMSException {
+        return readBytes(value, value.length);
+    }
+
+    @Override
+    public int readBytes(byte[] value, int length) throws JMSException {
+        if (length < 0 || length > value.length) {
+            throw new IndexOutOfBoundsException("Length must be between 0 and the array length");
+        }
+        try {
+            int read = in().read(value, 0, length);
+            return length == 0 ? 0 : read;
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws JMSException {
+        try {
+            out().writeBoolean(value);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeByte(byte value) throws JMSException {
+        try {
+            out().writeByte(value);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeShort(short value) throws JMSException {
+        try {
+            out().writeShort(value);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeChar(char value) throws JMSException {
+        try {
+            out().writeChar(value);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeInt(int value) throws JMSException {
+        try {
+            out().writeInt(value);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeLong(long value) throws JMSException {
+        try {
+            out().writeLong(value);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeFloat(float value) throws JMSException {
+        try {
+            out().writeFloat(value);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeDouble(double value) throws JMSException {
+        try {
+            out().writeDouble(value);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeUTF(String value) throws JMSException {
+        try {
+            out().writeUTF(value);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeBytes(byte[] value) throws JMSException {
+        writeBytes(value, 0, value.length);
+    }
+
+    @Override
+    public void writeBytes(byte[] value, int offset, int length) throws JMSException {
+        try {
+            out().write(value, offset, length);
+        } catch (IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    @Override
+    public void writeObject(Object value) throws JMSException {
+        if (value instanceof Boolean b) {
+            writeBoolean(b);
+        } else if (value instanceof Byte b) {
+            writeByte(b);
+        } else if (value instanceof Short s) {
+            writeShort(s);
+        } else if (value instanceof Character c) {
+            writeChar(c);
+        } else if (value instanceof Integer i) {
+            writeInt(i);
+        } else if (value instanceof Long l) {
+            writeLong(l);
+        } else if (value instanceof Float f) {
+            writeFloat(f);
+        } else if (value instanceof Double d) {
+            writeDouble(d);
+        } else if (value instanceof String s) {
+            writeUTF(s);
+        } else if (value instanceof byte[] bytes) {
+            writeBytes(bytes);
+        } else if (Objects.isNull(value)) {
+            throw new NullPointerException("Value cannot be null");
+        } else {
+            throw new MessageFormatException("Unsupported type " + value.getClass().getName());
+        }
+    }
+
+    @Override
+    public void reset() {
+        switchToReadMode();
+    }
+
+    @Override
+    public void clearBody() throws JMSException {
+        super.clearBody();
+        buffer = new ByteArrayOutputStream();
+        output = new DataOutputStream(buffer);
+        body = null;
+        input = null;
+    }
+
+    @Override
+    public <T> T getBody(Class<T> c) throws JMSException {
+        byte[] bytes = getBodyBytes();
+        if (bytes.length == 0) {
+            return null;
+        }
+        if (!isBodyAssignableTo(c)) {
+            throw bodyFormatException(c, byte[].class);
+        }
+        return c.cast(bytes.clone());
+    }
+
+    @Override
+    public boolean isBodyAssignableTo(Class c) {
+        return getBodyBytes().length == 0 || canReadBodyAs(c, byte[].class);
+    }
+}
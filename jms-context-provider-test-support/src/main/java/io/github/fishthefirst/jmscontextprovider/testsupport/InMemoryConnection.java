@@ -0,0 +1,119 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.IllegalStateRuntimeException;
+import jakarta.jms.JMSException;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The connection shared by a context created from the factory and the contexts created from it.
+ * It is closed along with the last of them.
+ */
+final class InMemoryConnection {
+    private final InMemoryBroker broker;
+    private final long id;
+    private final Set<InMemoryContext> contexts = ConcurrentHashMap.newKeySet();
+    private volatile String clientId;
+    private volatile ExceptionListener exceptionListener;
+    private volatile boolean started;
+    private volatile boolean closed;
+    private volatile boolean failed;
+
+    InMemoryConnection(InMemoryBroker broker, long id) {
+        this.broker = broker;
+        this.id = id;
+    }
+
+    InMemoryBroker getBroker() {
+        return broker;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    synchronized void setClientID(String clientId) {
+        checkUsable();
+        if (Objects.nonNull(this.clientId)) {
+            throw new IllegalStateRuntimeException("Client ID is already set");
+        }
+        broker.claimClientId(clientId, this);
+        this.clientId = clientId;
+    }
+
+    String getClientID() {
+        return clientId;
+    }
+
+    ExceptionListener getExceptionListener() {
+        return exceptionListener;
+    }
+
+    void setExceptionListener(ExceptionListener exceptionListener) {
+        checkUsable();
+        this.exceptionListener = exceptionListener;
+    }
+
+    void start() {
+        checkUsable();
+        started = true;
+    }
+
+    void stop() {
+        checkUsable();
+        started = false;
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    boolean isUsable() {
+        return !closed && !failed;
+    }
+
+    void checkUsable() {
+        if (failed) {
+            throw new IllegalStateRuntimeException("Connection " + id + " has failed");
+        }
+        if (closed) {
+            throw new IllegalStateRuntimeException("Connection " + id + " is closed");
+        }
+    }
+
+    void addContext(InMemoryContext context) {
+        checkUsable();
+        contexts.add(context);
+    }
+
+    void removeContext(InMemoryContext context) {
+        if (contexts.remove(context) && contexts.isEmpty()) {
+            closed = true;
+            broker.onConnectionClosed(this);
+        }
+    }
+
+    /**
+     * Breaks the connection: its contexts give back their unacknowledged messages and drop their uncommitted sends,
+     * then the exception listener is told.
+     */
+    void fail(JMSException exception) {
+        synchronized (this) {
+            if (failed || closed) {
+                return;
+            }
+            failed = true;
+        }
+        broker.onConnectionClosed(this);
+        for (InMemoryContext context : contexts) {
+            context.onConnectionFailure();
+        }
+        ExceptionListener listener = exceptionListener;
+        if (Objects.nonNull(listener)) {
+            listener.onException(exception);
+        }
+    }
+}
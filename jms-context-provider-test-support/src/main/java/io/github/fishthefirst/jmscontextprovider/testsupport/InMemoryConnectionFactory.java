@@ -0,0 +1,48 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+
+/**
+ * Only the simplified API is supported, which is all the library uses. Credentials are ignored.
+ */
+final class InMemoryConnectionFactory implements ConnectionFactory {
+    private final InMemoryBroker broker;
+
+    InMemoryConnectionFactory(InMemoryBroker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public JMSContext createContext() {
+        return createContext(JMSContext.AUTO_ACKNOWLEDGE);
+    }
+
+    @Override
+    public JMSContext createContext(String userName, String password) {
+        return createContext(JMSContext.AUTO_ACKNOWLEDGE);
+    }
+
+    @Override
+    public JMSContext createContext(String userName, String password, int sessionMode) {
+        return createContext(sessionMode);
+    }
+
+    @Override
+    public JMSContext createContext(int sessionMode) {
+        InMemoryContext.checkSessionMode(sessionMode);
+        return new InMemoryContext(broker.connect(), sessionMode, true);
+    }
+
+    @Override
+    public Connection createConnection() throws JMSException {
+        throw new JMSException("The in-memory broker only supports the simplified API");
+    }
+
+    @Override
+    public Connection createConnection(String userName, String password) throws JMSException {
+        throw new JMSException("The in-memory broker only supports the simplified API");
+    }
+}
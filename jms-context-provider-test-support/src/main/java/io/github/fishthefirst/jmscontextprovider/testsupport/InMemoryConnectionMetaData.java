@@ -0,0 +1,54 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.ConnectionMetaData;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+final class InMemoryConnectionMetaData implements ConnectionMetaData {
+    static final InMemoryConnectionMetaData INSTANCE = new InMemoryConnectionMetaData();
+
+    private InMemoryConnectionMetaData() {
+    }
+
+    @Override
+    public String getJMSVersion() {
+        return "3.1";
+    }
+
+    @Override
+    public int getJMSMajorVersion() {
+        return 3;
+    }
+
+    @Override
+    public int getJMSMinorVersion() {
+        return 1;
+    }
+
+    @Override
+    public String getJMSProviderName() {
+        return "jms-context-provider in-memory broker";
+    }
+
+    @Override
+    public String getProviderVersion() {
+        return "1.0";
+    }
+
+    @Override
+    public int getProviderMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getProviderMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public Enumeration getJMSXPropertyNames() {
+        return Collections.enumeration(List.of(InMemoryMessage.DELIVERY_COUNT));
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.JMSConsumer;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageFormatRuntimeException;
+import jakarta.jms.MessageListener;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listeners are called from a thread of the consumer's own, which ends once the consumer is closed or its listener removed.
+ */
+final class InMemoryConsumer implements JMSConsumer {
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    // Constructor vars
+    private final InMemoryContext context;
+    private final InMemoryMessageQueue source;
+    private final InMemorySubscription subscription;
+    private final String messageSelector;
+
+    // Object vars
+    private volatile MessageListener messageListener;
+    private volatile boolean closed;
+    private Thread dispatcher;
+
+    InMemoryConsumer(InMemoryContext context, InMemoryMessageQueue source, InMemorySubscription subscription, String messageSelector) {
+        this.context = context;
+        this.source = source;
+        this.subscription = subscription;
+        this.messageSelector = messageSelector;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String getMessageSelector() {
+        return messageSelector;
+    }
+
+    @Override
+    public MessageListener getMessageListener() {
+        return messageListener;
+    }
+
+    @Override
+    public synchronized void setMessageListener(MessageListener listener) {
+        messageListener = listener;
+        if (Objects.nonNull(listener) && !closed && Objects.isNull(dispatcher)) {
+            dispatcher = new Thread(this::dispatch, "in-memory-jms-consumer-" + threadCount.incrementAndGet());
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    private void dispatch() {
+        while (!closed && context.isUsable()) {
+            MessageListener listener = messageListener;
+            if (Objects.isNull(listener)) {
+                synchronized (this) {
+                    if (Objects.isNull(messageListener)) {
+                        dispatcher = null;
+                        return;
+                    }
+                }
+                continue;
+            }
+            InMemoryMessage message = context.isStarted() ? poll() : null;
+            if (Objects.nonNull(message)) {
+                context.dispatch(this, source, message, listener);
+            } else if (!context.isStarted()) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+        synchronized (this) {
+            dispatcher = null;
+        }
+    }
+
+    private InMemoryMessage poll() {
+        try {
+            return source.poll(TimeUnit.MILLISECONDS.toNanos(100));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public Message receive() {
+        return context.receive(this, source, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Message receive(long timeout) {
+        return context.receive(this, source, timeout == 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(timeout));
+    }
+
+    @Override
+    public Message receiveNoWait() {
+        return context.receive(this, source, 0);
+    }
+
+    @Override
+    public <T> T receiveBody(Class<T> c) {
+        return bodyOf(receive(), c);
+    }
+
+    @Override
+    public <T> T receiveBody(Class<T> c, long timeout) {
+        return bodyOf(receive(timeout), c);
+    }
+
+    @Override
+    public <T> T receiveBodyNoWait(Class<T> c) {
+        return bodyOf(receiveNoWait(), c);
+    }
+
+    private static <T> T bodyOf(Message message, Class<T> c) {
+        if (Objects.isNull(message)) {
+            return null;
+        }
+        try {
+            return message.getBody(c);
+        } catch (JMSException e) {
+            throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+        }
+    }
+
+    /**
+     * Does not wait for a listener that is still running.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        context.removeConsumer(this);
+        if (Objects.nonNull(subscription)) {
+            context.getBroker().release(subscription);
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.ConnectionMetaData;
+import jakarta.jms.Destination;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.IllegalStateRuntimeException;
+import jakarta.jms.InvalidDestinationRuntimeException;
+import jakarta.jms.InvalidSelectorRuntimeException;
+import jakarta.jms.JMSConsumer;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSProducer;
+import jakarta.jms.JMSRuntimeException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.MessageListener;
+import jakarta.jms.ObjectMessage;
+import jakarta.jms.Queue;
+import jakarta.jms.QueueBrowser;
+import jakarta.jms.StreamMessage;
+import jakarta.jms.TemporaryQueue;
+import jakarta.jms.TemporaryTopic;
+import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+import jakarta.jms.TransactionRolledBackRuntimeException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A session on an in-memory connection.
+ * <p>
+ * Listener deliveries of a context are serialized, as a JMS session is single threaded. Acknowledgements, commits and
+ * recovers only take the locks guarding the context's own bookkeeping and never wait for a listener, so closing a
+ * consumer or a context from another thread cannot deadlock against a listener that is still running.
+ */
+final class InMemoryContext implements JMSContext {
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long STOPPED_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    // Constructor vars
+    private final InMemoryConnection connection;
+    private final InMemoryBroker broker;
+    private final int sessionMode;
+    private final boolean connectionOwner;
+
+    // Object vars
+    private final ReentrantLock deliveryLock = new ReentrantLock();
+    private final List<Delivery> unacknowledged = new ArrayList<>();
+    private final List<PendingSend> pendingSends = new ArrayList<>();
+    private final Set<InMemoryConsumer> consumers = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+    private volatile boolean autoStart = true;
+
+    InMemoryContext(InMemoryConnection connection, int sessionMode, boolean connectionOwner) {
+        this.connection = connection;
+        this.broker = connection.getBroker();
+        this.sessionMode = sessionMode;
+        this.connectionOwner = connectionOwner;
+        connection.addContext(this);
+    }
+
+    static void checkSessionMode(int sessionMode) {
+        if (sessionMode != SESSION_TRANSACTED && sessionMode != AUTO_ACKNOWLEDGE &&
+                sessionMode != CLIENT_ACKNOWLEDGE && sessionMode != DUPS_OK_ACKNOWLEDGE) {
+            throw new JMSRuntimeException("Invalid session mode " + sessionMode);
+        }
+    }
+
+    boolean isUsable() {
+        return !closed && connection.isUsable();
+    }
+
+    boolean isStarted() {
+        return connection.isStarted();
+    }
+
+    private void checkUsable() {
+        if (closed) {
+            throw new IllegalStateRuntimeException("Context is closed");
+        }
+        connection.checkUsable();
+    }
+
+    private boolean isAutoAcknowledge() {
+        return sessionMode == AUTO_ACKNOWLEDGE || sessionMode == DUPS_OK_ACKNOWLEDGE;
+    }
+
+    // Sending
+    void send(Destination destination, InMemoryMessage message) {
+        checkUsable();
+        broker.beforeSend();
+        InMemoryMessage copy = message.copy();
+        copy.setSentOn(connection);
+        if (getTransacted()) {
+            synchronized (pendingSends) {
+                pendingSends.add(new PendingSend(destination, copy));
+            }
+        } else {
+            broker.publish(destination, copy);
+        }
+    }
+
+    InMemoryBroker getBroker() {
+        return broker;
+    }
+
+    // Receiving
+    /**
+     * @param timeoutNanos {@link Long#MAX_VALUE} to wait until a message arrives, 0 to not wait
+     * @return the delivered message, or null if none arrived in time or the consumer was closed
+     */
+    InMemoryMessage receive(InMemoryConsumer consumer, InMemoryMessageQueue source, long timeoutNanos) {
+        checkUsable();
+        long deadline = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+        try {
+            while (!consumer.isClosed() && isUsable()) {
+                long remaining = deadline == Long.MAX_VALUE ? POLL_NANOS : deadline - System.nanoTime();
+                if (!isStarted()) {
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    LockSupport.parkNanos(Math.min(remaining, STOPPED_PARK_NANOS));
+                    continue;
+                }
+                InMemoryMessage message = source.poll(Math.max(0, Math.min(remaining, POLL_NANOS)));
+                if (Objects.nonNull(message)) {
+                    return deliver(consumer, source, message);
+                }
+                if (remaining <= 0) {
+                    return null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private InMemoryMessage deliver(InMemoryConsumer consumer, InMemoryMessageQueue source, InMemoryMessage message) {
+        if (consumer.isClosed() || !isUsable()) {
+            source.offerFirst(List.of(message));
+            return null;
+        }
+        broker.beforeDelivery();
+        message.onDelivery(this);
+        if (!isAutoAcknowledge()) {
+            track(new Delivery(message, source));
+        }
+        return message;
+    }
+
+    /**
+     * Hands a message to a listener. Auto-acknowledged messages are acknowledged when the listener returns and
+     * redelivered if it throws.
+     */
+    void dispatch(InMemoryConsumer consumer, InMemoryMessageQueue source, InMemoryMessage message, MessageListener listener) {
+        deliveryLock.lock();
+        try {
+            if (consumer.isClosed() || !isUsable()) {
+                source.offerFirst(List.of(message));
+                return;
+            }
+            broker.beforeDelivery();
+            message.onDelivery(this);
+            Delivery delivery = new Delivery(message, source);
+            track(delivery);
+            try {
+                listener.onMessage(message);
+            } catch (RuntimeException e) {
+                if (isAutoAcknowledge() && untrack(delivery)) {
+                    redeliver(List.of(delivery));
+                }
+                return;
+            }
+            if (isAutoAcknowledge()) {
+                untrack(delivery);
+            }
+        } finally {
+            deliveryLock.unlock();
+        }
+    }
+
+    private void track(Delivery delivery) {
+        synchronized (unacknowledged) {
+            unacknowledged.add(delivery);
+        }
+    }
+
+    private boolean untrack(Delivery delivery) {
+        synchronized (unacknowledged) {
+            return unacknowledged.remove(delivery);
+        }
+    }
+
+    private List<Delivery> drainUnacknowledged() {
+        synchronized (unacknowledged) {
+            List<Delivery> drained = new ArrayList<>(unacknowledged);
+            unacknowledged.clear();
+            return drained;
+        }
+    }
+
+    private List<PendingSend> drainPendingSends() {
+        synchronized (pendingSends) {
+            List<PendingSend> drained = new ArrayList<>(pendingSends);
+            pendingSends.clear();
+            return drained;
+        }
+    }
+
+    private static void redeliver(List<Delivery> deliveries) {
+        Map<InMemoryMessageQueue, List<InMemoryMessage>> bySource = new LinkedHashMap<>();
+        for (Delivery delivery : deliveries) {
+            delivery.message().onRedelivery();
+            bySource.computeIfAbsent(delivery.source(), source -> new ArrayList<>()).add(delivery.message());
+        }
+        bySource.forEach(InMemoryMessageQueue::offerFirst);
+    }
+
+    void removeConsumer(InMemoryConsumer consumer) {
+        consumers.remove(consumer);
+    }
+
+    /**
+     * Called by the connection when it fails, the context cannot be used afterwards.
+     */
+    void onConnectionFailure() {
+        consumers.forEach(InMemoryConsumer::close);
+        drainPendingSends();
+        redeliver(drainUnacknowledged());
+    }
+
+    // Session
+    @Override
+    public JMSContext createContext(int sessionMode) {
+        checkUsable();
+        checkSessionMode(sessionMode);
+        return new InMemoryContext(connection, sessionMode, false);
+    }
+
+    @Override
+    public boolean getTransacted() {
+        return sessionMode == SESSION_TRANSACTED;
+    }
+
+    @Override
+    public int getSessionMode() {
+        return sessionMode;
+    }
+
+    @Override
+    public void commit() {
+        checkUsable();
+        if (!getTransacted()) {
+            throw new IllegalStateRuntimeException("Context is not transacted");
+        }
+        if (!broker.beforeCommit()) {
+            drainPendingSends();
+            redeliver(drainUnacknowledged());
+            throw new TransactionRolledBackRuntimeException("In-memory broker rolled back the transaction");
+        }
+        for (PendingSend pendingSend : drainPendingSends()) {
+            broker.publish(pendingSend.destination(), pendingSend.message());
+        }
+        drainUnacknowledged();
+    }
+
+    @Override
+    public void rollback() {
+        checkUsable();
+        if (!getTransacted()) {
+            throw new IllegalStateRuntimeException("Context is not transacted");
+        }
+        drainPendingSends();
+        redeliver(drainUnacknowledged());
+    }
+
+    @Override
+    public void recover() {
+        checkUsable();
+        if (getTransacted()) {
+            throw new IllegalStateRuntimeException("Transacted contexts cannot be recovered");
+        }
+        redeliver(drainUnacknowledged());
+    }
+
+    @Override
+    public void acknowledge() {
+        checkUsable();
+        if (sessionMode == CLIENT_ACKNOWLEDGE) {
+            drainUnacknowledged();
+        }
+    }
+
+    /**
+     * Uncommitted sends are dropped and unacknowledged messages redelivered. Listeners still running are not waited for.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        consumers.forEach(InMemoryConsumer::close);
+        drainPendingSends();
+        redeliver(drainUnacknowledged());
+        connection.removeContext(this);
+    }
+
+    // Connection
+    @Override
+    public String getClientID() {
+        return connection.getClientID();
+    }
+
+    /**
+     * Setting a null client ID is ignored, so connections without one can be set up the same way as others.
+     */
+    @Override
+    public void setClientID(String clientID) {
+        checkUsable();
+        if (!connectionOwner) {
+            throw new IllegalStateRuntimeException("Client ID can only be set on the context that created the connection");
+        }
+        if (Objects.nonNull(clientID)) {
+            connection.setClientID(clientID);
+        }
+    }
+
+    @Override
+    public ConnectionMetaData getMetaData() {
+        checkUsable();
+        return InMemoryConnectionMetaData.INSTANCE;
+    }
+
+    @Override
+    public ExceptionListener getExceptionListener() {
+        checkUsable();
+        return connection.getExceptionListener();
+    }
+
+    @Override
+    public void setExceptionListener(ExceptionListener listener) {
+        connection.setExceptionListener(listener);
+    }
+
+    @Override
+    public void start() {
+        connection.start();
+    }
+
+    @Override
+    public void stop() {
+        connection.stop();
+    }
+
+    @Override
+    public void setAutoStart(boolean autoStart) {
+        this.autoStart = autoStart;
+    }
+
+    @Override
+    public boolean getAutoStart() {
+        return autoStart;
+    }
+
+    // Messages
+    @Override
+    public JMSProducer createProducer() {
+        checkUsable();
+        return new InMemoryProducer(this);
+    }
+
+    @Override
+    public Message createMessage() {
+        checkUsable();
+        return new InMemoryMessage();
+    }
+
+    @Override
+    public BytesMessage createBytesMessage() {
+        checkUsable();
+        return new InMemoryBytesMessage();
+    }
+
+    @Override
+    public MapMessage createMapMessage() {
+        throw new JMSRuntimeException("Map messages are not supported by the in-memory broker");
+    }
+
+    @Override
+    public ObjectMessage createObjectMessage() {
+        return createObjectMessage(null);
+    }
+
+    @Override
+    public ObjectMessage createObjectMessage(Serializable object) {
+        checkUsable();
+        return new InMemoryObjectMessage(object);
+    }
+
+    @Override
+    public StreamMessage createStreamMessage() {
+        throw new JMSRuntimeException("Stream messages are not supported by the in-memory broker");
+    }
+
+    @Override
+    public TextMessage createTextMessage() {
+        return createTextMessage(null);
+    }
+
+    @Override
+    public TextMessage createTextMessage(String text) {
+        checkUsable();
+        return new InMemoryTextMessage(text);
+    }
+
+    // Consumers
+    @Override
+    public JMSConsumer createConsumer(Destination destination) {
+        return createConsumer(destination, null, false);
+    }
+
+    @Override
+    public JMSConsumer createConsumer(Destination destination, String messageSelector) {
+        return createConsumer(destination, messageSelector, false);
+    }
+
+    @Override
+    public JMSConsumer createConsumer(Destination destination, String messageSelector, boolean noLocal) {
+        checkUsable();
+        checkSelector(messageSelector);
+        if (destination instanceof Queue queue) {
+            return register(broker.queueFor(InMemoryBroker.queueName(queue)), null, messageSelector);
+        }
+        if (destination instanceof Topic topic) {
+            InMemorySubscription subscription = broker.subscribe(InMemoryBroker.topicName(topic), noLocal ? connection : null);
+            return register(subscription.getQueue(), subscription, messageSelector);
+        }
+        throw new InvalidDestinationRuntimeException("Unsupported destination " + destination);
+    }
+
+    @Override
+    public JMSConsumer createDurableConsumer(Topic topic, String name) {
+        return createDurableConsumer(topic, name, null, false);
+    }
+
+    @Override
+    public JMSConsumer createDurableConsumer(Topic topic, String name, String messageSelector, boolean noLocal) {
+        checkUsable();
+        checkSelector(messageSelector);
+        String clientId = connection.getClientID();
+        if (Objects.isNull(clientId)) {
+            throw new IllegalStateRuntimeException("Unshared durable subscriptions require a client ID");
+        }
+        InMemorySubscription subscription = broker.subscribe(durableKey(clientId, name), topicName(topic), true, false,
+                noLocal ? connection : null);
+        return register(subscription.getQueue(), subscription, messageSelector);
+    }
+
+    @Override
+    public JMSConsumer createSharedDurableConsumer(Topic topic, String name) {
+        return createSharedDurableConsumer(topic, name, null);
+    }
+
+    @Override
+    public JMSConsumer createSharedDurableConsumer(Topic topic, String name, String messageSelector) {
+        checkUsable();
+        checkSelector(messageSelector);
+        InMemorySubscription subscription = broker.subscribe(sharedDurableKey(connection.getClientID(), name), topicName(topic),
+                true, true, null);
+        return register(subscription.getQueue(), subscription, messageSelector);
+    }
+
+    @Override
+    public JMSConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName) {
+        return createSharedConsumer(topic, sharedSubscriptionName, null);
+    }
+
+    @Override
+    public JMSConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName, String messageSelector) {
+        checkUsable();
+        checkSelector(messageSelector);
+        InMemorySubscription subscription = broker.subscribe("shared/" + connection.getClientID() + "/" + sharedSubscriptionName,
+                topicName(topic), false, true, null);
+        return register(subscription.getQueue(), subscription, messageSelector);
+    }
+
+    @Override
+    public void unsubscribe(String name) {
+        checkUsable();
+        String clientId = connection.getClientID();
+        try {
+            broker.unsubscribe(durableKey(clientId, name));
+        } catch (InvalidDestinationRuntimeException e) {
+            broker.unsubscribe(sharedDurableKey(clientId, name));
+        }
+    }
+
+    private InMemoryConsumer register(InMemoryMessageQueue source, InMemorySubscription subscription, String messageSelector) {
+        InMemoryConsumer consumer = new InMemoryConsumer(this, source, subscription, messageSelector);
+        consumers.add(consumer);
+        if (autoStart) {
+            connection.start();
+        }
+        return consumer;
+    }
+
+    private static String durableKey(String clientId, String name) {
+        return "durable/" + clientId + "/" + Objects.requireNonNull(name, "Subscription name cannot be null");
+    }
+
+    private static String sharedDurableKey(String clientId, String name) {
+        return "shared-durable/" + clientId + "/" + Objects.requireNonNull(name, "Subscription name cannot be null");
+    }
+
+    private static String topicName(Topic topic) {
+        if (Objects.isNull(topic)) {
+            throw new InvalidDestinationRuntimeException("Topic cannot be null");
+        }
+        return InMemoryBroker.topicName(topic);
+    }
+
+    private static void checkSelector(String messageSelector) {
+        if (Objects.nonNull(messageSelector) && !messageSelector.isBlank()) {
+            throw new InvalidSelectorRuntimeException("Message selectors are not supported by the in-memory broker");
+        }
+    }
+
+    // Destinations
+    @Override
+    public Queue createQueue(String queueName) {
+        checkUsable();
+        return new InMemoryQueue(queueName);
+    }
+
+    @Override
+    public Topic createTopic(String topicName) {
+        checkUsable();
+        return new InMemoryTopic(topicName);
+    }
+
+    @Override
+    public QueueBrowser createBrowser(Queue queue) {
+        return createBrowser(queue, null);
+    }
+
+    @Override
+    public QueueBrowser createBrowser(Queue queue, String messageSelector) {
+        checkUsable();
+        checkSelector(messageSelector);
+        if (Objects.isNull(queue)) {
+            throw new InvalidDestinationRuntimeException("Queue cannot be null");
+        }
+        return new InMemoryQueueBrowser(queue, broker.queueFor(InMemoryBroker.queueName(queue)), messageSelector);
+    }
+
+    @Override
+    public TemporaryQueue createTemporaryQueue() {
+        checkUsable();
+        return broker.createTemporaryQueue();
+    }
+
+    @Override
+    public TemporaryTopic createTemporaryTopic() {
+        checkUsable();
+        return broker.createTemporaryTopic();
+    }
+
+    private record Delivery(InMemoryMessage message, InMemoryMessageQueue source) {
+    }
+
+    private record PendingSend(Destination destination, InMemoryMessage message) {
+    }
+}
@@ -0,0 +1,386 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageFormatException;
+import jakarta.jms.MessageNotWriteableException;
+
+import java.util.Enumeration;
+import java.util.Objects;
+
+/**
+ * A message without a body, and the headers and properties shared by every message type.
+ * <p>
+ * Messages are copied when sent, so each destination and subscription delivers its own instance and the sender may
+ * reuse the original. Delivered copies have read-only properties and bodies until they are cleared.
+ */
+class InMemoryMessage implements Message {
+    static final String DELIVERY_COUNT = "JMSXDeliveryCount";
+
+    // Headers
+    private String messageId;
+    private long timestamp;
+    private String correlationId;
+    private byte[] correlationIdBytes;
+    private Destination replyTo;
+    private Destination destination;
+    private int deliveryMode = DeliveryMode.PERSISTENT;
+    private boolean redelivered;
+    private String type;
+    private long expiration;
+    private long deliveryTime;
+    private int priority = Message.DEFAULT_PRIORITY;
+
+    // Object vars
+    private InMemoryProperties properties = new InMemoryProperties();
+    private boolean propertiesReadOnly;
+    boolean bodyReadOnly;
+    private int deliveryCount;
+    private InMemoryContext acknowledgedBy;
+    private InMemoryConnection sentOn;
+
+    /**
+     * @return a copy of the headers, properties and body, writable as if just created
+     */
+    InMemoryMessage copy() {
+        return copyHeadersTo(new InMemoryMessage());
+    }
+
+    final <M extends InMemoryMessage> M copyHeadersTo(M copy) {
+        InMemoryMessage target = copy;
+        target.messageId = messageId;
+        target.timestamp = timestamp;
+        target.correlationId = correlationId;
+        target.correlationIdBytes = Objects.isNull(correlationIdBytes) ? null : correlationIdBytes.clone();
+        target.replyTo = replyTo;
+        target.destination = destination;
+        target.deliveryMode = deliveryMode;
+        target.redelivered = redelivered;
+        target.type = type;
+        target.expiration = expiration;
+        target.deliveryTime = deliveryTime;
+        target.priority = priority;
+        target.properties = new InMemoryProperties(properties);
+        target.deliveryCount = deliveryCount;
+        target.sentOn = sentOn;
+        return copy;
+    }
+
+    /**
+     * Called on the copy handed to a consumer, each delivery counts towards JMSXDeliveryCount.
+     */
+    void onDelivery(InMemoryContext context) {
+        deliveryCount++;
+        acknowledgedBy = context;
+        propertiesReadOnly = true;
+        bodyReadOnly = true;
+        properties.putUnchecked(DELIVERY_COUNT, deliveryCount);
+    }
+
+    /**
+     * Called on a delivered message that is put back on its destination by a recover or rollback.
+     */
+    void onRedelivery() {
+        redelivered = true;
+        acknowledgedBy = null;
+    }
+
+    int getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    InMemoryConnection getSentOn() {
+        return sentOn;
+    }
+
+    void setSentOn(InMemoryConnection sentOn) {
+        this.sentOn = sentOn;
+    }
+
+    boolean isExpired(long nowMillis) {
+        return expiration > 0 && expiration <= nowMillis;
+    }
+
+    void checkBodyWriteable() throws MessageNotWriteableException {
+        if (bodyReadOnly) {
+            throw new MessageNotWriteableException("Message body is read-only");
+        }
+    }
+
+    private void checkPropertiesWriteable() throws MessageNotWriteableException {
+        if (propertiesReadOnly) {
+            throw new MessageNotWriteableException("Message properties are read-only");
+        }
+    }
+
+    private void setProperty(String name, Object value) throws JMSException {
+        checkPropertiesWriteable();
+        properties.set(name, value);
+    }
+
+    InMemoryProperties getProperties() {
+        return properties;
+    }
+
+    // Headers
+    @Override
+    public String getJMSMessageID() {
+        return messageId;
+    }
+
+    @Override
+    public void setJMSMessageID(String id) {
+        this.messageId = id;
+    }
+
+    @Override
+    public long getJMSTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public void setJMSTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public byte[] getJMSCorrelationIDAsBytes() {
+        return Objects.isNull(correlationIdBytes) ? null : correlationIdBytes.clone();
+    }
+
+    @Override
+    public void setJMSCorrelationIDAsBytes(byte[] correlationID) {
+        this.correlationIdBytes = Objects.isNull(correlationID) ? null : correlationID.clone();
+    }
+
+    @Override
+    public void setJMSCorrelationID(String correlationID) {
+        this.correlationId = correlationID;
+    }
+
+    @Override
+    public String getJMSCorrelationID() {
+        return correlationId;
+    }
+
+    @Override
+    public Destination getJMSReplyTo() {
+        return replyTo;
+    }
+
+    @Override
+    public void setJMSReplyTo(Destination replyTo) {
+        this.replyTo = replyTo;
+    }
+
+    @Override
+    public Destination getJMSDestination() {
+        return destination;
+    }
+
+    @Override
+    public void setJMSDestination(Destination destination) {
+        this.destination = destination;
+    }
+
+    @Override
+    public int getJMSDeliveryMode() {
+        return deliveryMode;
+    }
+
+    @Override
+    public void setJMSDeliveryMode(int deliveryMode) {
+        this.deliveryMode = deliveryMode;
+    }
+
+    @Override
+    public boolean getJMSRedelivered() {
+        return redelivered;
+    }
+
+    @Override
+    public void setJMSRedelivered(boolean redelivered) {
+        this.redelivered = redelivered;
+    }
+
+    @Override
+    public String getJMSType() {
+        return type;
+    }
+
+    @Override
+    public void setJMSType(String type) {
+        this.type = type;
+    }
+
+    @Override
+    public long getJMSExpiration() {
+        return expiration;
+    }
+
+    @Override
+    public void setJMSExpiration(long expiration) {
+        this.expiration = expiration;
+    }
+
+    @Override
+    public long getJMSDeliveryTime() {
+        return deliveryTime;
+    }
+
+    @Override
+    public void setJMSDeliveryTime(long deliveryTime) {
+        this.deliveryTime = deliveryTime;
+    }
+
+    @Override
+    public int getJMSPriority() {
+        return priority;
+    }
+
+    @Override
+    public void setJMSPriority(int priority) {
+        this.priority = priority;
+    }
+
+    // Properties
+    @Override
+    public void clearProperties() {
+        properties.clear();
+        propertiesReadOnly = false;
+    }
+
+    @Override
+    public boolean propertyExists(String name) {
+        return properties.exists(name);
+    }
+
+    @Override
+    public boolean getBooleanProperty(String name) throws JMSException {
+        return properties.getBoolean(name);
+    }
+
+    @Override
+    public byte getByteProperty(String name) throws JMSException {
+        return properties.getByte(name);
+    }
+
+    @Override
+    public short getShortProperty(String name) throws JMSException {
+        return properties.getShort(name);
+    }
+
+    @Override
+    public int getIntProperty(String name) throws JMSException {
+        return properties.getInt(name);
+    }
+
+    @Override
+    public long getLongProperty(String name) throws JMSException {
+        return properties.getLong(name);
+    }
+
+    @Override
+    public float getFloatProperty(String name) throws JMSException {
+        return properties.getFloat(name);
+    }
+
+    @Override
+    public double getDoubleProperty(String name) throws JMSException {
+        return properties.getDouble(name);
+    }
+
+    @Override
+    public String getStringProperty(String name) {
+        return properties.getString(name);
+    }
+
+    @Override
+    public Object getObjectProperty(String name) {
+        return properties.getObject(name);
+    }
+
+    @Override
+    public Enumeration getPropertyNames() {
+        return properties.enumerateNames();
+    }
+
+    @Override
+    public void setBooleanProperty(String name, boolean value) throws JMSException {
+        setProperty(name, value);
+    }
+
+    @Override
+    public void setByteProperty(String name, byte value) throws JMSException {
+        setProperty(name, value);
+    }
+
+    @Override
+    public void setShortProperty(String name, short value) throws JMSException {
+        setProperty(name, value);
+    }
+
+    @Override
+    public void setIntProperty(String name, int value) throws JMSException {
+        setProperty(name, value);
+    }
+
+    @Override
+    public void setLongProperty(String name, long value) throws JMSException {
+        setProperty(name, value);
+    }
+
+    @Override
+    public void setFloatProperty(String name, float value) throws JMSException {
+        setProperty(name, value);
+    }
+
+    @Override
+    public void setDoubleProperty(String name, double value) throws JMSException {
+        setProperty(name, value);
+    }
+
+    @Override
+    public void setStringProperty(String name, String value) throws JMSException {
+        setProperty(name, value);
+    }
+
+    @Override
+    public void setObjectProperty(String name, Object value) throws JMSException {
+        setProperty(name, value);
+    }
+
+    // Body
+    @Override
+    public void acknowledge() {
+        InMemoryContext context = acknowledgedBy;
+        if (Objects.nonNull(context)) {
+            context.acknowledge();
+        }
+    }
+
+    @Override
+    public void clearBody() throws JMSException {
+        bodyReadOnly = false;
+    }
+
+    @Override
+    public <T> T getBody(Class<T> c) throws JMSException {
+        return null;
+    }
+
+    @Override
+    public boolean isBodyAssignableTo(Class c) {
+        return true;
+    }
+
+    static boolean canReadBodyAs(Class<?> requested, Class<?> actual) {
+        return requested.isAssignableFrom(actual);
+    }
+
+    static MessageFormatException bodyFormatException(Class<?> requested, Class<?> actual) {
+        return new MessageFormatException("Message body of type " + actual.getSimpleName() + " cannot be read as " + requested.getSimpleName());
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The messages waiting on a queue or a topic subscription, in delivery order.
+ * Recovered messages are put back at the head, so they are redelivered before anything sent after them.
+ */
+final class InMemoryMessageQueue {
+    private final Deque<InMemoryMessage> messages = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    void offer(InMemoryMessage message) {
+        lock.lock();
+        try {
+            messages.addLast(message);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param redelivered In the order they were first delivered in
+     */
+    void offerFirst(List<InMemoryMessage> redelivered) {
+        lock.lock();
+        try {
+            for (int i = redelivered.size() - 1; i >= 0; i--) {
+                messages.addFirst(redelivered.get(i));
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Expired messages are dropped on the way.
+     *
+     * @return the next message, or null if none arrived within the timeout
+     */
+    InMemoryMessage poll(long timeoutNanos) throws InterruptedException {
+        long remainingNanos = timeoutNanos;
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                InMemoryMessage message = messages.pollFirst();
+                if (Objects.isNull(message)) {
+                    if (remainingNanos <= 0) {
+                        return null;
+                    }
+                    remainingNanos = notEmpty.awaitNanos(remainingNanos);
+                } else if (!message.isExpired(System.currentTimeMillis())) {
+                    return message;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return messages.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    List<InMemoryMessage> snapshot() {
+        lock.lock();
+        try {
+            return new ArrayList<>(messages);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            messages.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.ObjectMessage;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Holds its object by reference, copies share it instead of serializing it as a broker would.
+ */
+final class InMemoryObjectMessage extends InMemoryMessage implements ObjectMessage {
+    private Serializable object;
+
+    InMemoryObjectMessage(Serializable object) {
+        this.object = object;
+    }
+
+    @Override
+    InMemoryObjectMessage copy() {
+        return copyHeadersTo(new InMemoryObjectMessage(object));
+    }
+
+    @Override
+    public void setObject(Serializable object) throws JMSException {
+        checkBodyWriteable();
+        this.object = object;
+    }
+
+    @Override
+    public Serializable getObject() {
+        return object;
+    }
+
+    @Override
+    public void clearBody() throws JMSException {
+        super.clearBody();
+        object = null;
+    }
+
+    @Override
+    public <T> T getBody(Class<T> c) throws JMSException {
+        if (Objects.isNull(object)) {
+            return null;
+        }
+        if (!isBodyAssignableTo(c)) {
+            throw bodyFormatException(c, object.getClass());
+        }
+        return c.cast(object);
+    }
+
+    @Override
+    public boolean isBodyAssignableTo(Class c) {
+        return Objects.isNull(object) || c.isInstance(object);
+    }
+}
@@ -0,0 +1,393 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.CompletionListener;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.Destination;
+import jakarta.jms.InvalidDestinationRuntimeException;
+import jakarta.jms.JMSException;
+import jakarta.jms.JMSProducer;
+import jakarta.jms.JMSRuntimeException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageFormatRuntimeException;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Asynchronous sends complete before returning, their completion listener is called on the sending thread.
+ */
+final class InMemoryProducer implements JMSProducer {
+    private final InMemoryContext context;
+    private final InMemoryProperties properties = new InMemoryProperties();
+    private boolean disableMessageId;
+    private boolean disableMessageTimestamp;
+    private int deliveryMode = DeliveryMode.PERSISTENT;
+    private int priority = Message.DEFAULT_PRIORITY;
+    private long timeToLive = Message.DEFAULT_TIME_TO_LIVE;
+    private long deliveryDelay = Message.DEFAULT_DELIVERY_DELAY;
+    private CompletionListener completionListener;
+    private String correlationId;
+    private byte[] correlationIdBytes;
+    private String type;
+    private Destination replyTo;
+
+    InMemoryProducer(InMemoryContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public JMSProducer send(Destination destination, Message message) {
+        if (Objects.isNull(destination)) {
+            throw new InvalidDestinationRuntimeException("Destination cannot be null");
+        }
+        if (!(message instanceof InMemoryMessage inMemoryMessage)) {
+            throw new MessageFormatRuntimeException("Only messages created by the in-memory broker can be sent");
+        }
+        CompletionListener listener = completionListener;
+        try {
+            stamp(destination, inMemoryMessage);
+            context.send(destination, inMemoryMessage);
+        } catch (JMSRuntimeException e) {
+            if (Objects.isNull(listener)) {
+                throw e;
+            }
+            listener.onException(message, e);
+            return this;
+        }
+        if (Objects.nonNull(listener)) {
+            listener.onCompletion(message);
+        }
+        return this;
+    }
+
+    private void stamp(Destination destination, InMemoryMessage message) {
+        long now = System.currentTimeMillis();
+        message.setJMSDestination(destination);
+        message.setJMSDeliveryMode(deliveryMode);
+        message.setJMSPriority(priority);
+        message.setJMSTimestamp(disableMessageTimestamp ? 0 : now);
+        message.setJMSExpiration(timeToLive > 0 ? now + timeToLive : 0);
+        message.setJMSDeliveryTime(now + deliveryDelay);
+        message.setJMSMessageID(disableMessageId ? null : context.getBroker().nextMessageId());
+        if (Objects.nonNull(correlationId)) {
+            message.setJMSCorrelationID(correlationId);
+        }
+        if (Objects.nonNull(correlationIdBytes)) {
+            message.setJMSCorrelationIDAsBytes(correlationIdBytes);
+        }
+        if (Objects.nonNull(type)) {
+            message.setJMSType(type);
+        }
+        if (Objects.nonNull(replyTo)) {
+            message.setJMSReplyTo(replyTo);
+        }
+        message.getProperties().putAll(properties);
+    }
+
+    @Override
+    public JMSProducer send(Destination destination, String body) {
+        return send(destination, context.createTextMessage(body));
+    }
+
+    @Override
+    public JMSProducer send(Destination destination, Map<String, Object> body) {
+        throw new MessageFormatRuntimeException("Map messages are not supported by the in-memory broker");
+    }
+
+    @Override
+    public JMSProducer send(Destination destination, byte[] body) {
+        BytesMessage message = context.createBytesMessage();
+        if (Objects.nonNull(body)) {
+            try {
+                message.writeBytes(body);
+            } catch (JMSException e) {
+                throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+            }
+        }
+        return send(destination, message);
+    }
+
+    @Override
+    public JMSProducer send(Destination destination, Serializable body) {
+        return send(destination, context.createObjectMessage(body));
+    }
+
+    // Options
+    @Override
+    public JMSProducer setDisableMessageID(boolean value) {
+        disableMessageId = value;
+        return this;
+    }
+
+    @Override
+    public boolean getDisableMessageID() {
+        return disableMessageId;
+    }
+
+    @Override
+    public JMSProducer setDisableMessageTimestamp(boolean value) {
+        disableMessageTimestamp = value;
+        return this;
+    }
+
+    @Override
+    public boolean getDisableMessageTimestamp() {
+        return disableMessageTimestamp;
+    }
+
+    @Override
+    public JMSProducer setDeliveryMode(int deliveryMode) {
+        if (deliveryMode != DeliveryMode.PERSISTENT && deliveryMode != DeliveryMode.NON_PERSISTENT) {
+            throw new JMSRuntimeException("Invalid delivery mode " + deliveryMode);
+        }
+        this.deliveryMode = deliveryMode;
+        return this;
+    }
+
+    @Override
+    public int getDeliveryMode() {
+        return deliveryMode;
+    }
+
+    @Override
+    public JMSProducer setPriority(int priority) {
+        if (priority < 0 || priority > 9) {
+            throw new JMSRuntimeException("Priority must be between 0 and 9");
+        }
+        this.priority = priority;
+        return this;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public JMSProducer setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+        return this;
+    }
+
+    @Override
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Recorded on the message, but messages are delivered straight away.
+     */
+    @Override
+    public JMSProducer setDeliveryDelay(long deliveryDelay) {
+        this.deliveryDelay = deliveryDelay;
+        return this;
+    }
+
+    @Override
+    public long getDeliveryDelay() {
+        return deliveryDelay;
+    }
+
+    @Override
+    public JMSProducer setAsync(CompletionListener completionListener) {
+        this.completionListener = completionListener;
+        return this;
+    }
+
+    @Override
+    public CompletionListener getAsync() {
+        return completionListener;
+    }
+
+    // Properties
+    private JMSProducer setPropertyValue(String name, Object value) {
+        try {
+            properties.set(name, value);
+        } catch (JMSException e) {
+            throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+        }
+        return this;
+    }
+
+    @Override
+    public JMSProducer setProperty(String name, boolean value) {
+        return setPropertyValue(name, value);
+    }
+
+    @Override
+    public JMSProducer setProperty(String name, byte value) {
+        return setPropertyValue(name, value);
+    }
+
+    @Override
+    public JMSProducer setProperty(String name, short value) {
+        return setPropertyValue(name, value);
+    }
+
+    @Override
+    public JMSProducer setProperty(String name, int value) {
+        return setPropertyValue(name, value);
+    }
+
+    @Override
+    public JMSProducer setProperty(String name, long value) {
+        return setPropertyValue(name, value);
+    }
+
+    @Override
+    public JMSProducer setProperty(String name, float value) {
+        return setPropertyValue(name, value);
+    }
+
+    @Override
+    public JMSProducer setProperty(String name, double value) {
+        return setPropertyValue(name, value);
+    }
+
+    @Override
+    public JMSProducer setProperty(String name, String value) {
+        return setPropertyValue(name, value);
+    }
+
+    @Override
+    public JMSProducer setProperty(String name, Object value) {
+        return setPropertyValue(name, value);
+    }
+
+    @Override
+    public JMSProducer clearProperties() {
+        properties.clear();
+        return this;
+    }
+
+    @Override
+    public boolean propertyExists(String name) {
+        return properties.exists(name);
+    }
+
+    @Override
+    public boolean getBooleanProperty(String name) {
+        try {
+            return properties.getBoolean(name);
+        } catch (JMSException e) {
+            throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+        }
+    }
+
+    @Override
+    public byte getByteProperty(String name) {
+        try {
+            return properties.getByte(name);
+        } catch (JMSException e) {
+            throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+        }
+    }
+
+    @Override
+    public short getShortProperty(String name) {
+        try {
+            return properties.getShort(name);
+        } catch (JMSException e) {
+            throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+        }
+    }
+
+    @Override
+    public int getIntProperty(String name) {
+        try {
+            return properties.getInt(name);
+        } catch (JMSException e) {
+            throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+        }
+    }
+
+    @Override
+    public long getLongProperty(String name) {
+        try {
+            return properties.getLong(name);
+        } catch (JMSException e) {
+            throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+        }
+    }
+
+    @Override
+    public float getFloatProperty(String name) {
+        try {
+            return properties.getFloat(name);
+        } catch (JMSException e) {
+            throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+        }
+    }
+
+    @Override
+    public double getDoubleProperty(String name) {
+        try {
+            return properties.getDouble(name);
+        } catch (JMSException e) {
+            throw new MessageFormatRuntimeException(e.getMessage(), e.getErrorCode(), e);
+        }
+    }
+
+    @Override
+    public String getStringProperty(String name) {
+        return properties.getString(name);
+    }
+
+    @Override
+    public Object getObjectProperty(String name) {
+        return properties.getObject(name);
+    }
+
+    @Override
+    public Set<String> getPropertyNames() {
+        return Set.copyOf(properties.names());
+    }
+
+    // Headers
+    @Override
+    public JMSProducer setJMSCorrelationIDAsBytes(byte[] correlationID) {
+        this.correlationIdBytes = Objects.isNull(correlationID) ? null : correlationID.clone();
+        return this;
+    }
+
+    @Override
+    public byte[] getJMSCorrelationIDAsBytes() {
+        return Objects.isNull(correlationIdBytes) ? null : correlationIdBytes.clone();
+    }
+
+    @Override
+    public JMSProducer setJMSCorrelationID(String correlationID) {
+        this.correlationId = correlationID;
+        return this;
+    }
+
+    @Override
+    public String getJMSCorrelationID() {
+        return correlationId;
+    }
+
+    @Override
+    public JMSProducer setJMSType(String type) {
+        this.type = type;
+        return this;
+    }
+
+    @Override
+    public String getJMSType() {
+        return type;
+    }
+
+    @Override
+    public JMSProducer setJMSReplyTo(Destination replyTo) {
+        this.replyTo = replyTo;
+        return this;
+    }
+
+    @Override
+    public Destination getJMSReplyTo() {
+        return replyTo;
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageFormatException;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Message properties, converted on read as the JMS specification's conversion table allows.
+ */
+final class InMemoryProperties {
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    InMemoryProperties() {
+    }
+
+    InMemoryProperties(InMemoryProperties source) {
+        values.putAll(source.values);
+    }
+
+    void set(String name, Object value) throws MessageFormatException {
+        if (Objects.isNull(name) || name.isEmpty()) {
+            throw new IllegalArgumentException("Property name cannot be null or empty");
+        }
+        if (Objects.nonNull(value) && !(value instanceof Boolean || value instanceof Number || value instanceof String || value instanceof Character)) {
+            throw new MessageFormatException("Unsupported property type " + value.getClass().getName());
+        }
+        values.put(name, value);
+    }
+
+    /**
+     * Sets a property the provider owns, e.g. JMSXDeliveryCount, without the checks applied to client properties.
+     */
+    void putUnchecked(String name, Object value) {
+        values.put(name, value);
+    }
+
+    void putAll(InMemoryProperties other) {
+        values.putAll(other.values);
+    }
+
+    void clear() {
+        values.clear();
+    }
+
+    boolean exists(String name) {
+        return values.containsKey(name);
+    }
+
+    Set<String> names() {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+
+    Enumeration<String> enumerateNames() {
+        return Collections.enumeration(values.keySet());
+    }
+
+    Object getObject(String name) {
+        return values.get(name);
+    }
+
+    boolean getBoolean(String name) throws JMSException {
+        Object value = values.get(name);
+        if (value instanceof Boolean b) {
+            return b;
+        }
+        if (Objects.isNull(value) || value instanceof String) {
+            return Boolean.parseBoolean((String) value);
+        }
+        throw formatException(name, value, "boolean");
+    }
+
+    byte getByte(String name) throws JMSException {
+        Object value = values.get(name);
+        if (value instanceof Byte b) {
+            return b;
+        }
+        if (Objects.isNull(value) || value instanceof String) {
+            return Byte.parseByte((String) value);
+        }
+        throw formatException(name, value, "byte");
+    }
+
+    short getShort(String name) throws JMSException {
+        Object value = values.get(name);
+        if (value instanceof Byte || value instanceof Short) {
+            return ((Number) value).shortValue();
+        }
+        if (Objects.isNull(value) || value instanceof String) {
+            return Short.parseShort((String) value);
+        }
+        throw formatException(name, value, "short");
+    }
+
+    int getInt(String name) throws JMSException {
+        Object value = values.get(name);
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+            return ((Number) value).intValue();
+        }
+        if (Objects.isNull(value) || value instanceof String) {
+            return Integer.parseInt((String) value);
+        }
+        throw formatException(name, value, "int");
+    }
+
+    long getLong(String name) throws JMSException {
+        Object value = values.get(name);
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+            return ((Number) value).longValue();
+        }
+        if (Objects.isNull(value) || value instanceof String) {
+            return Long.parseLong((String) value);
+        }
+        throw formatException(name, value, "long");
+    }
+
+    float getFloat(String name) throws JMSException {
+        Object value = values.get(name);
+        if (value instanceof Float f) {
+            return f;
+        }
+        if (Objects.isNull(value)) {
+            throw new NullPointerException("Property " + name + " does not exist");
+        }
+        if (value instanceof String s) {
+            return Float.parseFloat(s);
+        }
+        throw formatException(name, value, "float");
+    }
+
+    double getDouble(String name) throws JMSException {
+        Object value = values.get(name);
+        if (value instanceof Float || value instanceof Double) {
+            return ((Number) value).doubleValue();
+        }
+        if (Objects.isNull(value)) {
+            throw new NullPointerException("Property " + name + " does not exist");
+        }
+        if (value instanceof String s) {
+            return Double.parseDouble(s);
+        }
+        throw formatException(name, value, "double");
+    }
+
+    String getString(String name) {
+        Object value = values.get(name);
+        return Objects.isNull(value) ? null : value.toString();
+    }
+
+    private static MessageFormatException formatException(String name, Object value, String type) {
+        return new MessageFormatException("Property " + name + " of type " + value.getClass().getSimpleName() + " cannot be read as " + type);
+    }
+}
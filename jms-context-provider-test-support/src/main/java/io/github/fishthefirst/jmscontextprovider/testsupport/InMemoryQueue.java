@@ -0,0 +1,33 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.Queue;
+
+import java.util.Objects;
+
+class InMemoryQueue implements Queue {
+    private final String name;
+
+    InMemoryQueue(String name) {
+        this.name = Objects.requireNonNull(name, "Queue name cannot be null");
+    }
+
+    @Override
+    public String getQueueName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof InMemoryQueue other && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "queue://" + name;
+    }
+}
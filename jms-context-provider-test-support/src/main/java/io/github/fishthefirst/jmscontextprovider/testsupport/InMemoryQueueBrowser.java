@@ -0,0 +1,41 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.Queue;
+import jakarta.jms.QueueBrowser;
+
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * Enumerates copies of the messages waiting on the queue when the enumeration is requested.
+ */
+final class InMemoryQueueBrowser implements QueueBrowser {
+    private final Queue queue;
+    private final InMemoryMessageQueue source;
+    private final String messageSelector;
+
+    InMemoryQueueBrowser(Queue queue, InMemoryMessageQueue source, String messageSelector) {
+        this.queue = queue;
+        this.source = source;
+        this.messageSelector = messageSelector;
+    }
+
+    @Override
+    public Queue getQueue() {
+        return queue;
+    }
+
+    @Override
+    public String getMessageSelector() {
+        return messageSelector;
+    }
+
+    @Override
+    public Enumeration getEnumeration() {
+        return Collections.enumeration(source.snapshot().stream().map(InMemoryMessage::copy).toList());
+    }
+
+    @Override
+    public void close() {
+    }
+}
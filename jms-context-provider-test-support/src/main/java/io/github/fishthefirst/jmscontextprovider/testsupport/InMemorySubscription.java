@@ -0,0 +1,59 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A topic subscription and the messages published to it since it was created.
+ * Durable subscriptions outlive their consumers, other subscriptions are removed along with their last consumer.
+ */
+final class InMemorySubscription {
+    private final String key;
+    private final String topicName;
+    private final boolean durable;
+    private final boolean shared;
+    private final InMemoryConnection noLocalConnection;
+    private final InMemoryMessageQueue queue = new InMemoryMessageQueue();
+    private final AtomicInteger activeConsumers = new AtomicInteger();
+
+    /**
+     * @param noLocalConnection Messages sent on this connection are not added to the subscription, null to add all
+     */
+    InMemorySubscription(String key, String topicName, boolean durable, boolean shared, InMemoryConnection noLocalConnection) {
+        this.key = key;
+        this.topicName = topicName;
+        this.durable = durable;
+        this.shared = shared;
+        this.noLocalConnection = noLocalConnection;
+    }
+
+    void publish(InMemoryMessage message) {
+        if (Objects.isNull(noLocalConnection) || message.getSentOn() != noLocalConnection) {
+            queue.offer(message.copy());
+        }
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getTopicName() {
+        return topicName;
+    }
+
+    boolean isDurable() {
+        return durable;
+    }
+
+    boolean isShared() {
+        return shared;
+    }
+
+    InMemoryMessageQueue getQueue() {
+        return queue;
+    }
+
+    AtomicInteger getActiveConsumers() {
+        return activeConsumers;
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.TemporaryQueue;
+
+final class InMemoryTemporaryQueue extends InMemoryQueue implements TemporaryQueue {
+    private final InMemoryBroker broker;
+
+    InMemoryTemporaryQueue(String name, InMemoryBroker broker) {
+        super(name);
+        this.broker = broker;
+    }
+
+    @Override
+    public void delete() {
+        broker.deleteQueue(getQueueName());
+    }
+}
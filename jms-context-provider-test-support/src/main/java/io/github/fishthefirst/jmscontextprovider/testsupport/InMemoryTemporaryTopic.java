@@ -0,0 +1,17 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.TemporaryTopic;
+
+final class InMemoryTemporaryTopic extends InMemoryTopic implements TemporaryTopic {
+    private final InMemoryBroker broker;
+
+    InMemoryTemporaryTopic(String name, InMemoryBroker broker) {
+        super(name);
+        this.broker = broker;
+    }
+
+    @Override
+    public void delete() {
+        broker.deleteTopic(getTopicName());
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.TextMessage;
+
+import java.util.Objects;
+
+final class InMemoryTextMessage extends InMemoryMessage implements TextMessage {
+    private String text;
+
+    InMemoryTextMessage(String text) {
+        this.text = text;
+    }
+
+    @Override
+    InMemoryTextMessage copy() {
+        return copyHeadersTo(new InMemoryTextMessage(text));
+    }
+
+    @Override
+    public void setText(String string) throws JMSException {
+        checkBodyWriteable();
+        this.text = string;
+    }
+
+    @Override
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public void clearBody() throws JMSException {
+        super.clearBody();
+        text = null;
+    }
+
+    @Override
+    public <T> T getBody(Class<T> c) throws JMSException {
+        if (Objects.isNull(text)) {
+            return null;
+        }
+        if (!isBodyAssignableTo(c)) {
+            throw bodyFormatException(c, String.class);
+        }
+        return c.cast(text);
+    }
+
+    @Override
+    public boolean isBodyAssignableTo(Class c) {
+        return Objects.isNull(text) || canReadBodyAs(c, String.class);
+    }
+}
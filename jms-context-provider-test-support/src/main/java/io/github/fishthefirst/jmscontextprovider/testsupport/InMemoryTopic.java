@@ -0,0 +1,33 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.Topic;
+
+import java.util.Objects;
+
+class InMemoryTopic implements Topic {
+    private final String name;
+
+    InMemoryTopic(String name) {
+        this.name = Objects.requireNonNull(name, "Topic name cannot be null");
+    }
+
+    @Override
+    public String getTopicName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof InMemoryTopic other && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "topic://" + name;
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.JMSRuntimeException;
+import jakarta.jms.Message;
+import jakarta.jms.Queue;
+import jakarta.jms.TransactionRolledBackRuntimeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FaultInjectorTest {
+    private final InMemoryBroker broker = new InMemoryBroker();
+    private final FaultInjector injector = new FaultInjector();
+    private final ConnectionFactory connectionFactory = injector.wrap(broker.createConnectionFactory());
+
+    @AfterEach
+    void closeInjector() {
+        injector.close();
+    }
+
+    @Test
+    void failedCommitsRollBackAndFailedRecoversLeaveMessagesUnacknowledged() throws JMSException {
+        injector.injectEvery(Fault.FAIL_COMMIT, 2);
+        try (JMSContext producer = connectionFactory.createContext(JMSContext.SESSION_TRANSACTED);
+             JMSContext consumer = connectionFactory.createContext(JMSContext.CLIENT_ACKNOWLEDGE)) {
+            Queue queue = producer.createQueue("orders");
+            producer.createProducer().send(queue, "order-1");
+            producer.commit();
+            producer.createProducer().send(queue, "order-2");
+            assertThrows(TransactionRolledBackRuntimeException.class, producer::commit);
+            assertEquals(1, broker.getQueueDepth("orders"));
+
+            jakarta.jms.JMSConsumer jmsConsumer = consumer.createConsumer(queue);
+            assertEquals("order-1", jmsConsumer.receiveBody(String.class, 1000));
+            injector.inject(Fault.FAIL_RECOVER);
+            assertThrows(JMSRuntimeException.class, consumer::recover);
+            consumer.recover();
+            Message redelivered = jmsConsumer.receive(1000);
+            assertTrue(redelivered.getJMSRedelivered());
+        }
+        assertEquals(1, injector.getInjectedCount(Fault.FAIL_COMMIT));
+        assertEquals(1, injector.getInjectedCount(Fault.FAIL_RECOVER));
+    }
+
+    @Test
+    void droppedConnectionsReportToTheirListenerAndRedeliverToTheNextConnection() throws Exception {
+        BlockingQueue<JMSException> exceptions = new LinkedBlockingQueue<>();
+        JMSContext connection = connectionFactory.createContext(JMSContext.CLIENT_ACKNOWLEDGE);
+        connection.setExceptionListener(exceptions::add);
+        JMSContext session = connection.createContext(JMSContext.CLIENT_ACKNOWLEDGE);
+        Queue queue = session.createQueue("orders");
+        session.createProducer().send(queue, "order-1");
+        assertEquals("order-1", session.createConsumer(queue).receiveBody(String.class, 1000));
+
+        injector.inject(Fault.DROP_CONNECTION);
+
+        assertNotNull(exceptions.poll(1, TimeUnit.SECONDS));
+        assertThrows(JMSRuntimeException.class, () -> session.createProducer());
+        connection.close();
+        try (JMSContext reconnected = connectionFactory.createContext(JMSContext.AUTO_ACKNOWLEDGE)) {
+            Message redelivered = reconnected.createConsumer(queue).receive(1000);
+            assertEquals("order-1", redelivered.getBody(String.class));
+            assertTrue(redelivered.getJMSRedelivered());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.fishthefirst.jmscontextprovider.testsupport;
+
+import io.github.fishthefirst.jmscontextprovider.exceptions.JMSReplyException;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSContextAwareComponentFactory;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSRequestReplyClient;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSRequestReplyServer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryRequestReplyTest {
+    private final InMemoryBroker broker = new InMemoryBroker();
+
+    @Test
+    void pipelinedRequestsAreAnsweredThroughATemporaryQueue() throws Exception {
+        try (JMSConnectionContextHolder connectionContextHolder = JMSContextAwareComponentFactory.createContextHolder(broker.createConnectionFactory());
+             JMSRequestReplyServer<String, String> server = JMSContextAwareComponentFactory.createRequestReplyServer(connectionContextHolder,
+                     s -> {
+                         if (s.equals("fail")) {
+                             throw new IllegalArgumentException("Cannot answer " + s);
+                         }
+                         return s.toUpperCase(Locale.ROOT);
+                     },
+                     s -> s, s -> s, "requests", null);
+             JMSRequestReplyClient<String, String> client = JMSContextAwareComponentFactory.createRequestReplyClient(connectionContextHolder,
+                     s -> s, s -> s, "requests", null, 2, null)) {
+            server.start();
+            List<CompletableFuture<String>> replies = IntStream.range(0, 500)
+                    .mapToObj(i -> client.request("request-" + i))
+                    .toList();
+            for (int i = 0; i < replies.size(); i++) {
+                assertEquals("REQUEST-" + i, replies.get(i).get(10, TimeUnit.SECONDS));
+            }
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> client.request("fail").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(JMSReplyException.class, failure.getCause());
+            assertEquals("Cannot answer fail", failure.getCause().getMessage());
+            assertEquals(0, client.getPendingCount());
+            assertEquals(500, server.getRepliedCount());
+            assertEquals(1, server.getFailedCount());
+            assertEquals(0, broker.getQueueDepth("requests"));
+        }
+    }
+
+    @Test
+    void unansweredRequestsTimeOutAndLateRepliesAreDropped() throws Exception {
+        try (JMSConnectionContextHolder connectionContextHolder = JMSContextAwareComponentFactory.createContextHolder(broker.createConnectionFactory());
+             JMSRequestReplyClient<String, String> client = JMSContextAwareComponentFactory.createRequestReplyClient(connectionContextHolder,
+                     s -> s, s -> s, "requests", "replies", 1, null)) {
+            CompletableFuture<String> reply = client.request("request", Duration.ofMillis(100));
+            ExecutionException timeout = assertThrows(ExecutionException.class, () -> reply.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, timeout.getCause());
+            assertEquals(1, client.getTimeoutCount());
+            assertEquals(0, client.getPendingCount());
+
+            try (JMSRequestReplyServer<String, String> server = JMSContextAwareComponentFactory.createRequestReplyServer(connectionContextHolder,
+                    s -> s, s -> s, s -> s, "requests", null)) {
+                server.start();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (client.getUnmatchedReplyCount() == 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+            }
+            assertEquals(1, client.getUnmatchedReplyCount());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.fishthefirst.jmscontextprovider.configuration;
+
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConsumer;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConsumerLatency;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConsumerMetrics;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSLatencyMetrics;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerMetrics;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerTransactionManager;
+import io.github.fishthefirst.jmscontextprovider.transactional.JMSListenerBeanPostProcessor;
+import io.github.fishthefirst.jmscontextprovider.utils.LatencyHistogram;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the library's counters to Micrometer.
+ * <p>
+ * Meters read the lock-free counters of the components when scraped, nothing is recorded through Micrometer on the
+ * send or receive path. Listener consumers only exist once the context has been refreshed, so they are bound on
+ * {@link ApplicationStartedEvent}, aggregated per destination.
+ * <p>
+ * Consumer latencies are published per destination and stage as a timer, along with gauges of the max and of the
+ * {@link #PERCENTILES} since startup, read from histograms shared by the destination's consumers.
+ */
+public final class JMSMetricsBinder implements MeterBinder, ApplicationListener<ApplicationStartedEvent> {
+    static final double[] PERCENTILES = {0.5, 0.99};
+
+    private final ObjectProvider<JMSConnectionContextHolder> connectionContextHolder;
+    private final ObjectProvider<JMSProducerTransactionManager<?>> transactionManagers;
+    private final ObjectProvider<JMSListenerBeanPostProcessor> listeners;
+    private volatile MeterRegistry registry;
+    private boolean consumersBound;
+
+    public JMSMetricsBinder(ObjectProvider<JMSConnectionContextHolder> connectionContextHolder,
+                            ObjectProvider<JMSProducerTransactionManager<?>> transactionManagers,
+                            ObjectProvider<JMSListenerBeanPostProcessor> listeners) {
+        this.connectionContextHolder = connectionContextHolder;
+        this.transactionManagers = transactionManagers;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        connectionContextHolder.ifAvailable(holder -> bindConnection(registry, holder));
+        transactionManagers.orderedStream().forEach(manager -> bindProducer(registry, manager));
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        MeterRegistry currentRegistry = registry;
+        if (Objects.isNull(currentRegistry)) {
+            return;
+        }
+        synchronized (this) {
+            if (consumersBound) {
+                return;
+            }
+            consumersBound = true;
+        }
+        JMSListenerBeanPostProcessor listenerBeanPostProcessor = listeners.getIfAvailable();
+        if (Objects.nonNull(listenerBeanPostProcessor)) {
+            Map<String, List<JMSConsumer<Object>>> byDestination = listenerBeanPostProcessor.getConsumers().stream()
+                    .collect(Collectors.groupingBy(JMSConsumer::getDestinationName));
+            JMSLatencyMetrics latencyMetrics = listenerBeanPostProcessor.getLatencyMetrics();
+            byDestination.forEach((destination, consumers) ->
+                    bindConsumers(currentRegistry, destination, consumers, latencyMetrics.forDestination(destination)));
+        }
+    }
+
+    private static void bindConnection(MeterRegistry registry, JMSConnectionContextHolder holder) {
+        Gauge.builder("jms.connection.sessions", holder, JMSConnectionContextHolder::getLiveSessionCount)
+                .description("Sessions currently open across all connections")
+                .register(registry);
+        Gauge.builder("jms.connection.available", holder, h -> h.isConnectionAvailable() ? 1 : 0)
+                .register(registry);
+        FunctionCounter.builder("jms.connection.failures", holder, JMSConnectionContextHolder::getConnectionFailureCount)
+                .description("Times the circuit opened because no connection could be built")
+                .register(registry);
+        FunctionCounter.builder("jms.connection.reconnects", holder, JMSConnectionContextHolder::getReconnectCount)
+                .register(registry);
+    }
+
+    private static void bindProducer(MeterRegistry registry, JMSProducerTransactionManager<?> manager) {
+        Tags tags = Tags.of("destination", manager.getDestinationName());
+        JMSProducerMetrics metrics = manager.getMetrics();
+        counter(registry, "jms.producer.messages", tags.and("outcome", "sent"), metrics, JMSProducerMetrics::getSent);
+        counter(registry, "jms.producer.messages", tags.and("outcome", "failed"), metrics, JMSProducerMetrics::getFailed);
+        counter(registry, "jms.producer.messages", tags.and("outcome", "aborted"), metrics, JMSProducerMetrics::getAborted);
+        counter(registry, "jms.producer.transactions", tags.and("outcome", "committed"), metrics, JMSProducerMetrics::getCommits);
+        counter(registry, "jms.producer.transactions", tags.and("outcome", "commit_failed"), metrics, JMSProducerMetrics::getCommitFailures);
+        counter(registry, "jms.producer.transactions", tags.and("outcome", "rolled_back"), metrics, JMSProducerMetrics::getRollbacks);
+        Gauge.builder("jms.producer.async.queue", manager, JMSProducerTransactionManager::getAsyncQueueDepth)
+                .tags(tags)
+                .description("Asynchronous commits waiting for an executor thread")
+                .register(registry);
+        Gauge.builder("jms.producer.async.active", manager, JMSProducerTransactionManager::getAsyncActiveCount)
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("jms.producer.chunk.size", manager, m -> m.getChunkSizer().getChunkSize())
+                .tags(tags)
+                .description("Objects per transaction of chunked sends, adapted to the commit time")
+                .register(registry);
+    }
+
+    private static void bindConsumers(MeterRegistry registry,
+                                      String destination,
+                                      List<JMSConsumer<Object>> consumers,
+                                      JMSConsumerLatency latency) {
+        Tags tags = Tags.of("destination", destination);
+        consumerCounter(registry, "jms.consumer.messages", tags.and("outcome", "consumed"), consumers, JMSConsumerMetrics::getConsumed);
+        consumerCounter(registry, "jms.consumer.messages", tags.and("outcome", "discarded"), consumers, JMSConsumerMetrics::getDiscarded);
+        consumerCounter(registry, "jms.consumer.messages", tags.and("outcome", "rolled_back"), consumers, JMSConsumerMetrics::getRolledBack);
+        consumerCounter(registry, "jms.consumer.failures", tags.and("stage", "parse"), consumers, JMSConsumerMetrics::getParseFailures);
+        consumerCounter(registry, "jms.consumer.failures", tags.and("stage", "unmarshal"), consumers, JMSConsumerMetrics::getUnmarshalFailures);
+        consumerCounter(registry, "jms.consumer.failures", tags.and("stage", "callback"), consumers, JMSConsumerMetrics::getCallbackFailures);
+        bindLatency(registry, tags, latency);
+    }
+
+    static void bindLatency(MeterRegistry registry, Tags tags, JMSConsumerLatency latency) {
+        latencyMeters(registry, tags.and("stage", "produce_to_receive"), latency.getProduceToReceive());
+        latencyMeters(registry, tags.and("stage", "receive_to_unmarshalled"), latency.getReceiveToUnmarshalled());
+        latencyMeters(registry, tags.and("stage", "callback"), latency.getCallback());
+    }
+
+    private static <S> void counter(MeterRegistry registry, String name, Tags tags, S source, ToDoubleFunction<S> count) {
+        FunctionCounter.builder(name, source, count).tags(tags).register(registry);
+    }
+
+    private static void consumerCounter(MeterRegistry registry,
+                                        String name,
+                                        Tags tags,
+                                        List<JMSConsumer<Object>> consumers,
+                                        ToLongFunction<JMSConsumerMetrics> count) {
+        counter(registry, name, tags, consumers, list -> list.stream().mapToLong(c -> count.applyAsLong(c.getMetrics())).sum());
+    }
+
+    private static void latencyMeters(MeterRegistry registry, Tags tags, LatencyHistogram histogram) {
+        FunctionTimer.builder("jms.consumer.latency", histogram, LatencyHistogram::getCount, LatencyHistogram::getTotalNanos, TimeUnit.NANOSECONDS)
+                .tags(tags)
+                .register(registry);
+        TimeGauge.builder("jms.consumer.latency.max", histogram, TimeUnit.NANOSECONDS, LatencyHistogram::getMaxNanos)
+                .tags(tags)
+                .register(registry);
+        for (double percentile : PERCENTILES) {
+            TimeGauge.builder("jms.consumer.latency.percentile", histogram, TimeUnit.NANOSECONDS, h -> h.getValueAtPercentile(percentile * 100))
+                    .tags(tags.and("phi", String.valueOf(percentile)))
+                    .register(registry);
+        }
+    }
+}
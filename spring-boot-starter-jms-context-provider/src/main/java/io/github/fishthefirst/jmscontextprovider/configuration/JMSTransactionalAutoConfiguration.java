@@ -3,39 +3,60 @@ package io.github.fishthefirst.jmscontextprovider.configuration;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.fishthefirst.jmscontextprovider.data.MessageWithMetadata;
+import io.github.fishthefirst.jmscontextprovider.data.MetadataMode;
 import io.github.fishthefirst.jmscontextprovider.handlers.SendMessageAbortedHandler;
 import io.github.fishthefirst.jmscontextprovider.handlers.SendMessageExceptionHandler;
 import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
 import io.github.fishthefirst.jmscontextprovider.jms.JMSContextAwareComponentFactory;
 import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerTransactionManager;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageMetadataHeaderWriter;
 import io.github.fishthefirst.jmscontextprovider.serde.MessageProcessor;
+import io.github.fishthefirst.jmscontextprovider.serde.MessageToObjectUnmarshaller;
 import io.github.fishthefirst.jmscontextprovider.serde.MessageWithMetadataMarshaller;
 import io.github.fishthefirst.jmscontextprovider.serde.ObjectToStringMarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.PayloadCodecMarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.PayloadCodecUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.serde.PayloadCodecs;
+import io.github.fishthefirst.jmscontextprovider.serde.PayloadWriter;
 import io.github.fishthefirst.jmscontextprovider.serde.StringToObjectUnmarshaller;
+import io.github.fishthefirst.jmscontextprovider.transactional.JMSListenerBeanPostProcessor;
 import io.github.fishthefirst.jmscontextprovider.transactional.JMSTransactionContextAspect;
 import jakarta.jms.ConnectionFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
 import org.springframework.lang.Nullable;
 
-import java.time.Instant;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 
 @ConditionalOnClass({JMSTransactionContextAspect.class, JMSConnectionContextHolder.class, JMSProducerTransactionManager.class, ConnectionFactory.class})
 @AutoConfigurationPackage
 @AutoConfiguration
 public final class JMSTransactionalAutoConfiguration {
+    static final List<String> DEFAULT_ALLOWED_TYPES = List.of(String.class.getName(), Boolean.class.getName(),
+            Character.class.getName(), Byte.class.getName(), Short.class.getName(), Integer.class.getName(),
+            Long.class.getName(), Float.class.getName(), Double.class.getName());
+    private static final String LIBRARY_PACKAGE = "io.github.fishthefirst.jmscontextprovider";
 
     @Bean
     @ConditionalOnMissingBean(JMSConnectionContextHolder.class)
     @ConditionalOnBean({ConnectionFactory.class, SessionModeSupplier.class})
     public JMSConnectionContextHolder jmsConnectionContextHolder(@Lazy ConnectionFactory connectionFactory,
-                                                                 @Value("application.jms-context-provider.client-id:jms-provider") String clientId) {
+                                                                 @Value("${application.jms-context-provider.client-id:jms-provider}") String clientId) {
         JMSConnectionContextHolder contextHolder = JMSContextAwareComponentFactory.createContextHolder(connectionFactory);
         contextHolder.setAllowContextWithoutClientId(false);
         contextHolder.setClientId(clientId);
@@ -51,46 +72,163 @@ public final class JMSTransactionalAutoConfiguration {
                                                                        @Nullable SendMessageAbortedHandler<T> sendMessageAbortedHandler,
                                                                        @Nullable MessageProcessor<T> messagePreProcessor,
                                                                        @Nullable MessageProcessor<T> messagePostProcessor,
-                                                                       @Value("application.jms-context-provider.destination-name") String destinationName,
-                                                                       @Value("application.jms-context-provider.topic:false") boolean topic) {
+                                                                       @Value("${application.jms-context-provider.destination-name}") String destinationName,
+                                                                       @Value("${application.jms-context-provider.topic:false}") boolean topic,
+                                                                       @Value("${application.jms-context-provider.metadata-mode:BODY}") MetadataMode metadataMode,
+                                                                       @Lazy PayloadCodecs payloadCodecs,
+                                                                       Environment environment) {
+        String codecName = codecFor(environment, destinationName);
+        if (!codecName.isEmpty()) {
+            // Binary payloads carry their metadata in message properties, with the codec recorded for consumers
+            return new JMSProducerTransactionManager<>(connectionContextHolder,
+                    new PayloadCodecMarshaller<T>(payloadCodecs.get(codecName)),
+                    sendMessageExceptionHandler,
+                    sendMessageAbortedHandler,
+                    new MessageMetadataHeaderWriter<>(messagePreProcessor, false, codecName),
+                    messagePostProcessor,
+                    destinationName,
+                    topic);
+        }
         return new JMSProducerTransactionManager<>(connectionContextHolder,
                 messageToStringMarshaller,
                 sendMessageExceptionHandler,
                 sendMessageAbortedHandler,
-                messagePreProcessor,
+                metadataMode == MetadataMode.HEADERS ? new MessageMetadataHeaderWriter<>(messagePreProcessor, false) : messagePreProcessor,
                 messagePostProcessor,
                 destinationName,
                 topic);
     }
 
+    /**
+     * Codecs found on the classpath, e.g. CBOR and Smile once their Jackson dataformat modules are added.
+     */
+    @Bean
+    @ConditionalOnMissingBean(PayloadCodecs.class)
+    public PayloadCodecs payloadCodecs() {
+        return PayloadCodecs.loadInstalled();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(JMSWarmUpListener.class)
+    @ConditionalOnBean(JMSConnectionContextHolder.class)
+    @ConditionalOnProperty(name = "application.jms-context-provider.warm-up.enabled", havingValue = "true")
+    public JMSWarmUpListener jmsWarmUpListener(JMSConnectionContextHolder connectionContextHolder,
+                                               ObjectProvider<JMSProducerTransactionManager<?>> transactionManagers,
+                                               @Value("${application.jms-context-provider.warm-up.producers:1}") int producersPerManager) {
+        return new JMSWarmUpListener(connectionContextHolder, transactionManagers.orderedStream().toList(), producersPerManager);
+    }
+
+    /**
+     * Static, so registering the post-processor does not instantiate this configuration early.
+     */
+    @Bean
+    @ConditionalOnMissingBean(JMSListenerBeanPostProcessor.class)
+    public static JMSListenerBeanPostProcessor jmsListenerBeanPostProcessor(ObjectProvider<JMSConnectionContextHolder> connectionContextHolder,
+                                                                           ObjectProvider<MessageToObjectUnmarshaller<?>> messageToObjectUnmarshaller,
+                                                                           @Value("${application.jms-context-provider.listener.scheduler-threads:2}") int schedulerThreads) {
+        return new JMSListenerBeanPostProcessor(connectionContextHolder, messageToObjectUnmarshaller, schedulerThreads);
+    }
+
     @Bean
     @ConditionalOnMissingBean(JMSTransactionContextAspect.class)
     public JMSTransactionContextAspect jmsTransactionContextAspect(@Lazy JMSProducerTransactionManager<?> transactionManager) {
         return new JMSTransactionContextAspect(transactionManager);
     }
 
+    /**
+     * Allowed payload types default to the application's auto-configuration packages and the boxed primitives and String.
+     * The library's own packages are registered as auto-configuration packages too, but are left off the default.
+     */
     @Bean
-    @ConditionalOnMissingBean(ObjectToStringMarshaller.class)
-    public ObjectToStringMarshaller<?> objectToStringMarshaller(@Lazy ObjectMapper objectMapper) {
-        return new MessageWithMetadataMarshaller<>((o) -> {
-            try {
-                return new MessageWithMetadata(Instant.now(), objectMapper.writeValueAsString(o), o.getClass().getName()).toStringPayload();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+    @ConditionalOnMissingBean(JacksonTypeCache.class)
+    public JacksonTypeCache jacksonTypeCache(@Lazy ObjectMapper objectMapper,
+                                             BeanFactory beanFactory,
+                                             @Value("${application.jms-context-provider.allowed-types:}") List<String> allowedTypes) {
+        List<String> allowlist = allowedTypes;
+        if (allowlist.isEmpty()) {
+            allowlist = defaultAllowlist(AutoConfigurationPackages.has(beanFactory) ? AutoConfigurationPackages.get(beanFactory) : List.of());
+        }
+        return new JacksonTypeCache(objectMapper, allowlist);
+    }
+
+    static List<String> defaultAllowlist(List<String> autoConfigurationPackages) {
+        List<String> allowlist = new ArrayList<>();
+        for (String packageName : autoConfigurationPackages) {
+            if (!packageName.equals(LIBRARY_PACKAGE) && !packageName.startsWith(LIBRARY_PACKAGE + ".")) {
+                allowlist.add(packageName);
             }
-        }, false);
+        }
+        allowlist.addAll(DEFAULT_ALLOWED_TYPES);
+        return allowlist;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(ObjectToStringMarshaller.class)
+    public ObjectToStringMarshaller<?> objectToStringMarshaller(@Lazy JacksonTypeCache typeCache,
+                                                                @Value("${application.jms-context-provider.metadata-mode:BODY}") MetadataMode metadataMode) {
+        if (metadataMode == MetadataMode.HEADERS) {
+            // The metadata is written to message properties by the transaction manager's pre-processor
+            return (o) -> {
+                try {
+                    return typeCache.writerFor(o.getClass()).writeValueAsString(o);
+                } catch (JsonProcessingException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        }
+        // Jackson writes straight into the envelope, which is built once per message
+        return new MessageWithMetadataMarshaller<>((PayloadWriter<Object>) (o, writer) -> typeCache.write(o, writer), false);
     }
 
     @Bean
     @ConditionalOnMissingBean(StringToObjectUnmarshaller.class)
-    public StringToObjectUnmarshaller<?> stringToObjectUnmarshaller(@Lazy ObjectMapper objectMapper) {
+    public StringToObjectUnmarshaller<?> stringToObjectUnmarshaller(@Lazy JacksonTypeCache typeCache) {
         return (s) -> {
             MessageWithMetadata message = new MessageWithMetadata(s);
             try {
-                return objectMapper.readValue(message.getPayload(), message.getPayloadClass());
-            } catch (JsonProcessingException | ClassNotFoundException e) {
+                return typeCache.read(message.getPayloadClassName(), message.getPayloadReader());
+            } catch (IOException e) {
                 throw new RuntimeException(e);
             }
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the metadata from message properties when present, and from the envelope in the body otherwise,
+     * so consumers handle producers in either metadata mode.
+     */
+    @Bean
+    @ConditionalOnMissingBean(MessageToObjectUnmarshaller.class)
+    public MessageToObjectUnmarshaller<?> messageToObjectUnmarshaller(@Lazy JacksonTypeCache typeCache,
+                                                                      @Lazy PayloadCodecs payloadCodecs) {
+        // Messages encoded with a codec are decoded with it, whatever codec the consumer's own producers use
+        return new PayloadCodecUnmarshaller<>(payloadCodecs, typeCache::resolve, (jmsMessage, s) -> {
+            MessageWithMetadata message = MessageWithMetadata.fromMessage(jmsMessage, s);
+            return typeCache.read(message.getPayloadClassName(), message.getPayloadReader());
+        });
+    }
+
+    /**
+     * The codec of a destination is read from {@code application.jms-context-provider.codecs.<destination>},
+     * falling back to {@code application.jms-context-provider.codec}. Blank means text JSON.
+     */
+    static String codecFor(Environment environment, String destinationName) {
+        String defaultCodec = environment.getProperty("application.jms-context-provider.codec", "");
+        return environment.getProperty("application.jms-context-provider.codecs." + destinationName, defaultCodec).trim();
+    }
+
+    /**
+     * Only loaded when Micrometer is on the classpath.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class JMSMetricsConfiguration {
+        @Bean
+        @ConditionalOnMissingBean(JMSMetricsBinder.class)
+        public JMSMetricsBinder jmsMetricsBinder(ObjectProvider<JMSConnectionContextHolder> connectionContextHolder,
+                                                 ObjectProvider<JMSProducerTransactionManager<?>> transactionManagers,
+                                                 ObjectProvider<JMSListenerBeanPostProcessor> listeners) {
+            return new JMSMetricsBinder(connectionContextHolder, transactionManagers, listeners);
+        }
+    }
+}
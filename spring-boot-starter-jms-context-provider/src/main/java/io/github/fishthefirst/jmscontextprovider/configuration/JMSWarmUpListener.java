@@ -0,0 +1,49 @@
+package io.github.fishthefirst.jmscontextprovider.configuration;
+
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConnectionContextHolder;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSProducerTransactionManager;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSWarmUp;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSWarmUpReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.List;
+
+/**
+ * Warms up connections and producers once the context has started, before the application reports itself ready.
+ * A failed warm-up is logged and does not fail startup, components then fall back to building themselves lazily.
+ */
+public final class JMSWarmUpListener implements ApplicationListener<ApplicationStartedEvent> {
+    private static final Logger log = LoggerFactory.getLogger(JMSWarmUpListener.class);
+
+    private final JMSConnectionContextHolder connectionContextHolder;
+    private final List<JMSProducerTransactionManager<?>> transactionManagers;
+    private final int producersPerManager;
+    private volatile JMSWarmUpReport report;
+
+    public JMSWarmUpListener(JMSConnectionContextHolder connectionContextHolder,
+                             List<JMSProducerTransactionManager<?>> transactionManagers,
+                             int producersPerManager) {
+        this.connectionContextHolder = connectionContextHolder;
+        this.transactionManagers = List.copyOf(transactionManagers);
+        this.producersPerManager = producersPerManager;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        try {
+            report = JMSWarmUp.warmUp(connectionContextHolder, transactionManagers, producersPerManager);
+        } catch (Exception e) {
+            log.error("JMS warm-up failed, components will be built on first use", e);
+        }
+    }
+
+    /**
+     * @return the warm-up report, or null if warm-up has not run or failed
+     */
+    public JMSWarmUpReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.fishthefirst.jmscontextprovider.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves payload class names to prebuilt Jackson readers, and payload classes to prebuilt writers.
+ * <p>
+ * Only classes on the allowlist are resolved, so a sender cannot make the consumer load and instantiate arbitrary
+ * classes. An allowlist entry matches the class with that exact name, or any class in that package or its subpackages.
+ */
+public final class JacksonTypeCache {
+    private final ObjectMapper objectMapper;
+    private final List<String> allowlist;
+    private final Map<String, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JacksonTypeCache(ObjectMapper objectMapper, Collection<String> allowlist) {
+        Objects.requireNonNull(objectMapper, "Object mapper cannot be null");
+        Objects.requireNonNull(allowlist, "Allowlist cannot be null");
+        this.objectMapper = objectMapper;
+        this.allowlist = allowlist.stream().map(String::trim).filter(entry -> !entry.isEmpty()).toList();
+    }
+
+    public List<String> getAllowlist() {
+        return allowlist;
+    }
+
+    public boolean isAllowed(String className) {
+        for (String entry : allowlist) {
+            if (className.startsWith(entry) &&
+                    (className.length() == entry.length() || className.charAt(entry.length()) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ObjectReader readerFor(String className) {
+        Objects.requireNonNull(className, "Class name cannot be null");
+        ObjectReader reader = readers.get(className);
+        if (Objects.isNull(reader)) {
+            if (!isAllowed(className)) {
+                throw new IllegalArgumentException("Class " + className + " is not on the allowlist");
+            }
+            reader = readers.computeIfAbsent(className, this::buildReader);
+        }
+        return reader;
+    }
+
+    /**
+     * @return the allowed class with the given name, e.g. for decoders that do not go through Jackson's text readers
+     */
+    public Class<?> resolve(String className) {
+        return readerFor(className).getValueType().getRawClass();
+    }
+
+    public ObjectWriter writerFor(Class<?> type) {
+        return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+
+    public <T> T read(String className, Reader payload) throws IOException {
+        return readerFor(className).readValue(payload);
+    }
+
+    public <T> T read(String className, byte[] payload) throws IOException {
+        return readerFor(className).readValue(payload);
+    }
+
+    public void write(Object object, Writer writer) throws IOException {
+        writerFor(object.getClass()).writeValue(writer, object);
+    }
+
+    private ObjectReader buildReader(String className) {
+        try {
+            return objectMapper.readerFor(objectMapper.getTypeFactory().findClass(className));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Class " + className + " not found", e);
+        }
+    }
+}
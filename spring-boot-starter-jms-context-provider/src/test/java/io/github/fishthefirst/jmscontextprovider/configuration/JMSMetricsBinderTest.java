@@ -0,0 +1,35 @@
+package io.github.fishthefirst.jmscontextprovider.configuration;
+
+import io.github.fishthefirst.jmscontextprovider.jms.JMSConsumerLatency;
+import io.github.fishthefirst.jmscontextprovider.jms.JMSLatencyMetrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JMSMetricsBinderTest {
+
+    @Test
+    void latencyIsPublishedWithMaxAndPercentilesPerStage() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JMSConsumerLatency latency = new JMSLatencyMetrics().forDestination("orders");
+        JMSMetricsBinder.bindLatency(registry, Tags.of("destination", "orders"), latency);
+
+        for (int i = 1; i <= 100; i++) {
+            latency.getCallback().record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertEquals(100, registry.get("jms.consumer.latency").tag("stage", "callback").functionTimer().count());
+        assertEquals(100, registry.get("jms.consumer.latency.max").tag("stage", "callback").timeGauge().value(TimeUnit.MILLISECONDS));
+        // Percentiles are bucket upper bounds, within about 3% of the recorded values
+        assertEquals(50, registry.get("jms.consumer.latency.percentile").tags("stage", "callback", "phi", "0.5")
+                .timeGauge().value(TimeUnit.MILLISECONDS), 50 * 0.04);
+        assertEquals(99, registry.get("jms.consumer.latency.percentile").tags("stage", "callback", "phi", "0.99")
+                .timeGauge().value(TimeUnit.MILLISECONDS), 99 * 0.04);
+        assertEquals(0, registry.get("jms.consumer.latency.max").tags("destination", "orders", "stage", "produce_to_receive")
+                .timeGauge().value(TimeUnit.MILLISECONDS));
+    }
+}
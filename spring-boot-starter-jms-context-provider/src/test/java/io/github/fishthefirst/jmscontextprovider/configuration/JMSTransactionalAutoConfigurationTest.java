@@ -0,0 +1,42 @@
+package io.github.fishthefirst.jmscontextprovider.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JMSTransactionalAutoConfigurationTest {
+
+    @Test
+    void codecIsPickedPerDestinationAndFallsBackToTheDefault() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "application.jms-context-provider.codec", "smile",
+                "application.jms-context-provider.codecs.orders", " cbor ",
+                "application.jms-context-provider.codecs.audit", "")));
+
+        assertEquals("cbor", JMSTransactionalAutoConfiguration.codecFor(environment, "orders"));
+        assertEquals("", JMSTransactionalAutoConfiguration.codecFor(environment, "audit"));
+        assertEquals("smile", JMSTransactionalAutoConfiguration.codecFor(environment, "invoices"));
+        assertEquals("", JMSTransactionalAutoConfiguration.codecFor(new StandardEnvironment(), "orders"));
+    }
+
+    @Test
+    void defaultAllowlistLeavesOutTheLibraryPackages() {
+        List<String> allowlist = JMSTransactionalAutoConfiguration.defaultAllowlist(List.of("com.foo",
+                "io.github.fishthefirst.jmscontextprovider", "io.github.fishthefirst.jmscontextprovider.configuration",
+                "io.github.fishthefirst.jmscontextproviderdemo"));
+
+        assertTrue(allowlist.contains("com.foo"));
+        assertTrue(allowlist.contains("io.github.fishthefirst.jmscontextproviderdemo"));
+        assertTrue(allowlist.containsAll(JMSTransactionalAutoConfiguration.DEFAULT_ALLOWED_TYPES));
+        assertFalse(allowlist.contains("io.github.fishthefirst.jmscontextprovider"));
+        assertFalse(allowlist.contains("io.github.fishthefirst.jmscontextprovider.configuration"));
+    }
+}
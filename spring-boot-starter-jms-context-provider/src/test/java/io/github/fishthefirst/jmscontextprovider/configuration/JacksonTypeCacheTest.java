@@ -0,0 +1,52 @@
+package io.github.fishthefirst.jmscontextprovider.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JacksonTypeCacheTest {
+
+    @Test
+    void exactClassEntryMatchesOnlyThatClass() throws IOException {
+        JacksonTypeCache typeCache = new JacksonTypeCache(new ObjectMapper(), JMSTransactionalAutoConfiguration.DEFAULT_ALLOWED_TYPES);
+
+        assertTrue(typeCache.isAllowed("java.lang.String"));
+        assertTrue(typeCache.isAllowed("java.lang.Integer"));
+        assertFalse(typeCache.isAllowed("java.lang.StringBuilder"));
+        assertFalse(typeCache.isAllowed("java.lang.ProcessBuilder"));
+        assertEquals("payload", typeCache.read("java.lang.String", new StringReader("\"payload\"")));
+    }
+
+    @Test
+    void packageEntryMatchesItsClassesAndSubpackages() {
+        JacksonTypeCache typeCache = new JacksonTypeCache(new ObjectMapper(), List.of(" com.foo "));
+
+        assertTrue(typeCache.isAllowed("com.foo.Order"));
+        assertTrue(typeCache.isAllowed("com.foo.orders.Order"));
+    }
+
+    @Test
+    void packageEntryDoesNotMatchPackagesSharingItsPrefix() {
+        JacksonTypeCache typeCache = new JacksonTypeCache(new ObjectMapper(), List.of("com.foo"));
+
+        assertFalse(typeCache.isAllowed("com.foobar.Order"));
+        assertFalse(typeCache.isAllowed("com.fo"));
+    }
+
+    @Test
+    void classesOffTheAllowlistAreRejected() {
+        JacksonTypeCache typeCache = new JacksonTypeCache(new ObjectMapper(), List.of("com.foo"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> typeCache.readerFor("java.lang.ProcessBuilder"));
+        assertEquals("Class java.lang.ProcessBuilder is not on the allowlist", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> typeCache.read("com.foobar.Order", new StringReader("{}")));
+    }
+}